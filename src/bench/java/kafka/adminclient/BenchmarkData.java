@@ -0,0 +1,143 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.kafka.clients.admin.LogDirDescription;
+import org.apache.kafka.clients.admin.ReplicaInfo;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+
+/**
+ * Synthetic cluster metadata for the benchmarks. Layouts are generated from a fixed seed so that
+ * every run measures the same data.
+ */
+final class BenchmarkData {
+    static final int RACKS = 3;
+    static final int REPLICATION_FACTOR = 3;
+    static final int PARTITIONS_PER_TOPIC = 50;
+
+    private BenchmarkData() {
+    }
+
+    static List<Node> brokers(int count) {
+        List<Node> nodes = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            nodes.add(new Node(id, "my-cluster-broker-" + id + ".my-cluster-kafka-brokers.kafka.svc", 9092, "rack-" + id % RACKS));
+        }
+        return nodes;
+    }
+
+    /**
+     * Spreads the given number of partitions over topics of {@link #PARTITIONS_PER_TOPIC} partitions,
+     * with replicas placed round-robin over the first usedBrokers brokers and every replica in sync.
+     */
+    static Map<String, TopicDescription> topics(List<Node> brokers, int usedBrokers, int partitions) {
+        Map<String, TopicDescription> topics = new LinkedHashMap<>();
+        int topicCount = (partitions + PARTITIONS_PER_TOPIC - 1) / PARTITIONS_PER_TOPIC;
+        int remaining = partitions;
+        int slot = 0;
+        for (int t = 0; t < topicCount; t++) {
+            String name = String.format("topic-%06d", t);
+            int count = Math.min(PARTITIONS_PER_TOPIC, remaining);
+            remaining -= count;
+            List<TopicPartitionInfo> partitionInfos = new ArrayList<>(count);
+            for (int p = 0; p < count; p++) {
+                partitionInfos.add(partition(brokers, usedBrokers, p, slot++));
+            }
+            topics.put(name, new TopicDescription(name, false, partitionInfos));
+        }
+        return topics;
+    }
+
+    /**
+     * A single topic holding all the partitions.
+     */
+    static TopicDescription wideTopic(List<Node> brokers, int partitions) {
+        List<TopicPartitionInfo> partitionInfos = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            partitionInfos.add(partition(brokers, brokers.size(), p, p));
+        }
+        return new TopicDescription("wide-topic", false, partitionInfos);
+    }
+
+    private static TopicPartitionInfo partition(List<Node> brokers, int usedBrokers, int partition, int slot) {
+        List<Node> replicas = new ArrayList<>(REPLICATION_FACTOR);
+        for (int r = 0; r < REPLICATION_FACTOR; r++) {
+            replicas.add(brokers.get((slot + r) % usedBrokers));
+        }
+        return new TopicPartitionInfo(partition, replicas.get(0), replicas, replicas);
+    }
+
+    /**
+     * Reports every replica in a single log dir of its broker, with partition sizes following a
+     * long-tailed distribution between 1 MB and about 10 GB.
+     */
+    static Map<Integer, Map<String, LogDirDescription>> logDirs(List<Node> brokers, Map<String, TopicDescription> topics) {
+        Random random = new Random(42);
+        List<Map<TopicPartition, ReplicaInfo>> replicaInfos = new ArrayList<>();
+        for (int b = 0; b < brokers.size(); b++) {
+            replicaInfos.add(new HashMap<>());
+        }
+        for (TopicDescription topicDescription : topics.values()) {
+            for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                long size = (long) (1_000_000 * Math.pow(10_000, random.nextDouble() * random.nextDouble()));
+                TopicPartition topicPartition = new TopicPartition(topicDescription.name(), partitionInfo.partition());
+                for (Node replica : partitionInfo.replicas()) {
+                    replicaInfos.get(replica.id()).put(topicPartition, new ReplicaInfo(size, 0, false));
+                }
+            }
+        }
+
+        Map<Integer, Map<String, LogDirDescription>> logDirs = new HashMap<>();
+        for (Node broker : brokers) {
+            logDirs.put(broker.id(), Map.of("/var/lib/kafka/data-0", new LogDirDescription(null, replicaInfos.get(broker.id()))));
+        }
+        return logDirs;
+    }
+
+    /**
+     * Spreads the replicas of every broker over several 4 TB log dirs, with half of them on the
+     * first dir, as after adding disks to brokers that had one. Sizes are drawn as in {@link #logDirs}.
+     */
+    static Map<Integer, Map<String, LogDirDescription>> jbodLogDirs(List<Node> brokers, Map<String, TopicDescription> topics, int dirs) {
+        long totalBytes = 4L << 40;
+        Random random = new Random(42);
+        List<List<Map<TopicPartition, ReplicaInfo>>> replicaInfos = new ArrayList<>();
+        for (int b = 0; b < brokers.size(); b++) {
+            List<Map<TopicPartition, ReplicaInfo>> brokerDirs = new ArrayList<>();
+            for (int d = 0; d < dirs; d++) {
+                brokerDirs.add(new HashMap<>());
+            }
+            replicaInfos.add(brokerDirs);
+        }
+        for (TopicDescription topicDescription : topics.values()) {
+            for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                long size = (long) (1_000_000 * Math.pow(10_000, random.nextDouble() * random.nextDouble()));
+                TopicPartition topicPartition = new TopicPartition(topicDescription.name(), partitionInfo.partition());
+                for (Node replica : partitionInfo.replicas()) {
+                    int dir = random.nextBoolean() ? 0 : random.nextInt(dirs);
+                    replicaInfos.get(replica.id()).get(dir).put(topicPartition, new ReplicaInfo(size, 0, false));
+                }
+            }
+        }
+
+        Map<Integer, Map<String, LogDirDescription>> logDirs = new HashMap<>();
+        for (Node broker : brokers) {
+            Map<String, LogDirDescription> brokerDirs = new LinkedHashMap<>();
+            for (int d = 0; d < dirs; d++) {
+                Map<TopicPartition, ReplicaInfo> replicas = replicaInfos.get(broker.id()).get(d);
+                long used = replicas.values().stream().mapToLong(ReplicaInfo::size).sum();
+                brokerDirs.put("/var/lib/kafka/data-" + d, new LogDirDescription(null, replicas, totalBytes, Math.max(0, totalBytes - used)));
+            }
+            logDirs.put(broker.id(), brokerDirs);
+        }
+        return logDirs;
+    }
+}
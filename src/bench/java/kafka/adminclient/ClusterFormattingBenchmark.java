@@ -0,0 +1,45 @@
+package kafka.adminclient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.common.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formatting of the cluster description served by /cluster/describe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClusterFormattingBenchmark {
+    @Param({"3", "100", "1000"})
+    public int brokers;
+
+    private ClusterMetadata cluster;
+
+    @Setup
+    public void setUp() {
+        List<Node> nodes = BenchmarkData.brokers(brokers);
+        cluster = new ClusterMetadata("4L6g3nShT-eMCtK--X86sw", nodes, nodes.get(0));
+    }
+
+    @Benchmark
+    public JsonNode formatClusterDescription() {
+        return KafkaAdminClientUtils.formatClusterDescription(cluster);
+    }
+}
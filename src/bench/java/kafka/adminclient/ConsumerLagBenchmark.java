@@ -0,0 +1,78 @@
+package kafka.adminclient;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.common.TopicPartition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lag computation and formatting of /consumergroup/lag for 1,000 groups over a cluster of 10k
+ * partitions, each group consuming a contiguous range of the partitions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConsumerLagBenchmark {
+    private static final int GROUPS = 1_000;
+    private static final int PARTITIONS = 10_000;
+
+    @Param({"10", "100", "1000"})
+    public int partitionsPerGroup;
+
+    private ConsumerLag consumerLag;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        TopicPartition[] partitions = new TopicPartition[PARTITIONS];
+        Map<TopicPartition, Long> endOffsets = new HashMap<>();
+        for (int p = 0; p < PARTITIONS; p++) {
+            partitions[p] = new TopicPartition(String.format("topic-%06d", p / BenchmarkData.PARTITIONS_PER_TOPIC),
+                    p % BenchmarkData.PARTITIONS_PER_TOPIC);
+            endOffsets.put(partitions[p], 1_000_000L + random.nextInt(1_000_000));
+        }
+
+        Map<String, String> states = new TreeMap<>();
+        Map<String, Map<TopicPartition, Long>> committed = new TreeMap<>();
+        for (int g = 0; g < GROUPS; g++) {
+            String groupId = String.format("group-%04d", g);
+            Map<TopicPartition, Long> offsets = new HashMap<>();
+            int first = random.nextInt(PARTITIONS);
+            for (int p = 0; p < partitionsPerGroup; p++) {
+                TopicPartition partition = partitions[(first + p) % PARTITIONS];
+                offsets.put(partition, endOffsets.get(partition) - random.nextInt(10_000));
+            }
+            states.put(groupId, "Stable");
+            committed.put(groupId, offsets);
+        }
+        consumerLag = new ConsumerLag(states, committed, endOffsets, Map.of());
+    }
+
+    @Benchmark
+    public JsonNode formatConsumerLag() {
+        return KafkaAdminClientUtils.formatConsumerLag(consumerLag, false);
+    }
+
+    @Benchmark
+    public JsonNode formatConsumerLagWithPartitions() {
+        return KafkaAdminClientUtils.formatConsumerLag(consumerLag, true);
+    }
+}
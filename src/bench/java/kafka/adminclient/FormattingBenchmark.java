@@ -0,0 +1,78 @@
+package kafka.adminclient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formatting of topic descriptions as JSON trees, as served by /topic/describe, and as the stream
+ * served by /topic/describeall, in JSON and CBOR and in the columnar layout. formatTopicDescription
+ * formats one topic holding all the partitions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FormattingBenchmark {
+    @Param({"10", "1000", "100000", "500000"})
+    public int partitions;
+
+    private Map<String, TopicDescription> topics;
+    private TopicDescription wideTopic;
+    private TopicPage page;
+    private KafkaMetadataCache.Lookup<TopicPage> lookup;
+
+    @Setup
+    public void setUp() {
+        List<Node> brokers = BenchmarkData.brokers(12);
+        topics = BenchmarkData.topics(brokers, brokers.size(), partitions);
+        wideTopic = BenchmarkData.wideTopic(brokers, partitions);
+        page = new TopicPage(topics, null);
+        lookup = new KafkaMetadataCache.Lookup<>(CompletableFuture.completedFuture(page), true, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public JsonNode formatTopicDescriptions() {
+        return KafkaAdminClientUtils.formatTopicDescriptions(topics);
+    }
+
+    @Benchmark
+    public JsonNode formatTopicDescription() {
+        return KafkaAdminClientUtils.formatTopicDescription(wideTopic, wideTopic.name());
+    }
+
+    @Benchmark
+    public void writeTopicDescriptions() throws IOException {
+        KafkaAdminClientUtils.writeTopicDescriptions(OutputStream.nullOutputStream(), page, lookup);
+    }
+
+    @Benchmark
+    public void writeTopicDescriptionsCbor() throws IOException {
+        KafkaAdminClientUtils.writeTopicDescriptions(OutputStream.nullOutputStream(), ResponseFormat.CBOR, page, lookup);
+    }
+
+    @Benchmark
+    public void writeTopicColumnsCbor() throws IOException {
+        KafkaAdminClientUtils.writeTopicColumns(OutputStream.nullOutputStream(), ResponseFormat.CBOR, page, lookup);
+    }
+}
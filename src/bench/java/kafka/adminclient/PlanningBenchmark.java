@@ -0,0 +1,115 @@
+package kafka.adminclient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.admin.LogDirDescription;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reassignment and placement computations. The cluster has 12 brokers over 3 racks, with every
+ * replica on the first 9, as right after a scale-out. Planning mutates the model, so the rebalance
+ * and drain benchmarks include building it; the load benchmark measures that part alone. The log dir
+ * benchmark spreads the same replicas over 4 unevenly filled dirs per broker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PlanningBenchmark {
+    private static final int BROKERS = 12;
+    private static final int USED_BROKERS = 9;
+    private static final int LOG_DIRS = 4;
+
+    @Param({"10", "1000", "100000", "500000"})
+    public int partitions;
+
+    private List<Integer> brokerIdList;
+    private Map<String, TopicDescription> topics;
+    private Map<Integer, Map<String, LogDirDescription>> logDirs;
+    private Map<Integer, Map<String, LogDirDescription>> jbodLogDirs;
+
+    private int[] brokerIds;
+    private int[] brokerRacks;
+    private int[] replicaCounts;
+    private int[] leaderCounts;
+
+    @Setup
+    public void setUp() {
+        List<Node> brokers = BenchmarkData.brokers(BROKERS);
+        brokerIdList = brokers.stream().map(Node::id).toList();
+        topics = BenchmarkData.topics(brokers, USED_BROKERS, partitions);
+        logDirs = BenchmarkData.logDirs(brokers, topics);
+        jbodLogDirs = BenchmarkData.jbodLogDirs(brokers, topics, LOG_DIRS);
+
+        brokerIds = new int[BROKERS];
+        brokerRacks = new int[BROKERS];
+        replicaCounts = new int[BROKERS];
+        leaderCounts = new int[BROKERS];
+        for (int b = 0; b < BROKERS; b++) {
+            brokerIds[b] = b;
+            brokerRacks[b] = b % BenchmarkData.RACKS;
+        }
+        for (TopicDescription topicDescription : topics.values()) {
+            for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                leaderCounts[partitionInfo.leader().id()]++;
+                for (Node replica : partitionInfo.replicas()) {
+                    replicaCounts[replica.id()]++;
+                }
+            }
+        }
+    }
+
+    // The model class is package-private, and JMH's generated code lives in another package
+    @Benchmark
+    public Object loadModel() {
+        return load();
+    }
+
+    @Benchmark
+    public RebalancePlan planRebalance() {
+        return load().plan(RebalanceOptions.DEFAULT, true);
+    }
+
+    @Benchmark
+    public RebalancePlan planLeaders() {
+        return KafkaClusterRebalancer.Model.load(brokerIdList, topics.values(), Set.of(), Map.of()).plan(RebalanceOptions.DEFAULT, false);
+    }
+
+    @Benchmark
+    public RebalancePlan planDrain() {
+        return load().drainPlan(Set.of(0, 1));
+    }
+
+    private KafkaClusterRebalancer.Model load() {
+        return KafkaClusterRebalancer.Model.load(brokerIdList, topics.values(), Set.of(), logDirs);
+    }
+
+    @Benchmark
+    public LogDirPlan planLogDirs() {
+        return KafkaLogDirBalancer.planMoves(jbodLogDirs, LogDirBalanceOptions.DEFAULT);
+    }
+
+    @Benchmark
+    public Map<Integer, List<Integer>> placeTopic() {
+        return KafkaReplicaPlacer.assign(brokerIds, brokerRacks, BenchmarkData.RACKS, replicaCounts.clone(), leaderCounts.clone(),
+                partitions, BenchmarkData.REPLICATION_FACTOR);
+    }
+}
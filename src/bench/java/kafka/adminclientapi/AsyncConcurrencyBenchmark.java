@@ -0,0 +1,101 @@
+package kafka.adminclientapi;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+
+/**
+ * Compares how a fixed pool of request threads copes with a burst of admin requests when each
+ * request blocks on its KafkaFuture, as the controllers used to, versus when it hands back a
+ * CompletableFuture from KafkaFuture.toCompletionStage(). On Java 21+ a third run blocks on
+ * virtual threads. Broker round trips are simulated with a fixed latency, so no cluster is needed.
+ *
+ * Usage: ./gradlew concurrencyBenchmark --args="[requests] [requestThreads] [latencyMs]"
+ */
+public class AsyncConcurrencyBenchmark {
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        // Tomcat's default server.tomcat.threads.max
+        int requestThreads = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long latencyMs = args.length > 2 ? Long.parseLong(args[2]) : 50;
+
+        ScheduledExecutorService broker = Executors.newScheduledThreadPool(4);
+        System.out.printf("%d requests, %d request threads, %d ms broker round trip%n", requests, requestThreads, latencyMs);
+        System.out.printf("%-10s %12s %12s %12s %14s%n", "mode", "req/s", "p50 ms", "p99 ms", "max in flight");
+
+        run("blocking", Executors.newFixedThreadPool(requestThreads), true, requests, latencyMs, broker);
+        run("async", Executors.newFixedThreadPool(requestThreads), false, requests, latencyMs, broker);
+        ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+        if (virtualThreads != null) {
+            run("virtual", virtualThreads, true, requests, latencyMs, broker);
+        }
+        broker.shutdownNow();
+    }
+
+    private static void run(String mode, ExecutorService requestPool, boolean blocking, int requests, long latencyMs,
+                            ScheduledExecutorService broker) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        long[] latenciesNs = new long[requests];
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        long startNs = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int request = i;
+            long submittedNs = System.nanoTime();
+            requestPool.execute(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                KafkaFuture<String> roundTrip = roundTrip(broker, latencyMs);
+                if (blocking) {
+                    try {
+                        roundTrip.get();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    latenciesNs[request] = System.nanoTime() - submittedNs;
+                    inFlight.decrementAndGet();
+                    done.countDown();
+                } else {
+                    roundTrip.toCompletionStage().toCompletableFuture().whenComplete((value, error) -> {
+                        latenciesNs[request] = System.nanoTime() - submittedNs;
+                        inFlight.decrementAndGet();
+                        done.countDown();
+                    });
+                }
+            });
+        }
+        done.await();
+        long elapsedNs = System.nanoTime() - startNs;
+        requestPool.shutdown();
+
+        Arrays.sort(latenciesNs);
+        System.out.printf("%-10s %12.0f %12.1f %12.1f %14d%n", mode,
+                requests / (elapsedNs / 1e9),
+                latenciesNs[requests / 2] / 1e6,
+                latenciesNs[(int) (requests * 0.99)] / 1e6,
+                maxInFlight.get());
+    }
+
+    private static KafkaFuture<String> roundTrip(ScheduledExecutorService broker, long latencyMs) {
+        KafkaFutureImpl<String> future = new KafkaFutureImpl<>();
+        broker.schedule(() -> future.complete("ok"), latencyMs, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package kafka.adminclientapi;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.base.CustomResourceDefinitionContext;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.strimzi.api.kafka.Crds;
+import io.strimzi.api.kafka.model.nodepool.KafkaNodePool;
+import io.strimzi.api.kafka.model.nodepool.KafkaNodePoolBuilder;
+import io.strimzi.api.kafka.model.nodepool.ProcessRoles;
+import kafka.adminclient.ClusterConnection;
+import kafka.adminclient.ClusterSettings;
+import org.apache.kafka.clients.admin.MockAdminClient;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Drives a mix of concurrent requests against the API server and reports the throughput and the
+ * latency percentiles of each kind of request. The server runs in-process with Kafka's MockAdminClient
+ * holding the given number of topics as its default cluster, and with a fabric8 mock Kubernetes server,
+ * in CRUD mode, holding the broker node pool. Everything listens on the loopback interface, so no
+ * cluster or network access is needed.
+ *
+ * Each of the concurrent clients sends its next request as soon as the previous one completes. The
+ * mix gives the relative weight of each kind of request:
+ * <ul>
+ *     <li>describe: GET /topic/describe/{topic} of a random topic;</li>
+ *     <li>describeall: GET /topic/describeall, the page of 500 topics after a random one;</li>
+ *     <li>cluster: GET /cluster/describe;</li>
+ *     <li>create: POST /topic/create of a new topic;</li>
+ *     <li>reassign: POST /partition/reassign of one partition onto random brokers;</li>
+ *     <li>scale: POST /broker/scale, patching the node pool.</li>
+ * </ul>
+ * Latencies are those seen by the clients, up to the last byte of the response. Requests sent during
+ * the warm-up, the first fifth of the run, are not reported.
+ *
+ * Usage: ./gradlew loadTest --args="[topics] [clients] [durationSeconds] [mix]"
+ */
+public class LoadTestHarness {
+    private static final String DEFAULT_MIX = "describe=50,describeall=5,cluster=20,create=5,reassign=15,scale=5";
+    private static final int BROKERS = 12;
+    private static final int RACKS = 3;
+    private static final int PARTITIONS_PER_TOPIC = 10;
+    private static final int REPLICATION_FACTOR = 3;
+    private static final String NAMESPACE = "kafka";
+    private static final String CLUSTER_NAME = "my-cluster";
+
+    private static final CustomResourceDefinitionContext NODE_POOLS = new CustomResourceDefinitionContext.Builder()
+            .withGroup("kafka.strimzi.io")
+            .withVersion("v1beta2")
+            .withScope("Namespaced")
+            .withPlural("kafkanodepools")
+            .withKind("KafkaNodePool")
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        int topics = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        Map<String, Integer> mix = parseMix(args.length > 3 ? args[3] : DEFAULT_MIX);
+
+        KubernetesServer kubernetes = new KubernetesServer(false, true, List.of(NODE_POOLS));
+        kubernetes.before();
+        KubernetesClient kubernetesClient = kubernetes.getClient();
+        Crds.kafkaNodePoolOperation(kubernetesClient).inNamespace(NAMESPACE).resource(nodePool()).create();
+        KafkaConfig.setKubernetesClient(kubernetesClient);
+        KafkaConfig.register(ClusterConnection.wrap(KafkaConfig.DEFAULT_CLUSTER, "mock:9092", NAMESPACE, CLUSTER_NAME,
+                ClusterSettings.DEFAULT, adminClient(topics)));
+
+        SpringApplication application = new SpringApplication(SpringBootAPIServer.class);
+        application.setDefaultProperties(Map.of("server.port", "0", "server.address", "127.0.0.1"));
+        ConfigurableApplicationContext context = application.run();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.out.printf("%d topics of %d partitions, %d brokers, %d clients, %d s, mix %s%n",
+                    topics, PARTITIONS_PER_TOPIC, BROKERS, clients, durationSeconds, mix);
+            run(URI.create("http://127.0.0.1:" + port), topics, clients, durationSeconds, mix);
+        } finally {
+            SpringApplication.exit(context);
+            kubernetes.after();
+        }
+    }
+
+    private static void run(URI baseUri, int topics, int clients, int durationSeconds, Map<String, Integer> mix)
+            throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String[] kinds = mix.keySet().toArray(new String[0]);
+        int[] cumulativeWeights = new int[kinds.length];
+        int totalWeight = 0;
+        for (int k = 0; k < kinds.length; k++) {
+            totalWeight += mix.get(kinds[k]);
+            cumulativeWeights[k] = totalWeight;
+        }
+
+        long startNs = System.nanoTime();
+        long measureFromNs = startNs + durationSeconds * 1_000_000_000L / 5;
+        long endNs = startNs + durationSeconds * 1_000_000_000L;
+        List<Client> workers = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            Client worker = new Client(c, baseUri, httpClient, topics, kinds, cumulativeWeights, measureFromNs, endNs);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Client worker : workers) {
+            worker.join();
+        }
+        double measuredSeconds = (endNs - measureFromNs) / 1e9;
+
+        System.out.printf("%-12s %10s %8s %10s %10s %10s %10s %10s%n",
+                "request", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        long totalErrors = 0;
+        for (int k = 0; k < kinds.length; k++) {
+            Latencies latencies = new Latencies();
+            long errors = 0;
+            for (Client worker : workers) {
+                latencies.addAll(worker.latencies[k]);
+                errors += worker.errors[k];
+            }
+            long[] sorted = latencies.sorted();
+            total += sorted.length;
+            totalErrors += errors;
+            System.out.printf("%-12s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", kinds[k], sorted.length, errors,
+                    sorted.length / measuredSeconds, percentile(sorted, 0.5), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+        System.out.printf("%-12s %10d %8d %10.1f%n", "total", total, totalErrors, total / measuredSeconds);
+    }
+
+    /**
+     * A client sending one request at a time, recording the latency of those sent after the warm-up.
+     */
+    private static final class Client extends Thread {
+        private final int id;
+        private final URI baseUri;
+        private final HttpClient httpClient;
+        private final int topics;
+        private final String[] kinds;
+        private final int[] cumulativeWeights;
+        private final long measureFromNs;
+        private final long endNs;
+        private final Latencies[] latencies;
+        private final long[] errors;
+        private int created;
+
+        Client(int id, URI baseUri, HttpClient httpClient, int topics, String[] kinds, int[] cumulativeWeights,
+               long measureFromNs, long endNs) {
+            super("load-client-" + id);
+            this.id = id;
+            this.baseUri = baseUri;
+            this.httpClient = httpClient;
+            this.topics = topics;
+            this.kinds = kinds;
+            this.cumulativeWeights = cumulativeWeights;
+            this.measureFromNs = measureFromNs;
+            this.endNs = endNs;
+            this.latencies = new Latencies[kinds.length];
+            this.errors = new long[kinds.length];
+            for (int k = 0; k < kinds.length; k++) {
+                latencies[k] = new Latencies();
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long nowNs = System.nanoTime();
+            while (nowNs < endNs) {
+                int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+                int kind = 0;
+                while (draw >= cumulativeWeights[kind]) {
+                    kind++;
+                }
+                HttpRequest request = request(kinds[kind], random);
+
+                long startNs = System.nanoTime();
+                boolean failed;
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    failed = response.statusCode() >= 400;
+                } catch (Exception e) {
+                    failed = true;
+                }
+                nowNs = System.nanoTime();
+                if (startNs >= measureFromNs && nowNs < endNs) {
+                    latencies[kind].add(nowNs - startNs);
+                    if (failed) {
+                        errors[kind]++;
+                    }
+                }
+            }
+        }
+
+        private HttpRequest request(String kind, ThreadLocalRandom random) {
+            switch (kind) {
+                case "describe":
+                    return get("/topic/describe/" + topicName(random.nextInt(topics)));
+                case "describeall":
+                    return get("/topic/describeall?limit=500&cursor=" + topicName(random.nextInt(topics)));
+                case "cluster":
+                    return get("/cluster/describe");
+                case "create":
+                    return post("/topic/create", String.format("{\"topicName\":\"load-%d-%d\",\"numPartitions\":%d,\"replicationFactor\":%d}",
+                            id, created++, PARTITIONS_PER_TOPIC, REPLICATION_FACTOR));
+                case "reassign":
+                    int first = random.nextInt(BROKERS);
+                    return post("/partition/reassign", String.format("{\"partitions\":[{\"topic\":\"%s\",\"partition\":%d,\"replicas\":[%d,%d,%d]}]}",
+                            topicName(random.nextInt(topics)), random.nextInt(PARTITIONS_PER_TOPIC),
+                            first, (first + 1) % BROKERS, (first + 2) % BROKERS));
+                case "scale":
+                    return post("/broker/scale", String.format("{\"numBrokers\":%d,\"force\":true}", BROKERS + random.nextInt(2)));
+                default:
+                    throw new IllegalArgumentException("Unknown request kind " + kind);
+            }
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(30)).GET().build();
+        }
+
+        private HttpRequest post(String path, String body) {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+
+    /**
+     * A growable array of latencies in nanoseconds.
+     */
+    private static final class Latencies {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.strip().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected kind=weight in the mix, got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].strip());
+            if (weight > 0) {
+                weights.put(parts[0].strip(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give a positive weight to at least one kind of request");
+        }
+        return weights;
+    }
+
+    private static String topicName(int topic) {
+        return String.format("topic-%06d", topic);
+    }
+
+    private static MockAdminClient adminClient(int topics) {
+        List<Node> brokers = new ArrayList<>(BROKERS);
+        for (int id = 0; id < BROKERS; id++) {
+            brokers.add(new Node(id, "my-cluster-broker-" + id + ".my-cluster-kafka-brokers.kafka.svc", 9092, "rack-" + id % RACKS));
+        }
+        MockAdminClient adminClient = MockAdminClient.create().brokers(brokers).controller(0).build();
+        int slot = 0;
+        for (int t = 0; t < topics; t++) {
+            List<TopicPartitionInfo> partitions = new ArrayList<>(PARTITIONS_PER_TOPIC);
+            for (int p = 0; p < PARTITIONS_PER_TOPIC; p++, slot++) {
+                List<Node> replicas = new ArrayList<>(REPLICATION_FACTOR);
+                for (int r = 0; r < REPLICATION_FACTOR; r++) {
+                    replicas.add(brokers.get((slot + r) % BROKERS));
+                }
+                partitions.add(new TopicPartitionInfo(p, replicas.get(0), replicas, replicas));
+            }
+            adminClient.addTopic(false, topicName(t), partitions, Map.of());
+        }
+        return adminClient;
+    }
+
+    private static KafkaNodePool nodePool() {
+        List<Integer> nodeIds = new ArrayList<>(BROKERS);
+        for (int id = 0; id < BROKERS; id++) {
+            nodeIds.add(id);
+        }
+        // Named after the pool KafkaBrokerManager scales
+        return new KafkaNodePoolBuilder()
+                .withNewMetadata()
+                    .withName("broker")
+                    .withNamespace(NAMESPACE)
+                    .addToLabels("strimzi.io/cluster", CLUSTER_NAME)
+                .endMetadata()
+                .withNewSpec()
+                    .withReplicas(BROKERS)
+                    .withRoles(ProcessRoles.BROKER)
+                .endSpec()
+                .withNewStatus()
+                    .withNodeIds(nodeIds)
+                    .withReplicas(BROKERS)
+                .endStatus()
+                .build();
+    }
+}
@@ -0,0 +1,199 @@
+package kafka.adminclient;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.kafka.KafkaClientMetrics;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A named Kafka cluster served by the API: its AdminClient, the Strimzi resources it is managed
+ * through, and the outcome of its last health check. The metrics of the AdminClient are exported
+ * to the global Micrometer registry, tagged with the name of the cluster. Connections are immutable apart from their
+ * health, so replacing the settings of a cluster means opening a new connection and closing the
+ * previous one.
+ */
+public final class ClusterConnection {
+    private static final Logger log = LoggerFactory.getLogger(ClusterConnection.class);
+
+    /**
+     * How often a closed connection checks whether the jobs and scaling operations it started have finished.
+     */
+    private static final long CLOSE_POLL_INTERVAL_MS = 5_000;
+
+    private static final ScheduledExecutorService closer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-close");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public final String name;
+    public final String bootstrapServers;
+    public final String namespace;
+    public final String clusterName;
+    public final ClusterSettings settings;
+    public final long createdAtMs = System.currentTimeMillis();
+    private final AdminClient adminClient;
+    private final KafkaClientMetrics clientMetrics;
+
+    private volatile boolean healthy = true;
+    private volatile int brokers;
+    private volatile long lastCheckedAtMs;
+    private volatile long lastCheckMs;
+    private volatile String lastError;
+    private volatile boolean checking;
+    private volatile boolean closed;
+
+    private ClusterConnection(String name, String bootstrapServers, String namespace, String clusterName,
+                              ClusterSettings settings, AdminClient adminClient) {
+        this.name = name;
+        this.bootstrapServers = bootstrapServers;
+        this.namespace = namespace;
+        this.clusterName = clusterName;
+        this.settings = settings;
+        this.adminClient = adminClient;
+        this.clientMetrics = new KafkaClientMetrics(adminClient, Tags.of("cluster", name));
+    }
+
+    /**
+     * Creates the AdminClient of a cluster and checks that its brokers can be reached.
+     *
+     * @param connectTimeoutMs how long to wait for the brokers before giving up
+     * @return the connection, healthy.
+     * @throws Exception if the brokers cannot be reached, in which case the AdminClient is closed.
+     */
+    public static ClusterConnection open(String name, String bootstrapServers, String namespace, String clusterName,
+                                         ClusterSettings settings, long connectTimeoutMs) throws Exception {
+        AdminClient adminClient = AdminClient.create(settings.toProperties(bootstrapServers));
+        try {
+            int brokers = adminClient.describeCluster().nodes().get(connectTimeoutMs, TimeUnit.MILLISECONDS).size();
+            ClusterConnection connection = new ClusterConnection(name, bootstrapServers, namespace, clusterName, settings, adminClient);
+            connection.brokers = brokers;
+            connection.lastCheckedAtMs = System.currentTimeMillis();
+            connection.clientMetrics.bindTo(Metrics.globalRegistry);
+            return connection;
+        } catch (Exception e) {
+            adminClient.close(Duration.ZERO);
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps an AdminClient created elsewhere, such as an in-memory one, without checking its brokers.
+     * The connection takes ownership of the AdminClient and closes it with the connection.
+     *
+     * @return the connection, healthy.
+     */
+    public static ClusterConnection wrap(String name, String bootstrapServers, String namespace, String clusterName,
+                                         ClusterSettings settings, AdminClient adminClient) {
+        ClusterConnection connection = new ClusterConnection(name, bootstrapServers, namespace, clusterName, settings, adminClient);
+        connection.lastCheckedAtMs = System.currentTimeMillis();
+        connection.clientMetrics.bindTo(Metrics.globalRegistry);
+        return connection;
+    }
+
+    public AdminClient adminClient() {
+        return adminClient;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Describes the cluster to refresh its health, unless a previous check is still running.
+     */
+    public void checkHealth() {
+        if (checking || closed) {
+            return;
+        }
+        checking = true;
+        long startMs = System.currentTimeMillis();
+        adminClient.describeCluster().nodes().toCompletionStage().whenComplete((nodes, error) -> {
+            lastCheckedAtMs = System.currentTimeMillis();
+            lastCheckMs = lastCheckedAtMs - startMs;
+            if (error == null) {
+                brokers = nodes.size();
+                lastError = null;
+            } else {
+                lastError = KafkaAdminClientUtils.unwrap(error).getMessage();
+            }
+            if (healthy != (error == null)) {
+                log.info("Cluster {} is now {}", name, error == null ? "healthy" : "unhealthy: " + lastError);
+            }
+            healthy = error == null;
+            checking = false;
+        });
+    }
+
+    /**
+     * Carries over the state kept for the cluster by a connection this one replaces.
+     */
+    public void takeOver(ClusterConnection previous) {
+        HealingPolicy policy = KafkaSelfHealingMonitor.policy(previous.adminClient);
+        if (policy != null) {
+            KafkaSelfHealingMonitor.enable(adminClient, policy);
+        }
+    }
+
+    /**
+     * Closes the connection once it is no longer used. Its change feed, self-healing monitor and cached
+     * metadata are released right away. The AdminClient is closed once the reassignment and log dir jobs
+     * and the broker scaling operations it started have finished, and then still gives in-flight
+     * requests up to closeTimeoutMs to complete.
+     *
+     * @return a CompletableFuture completed once the AdminClient is closed.
+     */
+    public CompletableFuture<Void> close() {
+        closed = true;
+        KafkaClusterWatcher.close(adminClient);
+        KafkaSelfHealingMonitor.disable(adminClient);
+        KafkaMetadataCache.invalidate(adminClient);
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        closeWhenIdle(result);
+        return result;
+    }
+
+    private void closeWhenIdle(CompletableFuture<Void> result) {
+        if (KafkaReassignmentJobManager.hasActiveJobs(adminClient) || KafkaLogDirBalancer.hasActiveJobs(adminClient)
+                || KafkaBrokerManager.hasActiveOperations(adminClient)) {
+            closer.schedule(() -> closeWhenIdle(result), CLOSE_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        closer.execute(() -> {
+            try {
+                adminClient.close(Duration.ofMillis(settings.closeTimeoutMs()));
+                clientMetrics.close();
+                log.info("Closed the AdminClient of cluster {}", name);
+                result.complete(null);
+            } catch (Exception e) {
+                log.warn("Failed to close the AdminClient of cluster {}", name, e);
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    long lastCheckedAtMs() {
+        return lastCheckedAtMs;
+    }
+
+    long lastCheckMs() {
+        return lastCheckMs;
+    }
+
+    int brokers() {
+        return brokers;
+    }
+
+    String lastError() {
+        return lastError;
+    }
+}
@@ -0,0 +1,15 @@
+package kafka.adminclient;
+
+import java.util.Collection;
+
+import org.apache.kafka.common.Node;
+
+/**
+ * The resolved values of a describeCluster call.
+ *
+ * @param clusterId  the ID of the cluster
+ * @param nodes      the brokers of the cluster
+ * @param controller the active controller
+ */
+public record ClusterMetadata(String clusterId, Collection<Node> nodes, Node controller) {
+}
@@ -0,0 +1,99 @@
+package kafka.adminclient;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+
+/**
+ * Settings of the AdminClient of a registered cluster. The defaults differ from the Kafka ones where
+ * an admin API is better served by failing fast: a request that cannot reach a broker gives up after
+ * 15 seconds instead of 30, and metadata is refreshed every 30 seconds instead of 5 minutes so that
+ * brokers added or removed by scaling are picked up quickly.
+ *
+ * @param requestTimeoutMs            request.timeout.ms, how long a single request waits for a broker response
+ * @param defaultApiTimeoutMs         default.api.timeout.ms, the overall deadline of an admin call, retries included
+ * @param metadataMaxAgeMs            metadata.max.age.ms, the age after which cluster metadata is refreshed
+ * @param connectionsMaxIdleMs        connections.max.idle.ms, after which idle broker connections are closed
+ * @param connectionSetupTimeoutMs    socket.connection.setup.timeout.ms, the initial connection attempt timeout
+ * @param connectionSetupTimeoutMaxMs socket.connection.setup.timeout.max.ms, the cap of its exponential backoff
+ * @param closeTimeoutMs              how long in-flight requests may complete when the client is replaced or removed
+ * @param properties                  other AdminClient properties, such as security.protocol, passed as they are
+ */
+public record ClusterSettings(int requestTimeoutMs, int defaultApiTimeoutMs, long metadataMaxAgeMs, long connectionsMaxIdleMs,
+                              long connectionSetupTimeoutMs, long connectionSetupTimeoutMaxMs, long closeTimeoutMs,
+                              Map<String, String> properties) {
+    public static final int DEFAULT_REQUEST_TIMEOUT_MS = 15_000;
+    public static final int DEFAULT_API_TIMEOUT_MS = 60_000;
+    public static final long DEFAULT_METADATA_MAX_AGE_MS = 30_000;
+    public static final long DEFAULT_CONNECTIONS_MAX_IDLE_MS = 300_000;
+    public static final long DEFAULT_CONNECTION_SETUP_TIMEOUT_MS = 5_000;
+    public static final long DEFAULT_CONNECTION_SETUP_TIMEOUT_MAX_MS = 30_000;
+    public static final long DEFAULT_CLOSE_TIMEOUT_MS = 30_000;
+
+    public static final ClusterSettings DEFAULT = new ClusterSettings(DEFAULT_REQUEST_TIMEOUT_MS, DEFAULT_API_TIMEOUT_MS,
+            DEFAULT_METADATA_MAX_AGE_MS, DEFAULT_CONNECTIONS_MAX_IDLE_MS, DEFAULT_CONNECTION_SETUP_TIMEOUT_MS,
+            DEFAULT_CONNECTION_SETUP_TIMEOUT_MAX_MS, DEFAULT_CLOSE_TIMEOUT_MS, Map.of());
+
+    public ClusterSettings {
+        if (requestTimeoutMs <= 0 || defaultApiTimeoutMs < requestTimeoutMs) {
+            throw new IllegalArgumentException("requestTimeoutMs must be positive and not above defaultApiTimeoutMs");
+        }
+        if (metadataMaxAgeMs <= 0 || connectionsMaxIdleMs <= 0 || connectionSetupTimeoutMs <= 0
+                || connectionSetupTimeoutMaxMs < connectionSetupTimeoutMs || closeTimeoutMs < 0) {
+            throw new IllegalArgumentException("Cluster timeouts must be positive, and connectionSetupTimeoutMaxMs not below connectionSetupTimeoutMs");
+        }
+        for (String name : properties.keySet()) {
+            if (!AdminClientConfig.configNames().contains(name)) {
+                throw new IllegalArgumentException("Unknown AdminClient property " + name);
+            }
+        }
+        properties = Map.copyOf(properties);
+    }
+
+    /**
+     * Reads the settings from a request payload such as {"requestTimeoutMs":5000,"properties":{"security.protocol":"SSL"}},
+     * falling back to the defaults for missing fields.
+     *
+     * @param node the settings, or null
+     * @return the settings.
+     */
+    public static ClusterSettings fromJson(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return DEFAULT;
+        }
+        Map<String, String> properties = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.path("properties").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> property = it.next();
+            properties.put(property.getKey(), property.getValue().asText());
+        }
+        return new ClusterSettings(
+                node.path("requestTimeoutMs").asInt(DEFAULT_REQUEST_TIMEOUT_MS),
+                node.path("defaultApiTimeoutMs").asInt(DEFAULT_API_TIMEOUT_MS),
+                node.path("metadataMaxAgeMs").asLong(DEFAULT_METADATA_MAX_AGE_MS),
+                node.path("connectionsMaxIdleMs").asLong(DEFAULT_CONNECTIONS_MAX_IDLE_MS),
+                node.path("connectionSetupTimeoutMs").asLong(DEFAULT_CONNECTION_SETUP_TIMEOUT_MS),
+                node.path("connectionSetupTimeoutMaxMs").asLong(DEFAULT_CONNECTION_SETUP_TIMEOUT_MAX_MS),
+                node.path("closeTimeoutMs").asLong(DEFAULT_CLOSE_TIMEOUT_MS),
+                properties);
+    }
+
+    /**
+     * @return the AdminClient configuration for the given bootstrap servers.
+     */
+    public Properties toProperties(String bootstrapServers) {
+        Properties props = new Properties();
+        props.putAll(properties);
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        props.put(AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, defaultApiTimeoutMs);
+        props.put(AdminClientConfig.METADATA_MAX_AGE_CONFIG, metadataMaxAgeMs);
+        props.put(AdminClientConfig.CONNECTIONS_MAX_IDLE_MS_CONFIG, connectionsMaxIdleMs);
+        props.put(AdminClientConfig.SOCKET_CONNECTION_SETUP_TIMEOUT_MS_CONFIG, connectionSetupTimeoutMs);
+        props.put(AdminClientConfig.SOCKET_CONNECTION_SETUP_TIMEOUT_MAX_MS_CONFIG, connectionSetupTimeoutMaxMs);
+        return props;
+    }
+}
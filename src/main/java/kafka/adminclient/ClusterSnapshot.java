@@ -0,0 +1,181 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+
+/**
+ * The brokers, topics, leaders and ISRs of a cluster at one point in time, held in flat arrays.
+ * Topics are sorted by name, and the partitions of topic t occupy the indexes
+ * partitionOffsets[t] until partitionOffsets[t + 1], ordered by partition number.
+ * The ISR of partition i is isr[isrOffsets[i]] until isr[isrOffsets[i + 1]], sorted by broker ID.
+ */
+final class ClusterSnapshot {
+    final int[] brokers;
+    final String[] topics;
+    final int[] partitionOffsets;
+    final int[] leaders;
+    final int[] replicationFactors;
+    final int[] isrOffsets;
+    final int[] isr;
+
+    private ClusterSnapshot(int[] brokers, String[] topics, int[] partitionOffsets, int[] leaders,
+                            int[] replicationFactors, int[] isrOffsets, int[] isr) {
+        this.brokers = brokers;
+        this.topics = topics;
+        this.partitionOffsets = partitionOffsets;
+        this.leaders = leaders;
+        this.replicationFactors = replicationFactors;
+        this.isrOffsets = isrOffsets;
+        this.isr = isr;
+    }
+
+    static ClusterSnapshot of(ClusterMetadata cluster, Collection<TopicDescription> topicDescriptions) {
+        int[] brokers = cluster.nodes().stream().mapToInt(Node::id).sorted().toArray();
+
+        List<TopicDescription> sorted = new ArrayList<>(topicDescriptions);
+        sorted.sort(Comparator.comparing(TopicDescription::name));
+        String[] topics = new String[sorted.size()];
+        int[] partitionOffsets = new int[sorted.size() + 1];
+        int partitionCount = 0;
+        int isrCount = 0;
+        for (int t = 0; t < sorted.size(); t++) {
+            topics[t] = sorted.get(t).name();
+            partitionOffsets[t] = partitionCount;
+            for (TopicPartitionInfo partitionInfo : sorted.get(t).partitions()) {
+                partitionCount++;
+                isrCount += partitionInfo.isr().size();
+            }
+        }
+        partitionOffsets[sorted.size()] = partitionCount;
+
+        int[] leaders = new int[partitionCount];
+        int[] replicationFactors = new int[partitionCount];
+        int[] isrOffsets = new int[partitionCount + 1];
+        int[] isr = new int[isrCount];
+        int i = 0;
+        int slot = 0;
+        for (TopicDescription topicDescription : sorted) {
+            List<TopicPartitionInfo> partitions = new ArrayList<>(topicDescription.partitions());
+            partitions.sort(Comparator.comparingInt(TopicPartitionInfo::partition));
+            for (TopicPartitionInfo partitionInfo : partitions) {
+                leaders[i] = KafkaAdminClientUtils.leaderId(partitionInfo);
+                replicationFactors[i] = partitionInfo.replicas().size();
+                isrOffsets[i] = slot;
+                for (Node node : partitionInfo.isr()) {
+                    isr[slot++] = node.id();
+                }
+                Arrays.sort(isr, isrOffsets[i], slot);
+                i++;
+            }
+        }
+        isrOffsets[partitionCount] = slot;
+        return new ClusterSnapshot(brokers, topics, partitionOffsets, leaders, replicationFactors, isrOffsets, isr);
+    }
+
+    /**
+     * Summarizes the snapshot for subscribers that have not seen the cluster yet.
+     */
+    void summarize(ObjectNode json) {
+        ArrayNode brokersArray = json.putArray("brokers");
+        for (int broker : brokers) {
+            brokersArray.add(broker);
+        }
+        int underReplicated = 0;
+        int offline = 0;
+        for (int i = 0; i < leaders.length; i++) {
+            if (leaders[i] < 0) {
+                offline++;
+            }
+            if (isrOffsets[i + 1] - isrOffsets[i] < replicationFactors[i]) {
+                underReplicated++;
+            }
+        }
+        json.put("topics", topics.length);
+        json.put("partitions", leaders.length);
+        json.put("underReplicatedPartitions", underReplicated);
+        json.put("offlinePartitions", offline);
+    }
+
+    /**
+     * Appends an event to events for every broker that joined or left, topic that was created or
+     * deleted, partition that was added, leader that moved and ISR that changed since previous.
+     */
+    void diff(ClusterSnapshot previous, ArrayNode events) {
+        int a = 0;
+        int b = 0;
+        while (a < previous.brokers.length || b < brokers.length) {
+            if (b == brokers.length || a < previous.brokers.length && previous.brokers[a] < brokers[b]) {
+                events.addObject().put("type", "brokerLeft").put("broker", previous.brokers[a++]);
+            } else if (a == previous.brokers.length || brokers[b] < previous.brokers[a]) {
+                events.addObject().put("type", "brokerJoined").put("broker", brokers[b++]);
+            } else {
+                a++;
+                b++;
+            }
+        }
+
+        a = 0;
+        b = 0;
+        while (a < previous.topics.length || b < topics.length) {
+            int order = a == previous.topics.length ? 1 : b == topics.length ? -1 : previous.topics[a].compareTo(topics[b]);
+            if (order < 0) {
+                events.addObject().put("type", "topicRemoved").put("topic", previous.topics[a++]);
+            } else if (order > 0) {
+                events.addObject().put("type", "topicAdded").put("topic", topics[b])
+                        .put("partitions", partitionOffsets[b + 1] - partitionOffsets[b]);
+                b++;
+            } else {
+                diffPartitions(previous, a++, b++, events);
+            }
+        }
+    }
+
+    private void diffPartitions(ClusterSnapshot previous, int previousTopic, int topic, ArrayNode events) {
+        int previousFrom = previous.partitionOffsets[previousTopic];
+        int previousCount = previous.partitionOffsets[previousTopic + 1] - previousFrom;
+        int from = partitionOffsets[topic];
+        int count = partitionOffsets[topic + 1] - from;
+        for (int p = 0; p < Math.min(previousCount, count); p++) {
+            int previousIndex = previousFrom + p;
+            int index = from + p;
+            if (previous.leaders[previousIndex] != leaders[index]) {
+                events.addObject().put("type", "leaderChanged").put("topic", topics[topic]).put("partition", p)
+                        .put("previousLeader", previous.leaders[previousIndex]).put("leader", leaders[index]);
+            }
+            if (!Arrays.equals(previous.isr, previous.isrOffsets[previousIndex], previous.isrOffsets[previousIndex + 1],
+                    isr, isrOffsets[index], isrOffsets[index + 1])) {
+                ObjectNode event = events.addObject().put("type", "isrChanged").put("topic", topics[topic]).put("partition", p);
+                ArrayNode isrArray = event.putArray("isr");
+                ArrayNode removedArray = event.putArray("removed");
+                ArrayNode addedArray = event.putArray("added");
+                int i = previous.isrOffsets[previousIndex];
+                int j = isrOffsets[index];
+                while (i < previous.isrOffsets[previousIndex + 1] || j < isrOffsets[index + 1]) {
+                    if (j == isrOffsets[index + 1] || i < previous.isrOffsets[previousIndex + 1] && previous.isr[i] < isr[j]) {
+                        removedArray.add(previous.isr[i++]);
+                    } else if (i == previous.isrOffsets[previousIndex + 1] || isr[j] < previous.isr[i]) {
+                        isrArray.add(isr[j]);
+                        addedArray.add(isr[j++]);
+                    } else {
+                        isrArray.add(isr[j++]);
+                        i++;
+                    }
+                }
+                event.put("underReplicated", isrOffsets[index + 1] - isrOffsets[index] < replicationFactors[index]);
+            }
+        }
+        if (count > previousCount) {
+            events.addObject().put("type", "partitionsAdded").put("topic", topics[topic])
+                    .put("previousPartitions", previousCount).put("partitions", count);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package kafka.adminclient;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * The committed offsets of consumer groups and the end offsets of their partitions, from which
+ * {@link KafkaAdminClientUtils#formatConsumerLag} computes their lag.
+ *
+ * @param states     the state of each group, ordered by group ID
+ * @param committed  the committed offset of every partition of each group whose offsets were fetched
+ * @param endOffsets the end offset of every partition, missing for partitions whose offsets could not be listed
+ * @param errors     why the offsets of a group could not be fetched, by group ID
+ */
+public record ConsumerLag(Map<String, String> states, Map<String, Map<TopicPartition, Long>> committed,
+                          Map<TopicPartition, Long> endOffsets, Map<String, String> errors) {
+    /**
+     * @return the number of distinct partitions the groups have committed offsets for
+     */
+    public int partitionCount() {
+        Set<TopicPartition> partitions = new HashSet<>();
+        committed.values().forEach(offsets -> partitions.addAll(offsets.keySet()));
+        return partitions.size();
+    }
+}
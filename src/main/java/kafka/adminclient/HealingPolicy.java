@@ -0,0 +1,44 @@
+package kafka.adminclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Settings of a {@link KafkaSelfHealingMonitor}.
+ *
+ * @param intervalMs          the delay between two checks of the cluster
+ * @param debounceMs          how long a problem must persist before it is acted on
+ * @param deadBrokerMs        how long a broker must be missing from the cluster before its replicas are moved away
+ * @param maxActionsPerCheck  the maximum number of partitions elected or reassigned per check
+ * @param reassignDeadBrokers whether to move replicas away from dead brokers, or only report them
+ */
+public record HealingPolicy(long intervalMs, long debounceMs, long deadBrokerMs, int maxActionsPerCheck, boolean reassignDeadBrokers) {
+    public static final long DEFAULT_INTERVAL_MS = 30_000;
+    public static final long DEFAULT_DEBOUNCE_MS = 60_000;
+    public static final long DEFAULT_DEAD_BROKER_MS = 600_000;
+    public static final int DEFAULT_MAX_ACTIONS_PER_CHECK = 500;
+
+    public HealingPolicy {
+        if (intervalMs <= 0 || debounceMs < 0 || deadBrokerMs < 0 || maxActionsPerCheck <= 0) {
+            throw new IllegalArgumentException("Healing intervals must not be negative, and intervalMs and maxActionsPerCheck must be positive");
+        }
+    }
+
+    /**
+     * Reads the policy from a request payload such as {"debounceMs":120000,"maxActionsPerCheck":100},
+     * falling back to the defaults for missing fields.
+     *
+     * @param node the request payload, or null
+     * @return the policy.
+     */
+    public static HealingPolicy fromJson(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return new HealingPolicy(DEFAULT_INTERVAL_MS, DEFAULT_DEBOUNCE_MS, DEFAULT_DEAD_BROKER_MS, DEFAULT_MAX_ACTIONS_PER_CHECK, true);
+        }
+        return new HealingPolicy(
+                node.path("intervalMs").asLong(DEFAULT_INTERVAL_MS),
+                node.path("debounceMs").asLong(DEFAULT_DEBOUNCE_MS),
+                node.path("deadBrokerMs").asLong(DEFAULT_DEAD_BROKER_MS),
+                node.path("maxActionsPerCheck").asInt(DEFAULT_MAX_ACTIONS_PER_CHECK),
+                node.path("reassignDeadBrokers").asBoolean(true));
+    }
+}
@@ -0,0 +1,13 @@
+package kafka.adminclient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a JSON response body, or one in another {@link ResponseFormat}, to an output stream, for
+ * responses that are streamed instead of being built as a JSON tree first.
+ */
+@FunctionalInterface
+public interface JsonWriter {
+    void writeTo(OutputStream out) throws IOException;
+}
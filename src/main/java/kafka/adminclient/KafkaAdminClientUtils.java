@@ -1,32 +1,57 @@
 package kafka.adminclient;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.Exception;
 import java.lang.InterruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.kafka.clients.admin.CreateTopicsResult;
 import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.TopicPartitionReplica;
+import org.apache.kafka.common.Uuid;
 import org.apache.kafka.clients.admin.DescribeClusterResult;
 
 public class KafkaAdminClientUtils {
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
     public static JsonNode formatClusterDescription(DescribeClusterResult clusterResult) throws ExecutionException, InterruptedException {
+        return formatClusterDescription(new ClusterMetadata(
+                clusterResult.clusterId().get(), clusterResult.nodes().get(), clusterResult.controller().get()));
+    }
+
+    public static ObjectNode formatClusterDescription(ClusterMetadata cluster) {
         ObjectNode rootNode = objectMapper.createObjectNode();
 
         // Cluster ID
-        rootNode.put("clusterId", clusterResult.clusterId().get());
+        rootNode.put("clusterId", cluster.clusterId());
 
         // Node Information (Broker Details)
         ArrayNode brokersNode = rootNode.putArray("brokers");
-        for (Node node : clusterResult.nodes().get()) {
+        for (Node node : cluster.nodes()) {
             ObjectNode brokerNode = objectMapper.createObjectNode();
             brokerNode.put("brokerId", node.id());
             brokerNode.put("host", node.host());
@@ -34,7 +59,7 @@ public class KafkaAdminClientUtils {
             brokersNode.add(brokerNode);
         }
 
-        Node controller = clusterResult.controller().get();
+        Node controller = cluster.controller();
         rootNode.putObject("controller")
                 .put("id", controller.id())
                 .put("host", controller.host())
@@ -50,15 +75,21 @@ public class KafkaAdminClientUtils {
         for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
             ObjectNode partitionJson = partitionsArray.addObject();
             partitionJson.put("partition", partitionInfo.partition());
-            partitionJson.put("leader", partitionInfo.leader().id());
-            partitionJson.putPOJO("replicas", partitionInfo.replicas().stream().map(Node::id).collect(Collectors.toList()));
-            partitionJson.putPOJO("isr", partitionInfo.isr().stream().map(Node::id).collect(Collectors.toList()));
+            partitionJson.put("leader", leaderId(partitionInfo));
+            addNodeIds(partitionJson.putArray("replicas"), partitionInfo.replicas());
+            addNodeIds(partitionJson.putArray("isr"), partitionInfo.isr());
         }
 
         return topicJson;
     }
 
-    public static JsonNode formatTopicDescriptions(Map<String, TopicDescription> topicDescriptions) {
+    private static void addNodeIds(ArrayNode array, List<Node> nodes) {
+        for (int i = 0; i < nodes.size(); i++) {
+            array.add(nodes.get(i).id());
+        }
+    }
+
+    public static ObjectNode formatTopicDescriptions(Map<String, TopicDescription> topicDescriptions) {
         ObjectNode json = objectMapper.createObjectNode();
         ArrayNode topicsArray = json.putArray("topics");
 
@@ -73,7 +104,667 @@ public class KafkaAdminClientUtils {
         return json;
     }
 
-    public static JsonNode wrapError(Exception e) {
+    /**
+     * Streams the same JSON as {@link #formatTopicDescriptions} to the output without building a tree,
+     * followed by the cursor of the next page, if any, and the cache info of the lookup that produced the page.
+     */
+    public static void writeTopicDescriptions(OutputStream out, TopicPage page, KafkaMetadataCache.Lookup<?> lookup) throws IOException {
+        writeTopicDescriptions(out, ResponseFormat.JSON, page, lookup);
+    }
+
+    /**
+     * Streams the topic descriptions of {@link #writeTopicDescriptions(OutputStream, TopicPage, KafkaMetadataCache.Lookup)}
+     * in the given encoding.
+     */
+    public static void writeTopicDescriptions(OutputStream out, ResponseFormat format, TopicPage page,
+                                              KafkaMetadataCache.Lookup<?> lookup) throws IOException {
+        try (JsonGenerator generator = format.factory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("topics");
+            for (Map.Entry<String, TopicDescription> entry : page.topics().entrySet()) {
+                writeTopicDescription(generator, entry.getValue(), entry.getKey());
+            }
+            generator.writeEndArray();
+            if (page.nextCursor() != null) {
+                generator.writeStringField("nextCursor", page.nextCursor());
+            }
+            writeCacheInfo(generator, lookup);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Streams the topic descriptions in a columnar layout. Topic names are written once, in the
+     * "topics" dictionary, and every other column is an array of big-endian 32-bit integers packed
+     * in a binary value (base64 in JSON), with one entry per partition in the order of the topics:
+     * <ul>
+     *     <li>partitionCounts: the number of partitions of each topic;</li>
+     *     <li>partitions, leaders: the number and leader ID of each partition, -1 without a leader;</li>
+     *     <li>replicaCounts, isrCounts: the number of replicas and in-sync replicas of each partition;</li>
+     *     <li>replicas, isr: the broker IDs of every partition's replicas and in-sync replicas, concatenated.</li>
+     * </ul>
+     * The cursor of the next page and the cache info follow, as in the row layout.
+     */
+    public static void writeTopicColumns(OutputStream out, ResponseFormat format, TopicPage page,
+                                         KafkaMetadataCache.Lookup<?> lookup) throws IOException {
+        Collection<TopicDescription> topics = page.topics().values();
+        int partitionCount = 0;
+        int replicaCount = 0;
+        int isrCount = 0;
+        for (TopicDescription topicDescription : topics) {
+            for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                partitionCount++;
+                replicaCount += partitionInfo.replicas().size();
+                isrCount += partitionInfo.isr().size();
+            }
+        }
+
+        try (JsonGenerator generator = format.factory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("layout", "columnar");
+            generator.writeArrayFieldStart("topics");
+            for (String topicName : page.topics().keySet()) {
+                generator.writeString(topicName);
+            }
+            generator.writeEndArray();
+
+            // One column is packed at a time, so at most the largest column is held in memory
+            ByteBuffer column = ByteBuffer.allocate(topics.size() * Integer.BYTES);
+            topics.forEach(topicDescription -> column.putInt(topicDescription.partitions().size()));
+            writeColumn(generator, "partitionCounts", column);
+            writeColumn(generator, "partitions", packPartitions(topics, partitionCount, TopicPartitionInfo::partition));
+            writeColumn(generator, "leaders", packPartitions(topics, partitionCount, KafkaAdminClientUtils::leaderId));
+            writeColumn(generator, "replicaCounts", packPartitions(topics, partitionCount, partitionInfo -> partitionInfo.replicas().size()));
+            writeColumn(generator, "replicas", packNodeIds(topics, replicaCount, TopicPartitionInfo::replicas));
+            writeColumn(generator, "isrCounts", packPartitions(topics, partitionCount, partitionInfo -> partitionInfo.isr().size()));
+            writeColumn(generator, "isr", packNodeIds(topics, isrCount, TopicPartitionInfo::isr));
+
+            if (page.nextCursor() != null) {
+                generator.writeStringField("nextCursor", page.nextCursor());
+            }
+            writeCacheInfo(generator, lookup);
+            generator.writeEndObject();
+        }
+    }
+
+    private static ByteBuffer packPartitions(Collection<TopicDescription> topics, int partitionCount,
+                                             ToIntFunction<TopicPartitionInfo> value) {
+        ByteBuffer column = ByteBuffer.allocate(partitionCount * Integer.BYTES);
+        for (TopicDescription topicDescription : topics) {
+            for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                column.putInt(value.applyAsInt(partitionInfo));
+            }
+        }
+        return column;
+    }
+
+    private static ByteBuffer packNodeIds(Collection<TopicDescription> topics, int nodeCount,
+                                          Function<TopicPartitionInfo, List<Node>> nodes) {
+        ByteBuffer column = ByteBuffer.allocate(nodeCount * Integer.BYTES);
+        for (TopicDescription topicDescription : topics) {
+            for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                List<Node> partitionNodes = nodes.apply(partitionInfo);
+                for (int i = 0; i < partitionNodes.size(); i++) {
+                    column.putInt(partitionNodes.get(i).id());
+                }
+            }
+        }
+        return column;
+    }
+
+    private static void writeColumn(JsonGenerator generator, String fieldName, ByteBuffer column) throws IOException {
+        generator.writeFieldName(fieldName);
+        generator.writeBinary(column.array(), 0, column.position());
+    }
+
+    public static void writeTopicDescription(JsonGenerator generator, TopicDescription topicDescription, String topicName) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", topicName);
+        generator.writeArrayFieldStart("partitions");
+        for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+            generator.writeStartObject();
+            generator.writeNumberField("partition", partitionInfo.partition());
+            generator.writeNumberField("leader", leaderId(partitionInfo));
+            writeNodeIds(generator, "replicas", partitionInfo.replicas());
+            writeNodeIds(generator, "isr", partitionInfo.isr());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void writeNodeIds(JsonGenerator generator, String fieldName, List<Node> nodes) throws IOException {
+        generator.writeArrayFieldStart(fieldName);
+        for (int i = 0; i < nodes.size(); i++) {
+            generator.writeNumber(nodes.get(i).id());
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeCacheInfo(JsonGenerator generator, KafkaMetadataCache.Lookup<?> lookup) throws IOException {
+        generator.writeObjectFieldStart("cache");
+        generator.writeBooleanField("hit", lookup.hit());
+        generator.writeNumberField("ageMs", lookup.ageMs());
+        generator.writeEndObject();
+    }
+
+    /**
+     * @return the ID of the partition's leader, or -1 if it has none.
+     */
+    static int leaderId(TopicPartitionInfo partitionInfo) {
+        return partitionInfo.leader() == null ? Node.noNode().id() : partitionInfo.leader().id();
+    }
+
+    public static void writeJson(OutputStream out, JsonNode json) throws IOException {
+        writeJson(out, ResponseFormat.JSON, json);
+    }
+
+    public static void writeJson(OutputStream out, ResponseFormat format, JsonNode json) throws IOException {
+        try (JsonGenerator generator = format.factory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            objectMapper.writeTree(generator, json);
+        }
+    }
+
+    public static JsonNode addCacheInfo(ObjectNode json, KafkaMetadataCache.Lookup<?> lookup) {
+        json.putObject("cache")
+                .put("hit", lookup.hit())
+                .put("ageMs", lookup.ageMs());
+        return json;
+    }
+
+    /**
+     * Waits for the future of every key without blocking a thread, and collects its error if it failed.
+     *
+     * @param roundTrip the timer of the calls the futures come from
+     * @param startNs   the System.nanoTime() the calls were issued at
+     * @param calls     the number of calls, each recorded once every future completed
+     * @return the error of each key, or an empty Optional if its future succeeded.
+     */
+    static <K> CompletableFuture<Map<K, Optional<Throwable>>> collectResults(Collection<K> keys, Map<K, KafkaFuture<Void>> futures,
+                                                                          KafkaAdminMetrics.RoundTrip roundTrip, long startNs, int calls) {
+        Map<K, Optional<Throwable>> results = new LinkedHashMap<>();
+        List<CompletableFuture<?>> outcomes = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            results.put(key, Optional.empty());
+            outcomes.add(futures.get(key).toCompletionStage().toCompletableFuture().handle((ignored, error) -> {
+                if (error != null) {
+                    synchronized (results) {
+                        results.put(key, Optional.of(unwrap(error)));
+                    }
+                }
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            roundTrip.record(startNs, calls);
+            synchronized (results) {
+                return results;
+            }
+        });
+    }
+
+    /**
+     * @return the cause of an exception raised by a future, without the CompletionException or ExecutionException wrapper.
+     */
+    static Throwable unwrap(Throwable error) {
+        return (error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null
+                ? error.getCause()
+                : error;
+    }
+
+    public static JsonNode formatPartitionResults(Map<TopicPartition, Optional<Throwable>> results) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("succeeded", 0);
+        json.put("failed", 0);
+        ArrayNode partitionsArray = json.putArray("partitions");
+
+        int failed = 0;
+        for (Map.Entry<TopicPartition, Optional<Throwable>> entry : results.entrySet()) {
+            ObjectNode partitionJson = partitionsArray.addObject();
+            partitionJson.put("topic", entry.getKey().topic());
+            partitionJson.put("partition", entry.getKey().partition());
+            if (entry.getValue().isPresent()) {
+                failed++;
+                partitionJson.put("status", "failed");
+                partitionJson.put("error", entry.getValue().get().getMessage());
+            } else {
+                partitionJson.put("status", "success");
+            }
+        }
+
+        json.put("succeeded", results.size() - failed);
+        json.put("failed", failed);
+        return json;
+    }
+
+    /**
+     * Formats the outcome of every topic of a bulk create or delete. Created topics are reported
+     * with the number of partitions, replication factor and ID the controller gave them, when known.
+     *
+     * @param results       the error of each topic, or an empty Optional if it succeeded
+     * @param createResults the createTopics result each topic was created with, empty for deletes
+     * @param validateOnly  whether the request was a dry run
+     */
+    static JsonNode formatTopicResults(Map<String, Optional<Throwable>> results, Map<String, CreateTopicsResult> createResults,
+                                       boolean validateOnly) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("validateOnly", validateOnly);
+        json.put("succeeded", 0);
+        json.put("failed", 0);
+        ArrayNode topicsArray = json.putArray("topics");
+
+        int failed = 0;
+        for (Map.Entry<String, Optional<Throwable>> entry : results.entrySet()) {
+            String topic = entry.getKey();
+            ObjectNode topicJson = topicsArray.addObject();
+            topicJson.put("topic", topic);
+            if (entry.getValue().isPresent()) {
+                failed++;
+                topicJson.put("status", "failed");
+                topicJson.put("error", entry.getValue().get().getMessage());
+                continue;
+            }
+            topicJson.put("status", "success");
+            CreateTopicsResult created = createResults.get(topic);
+            if (created != null) {
+                Integer numPartitions = completedValue(created.numPartitions(topic));
+                Integer replicationFactor = completedValue(created.replicationFactor(topic));
+                Uuid topicId = completedValue(created.topicId(topic));
+                if (numPartitions != null) {
+                    topicJson.put("numPartitions", numPartitions);
+                }
+                if (replicationFactor != null) {
+                    topicJson.put("replicationFactor", replicationFactor);
+                }
+                // Dry runs do not assign an ID
+                if (topicId != null && !Uuid.ZERO_UUID.equals(topicId)) {
+                    topicJson.put("topicId", topicId.toString());
+                }
+            }
+        }
+
+        json.put("succeeded", results.size() - failed);
+        json.put("failed", failed);
+        return json;
+    }
+
+    /**
+     * Copies a future into a plain CompletableFuture. The one returned by KafkaFuture.toCompletionStage()
+     * rejects completion from outside, so completeOnTimeout and orTimeout throw or never fire on it.
+     */
+    static <T> CompletableFuture<T> toCompletableFuture(KafkaFuture<T> future) {
+        CompletableFuture<T> copy = new CompletableFuture<>();
+        future.whenComplete((value, error) -> {
+            if (error != null) {
+                copy.completeExceptionally(error);
+            } else {
+                copy.complete(value);
+            }
+        });
+        return copy;
+    }
+
+    /**
+     * @return the value of a future that completed successfully, or null if it failed or is still running.
+     */
+    static <T> T completedValue(KafkaFuture<T> future) {
+        if (!future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            return future.getNow(null);
+        } catch (InterruptedException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Formats the lag of consumer groups. The lag of a partition is its end offset minus the offset
+     * committed by the group, and is left out of the totals when the end offset is unknown.
+     *
+     * @param includePartitions whether to list the offsets of every partition, or only the lag of each topic
+     */
+    static ObjectNode formatConsumerLag(ConsumerLag consumerLag, boolean includePartitions) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("groupCount", consumerLag.committed().size());
+        json.put("partitionCount", consumerLag.partitionCount());
+        json.put("lag", 0);
+        ArrayNode groupsArray = json.putArray("groups");
+        ArrayNode topicsArray = json.putArray("topics");
+
+        long totalLag = 0;
+        // Lag and number of groups of each topic, across the groups
+        Map<String, long[]> topicTotals = new TreeMap<>();
+        for (Map.Entry<String, Map<TopicPartition, Long>> group : consumerLag.committed().entrySet()) {
+            Map<TopicPartition, Long> committed = group.getValue();
+            Map<String, List<TopicPartition>> partitionsByTopic = new TreeMap<>();
+            for (TopicPartition partition : committed.keySet()) {
+                partitionsByTopic.computeIfAbsent(partition.topic(), topic -> new ArrayList<>()).add(partition);
+            }
+
+            ObjectNode groupJson = groupsArray.addObject();
+            groupJson.put("groupId", group.getKey());
+            groupJson.put("state", consumerLag.states().get(group.getKey()));
+            groupJson.put("lag", 0);
+            groupJson.put("maxLag", 0);
+            groupJson.put("partitionCount", committed.size());
+            ArrayNode groupTopicsArray = groupJson.putArray("topics");
+            long groupLag = 0;
+            long maxLag = 0;
+            for (Map.Entry<String, List<TopicPartition>> topic : partitionsByTopic.entrySet()) {
+                List<TopicPartition> partitions = topic.getValue();
+                partitions.sort(Comparator.comparingInt(TopicPartition::partition));
+                ObjectNode topicJson = groupTopicsArray.addObject();
+                topicJson.put("topic", topic.getKey());
+                topicJson.put("lag", 0);
+                ArrayNode partitionsArray = includePartitions ? topicJson.putArray("partitions") : null;
+                long topicLag = 0;
+                for (TopicPartition partition : partitions) {
+                    long committedOffset = committed.get(partition);
+                    Long endOffset = consumerLag.endOffsets().get(partition);
+                    long lag = endOffset == null ? 0 : Math.max(0, endOffset - committedOffset);
+                    topicLag += lag;
+                    maxLag = Math.max(maxLag, lag);
+                    if (partitionsArray != null) {
+                        ObjectNode partitionJson = partitionsArray.addObject();
+                        partitionJson.put("partition", partition.partition());
+                        partitionJson.put("committedOffset", committedOffset);
+                        if (endOffset != null) {
+                            partitionJson.put("endOffset", endOffset);
+                            partitionJson.put("lag", lag);
+                        }
+                    }
+                }
+                topicJson.put("lag", topicLag);
+                groupLag += topicLag;
+                long[] topicTotal = topicTotals.computeIfAbsent(topic.getKey(), name -> new long[2]);
+                topicTotal[0] += topicLag;
+                topicTotal[1]++;
+            }
+            groupJson.put("lag", groupLag);
+            groupJson.put("maxLag", maxLag);
+            totalLag += groupLag;
+        }
+
+        for (Map.Entry<String, long[]> topic : topicTotals.entrySet()) {
+            topicsArray.addObject()
+                    .put("topic", topic.getKey())
+                    .put("lag", topic.getValue()[0])
+                    .put("groups", topic.getValue()[1]);
+        }
+        json.put("lag", totalLag);
+        if (!consumerLag.errors().isEmpty()) {
+            ArrayNode errorsArray = json.putArray("errors");
+            consumerLag.errors().forEach((groupId, error) -> errorsArray.addObject()
+                    .put("groupId", groupId)
+                    .put("error", error));
+        }
+        return json;
+    }
+
+    static JsonNode formatReassignmentJob(ReassignmentJob.Status status) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("jobId", status.id());
+        json.put("type", status.type());
+        json.put("state", status.state().name());
+        json.put("createdAt", status.createdAtMs());
+        if (status.finishedAtMs() != 0) {
+            json.put("finishedAt", status.finishedAtMs());
+        }
+        json.put("partitionsTotal", status.partitionsTotal());
+        json.put("partitionsPending", status.partitionsPending());
+        json.put("partitionsInProgress", status.partitionsInProgress());
+        json.put("partitionsCompleted", status.partitionsCompleted());
+        json.put("partitionsFailed", status.failures().size());
+        json.put("partitionsRemaining", status.partitionsPending() + status.partitionsInProgress());
+        json.put("bytesRemaining", status.bytesRemaining());
+        if (status.error() != null) {
+            json.put("error", status.error());
+        }
+        if (status.throttle() != null) {
+            json.put("wave", status.wave());
+            json.put("waveSize", status.waveSize());
+            json.putPOJO("throttle", status.throttle());
+        }
+
+        ArrayNode failuresArray = json.putArray("failures");
+        for (Map.Entry<TopicPartition, Throwable> entry : status.failures().entrySet()) {
+            failuresArray.addObject()
+                    .put("topic", entry.getKey().topic())
+                    .put("partition", entry.getKey().partition())
+                    .put("error", entry.getValue().getMessage());
+        }
+        return json;
+    }
+
+    static JsonNode formatReassignmentJobs(List<ReassignmentJob.Status> statuses) {
+        ObjectNode json = objectMapper.createObjectNode();
+        ArrayNode jobsArray = json.putArray("jobs");
+        for (ReassignmentJob.Status status : statuses) {
+            jobsArray.add(formatReassignmentJob(status));
+        }
+        return json;
+    }
+
+    public static ObjectNode formatRebalancePlan(RebalancePlan plan) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("replicaMoves", plan.replicaMoves());
+        json.put("bytesMoved", plan.bytesMoved());
+        json.put("partitionsChanged", plan.reassignments().size());
+        json.put("leaderChanges", plan.leaderChanges().size());
+        json.put("skippedPartitions", plan.skippedPartitions());
+        json.put("planningMs", plan.planningMs());
+
+        ArrayNode brokersArray = json.putArray("brokers");
+        for (int b = 0; b < plan.brokerIds().length; b++) {
+            brokersArray.addObject()
+                    .put("id", plan.brokerIds()[b])
+                    .put("bytesBefore", plan.bytesBefore()[b])
+                    .put("bytesAfter", plan.bytesAfter()[b])
+                    .put("leadersBefore", plan.leadersBefore()[b])
+                    .put("leadersAfter", plan.leadersAfter()[b]);
+        }
+
+        ArrayNode partitionsArray = json.putArray("partitions");
+        for (Map.Entry<TopicPartition, List<Integer>> entry : plan.reassignments().entrySet()) {
+            ObjectNode partitionJson = partitionsArray.addObject();
+            partitionJson.put("topic", entry.getKey().topic());
+            partitionJson.put("partition", entry.getKey().partition());
+            ArrayNode replicasArray = partitionJson.putArray("replicas");
+            entry.getValue().forEach(replicasArray::add);
+        }
+        return json;
+    }
+
+    public static JsonNode formatJobSubmission(String jobId) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("jobId", jobId);
+        json.put("status", "/job/" + jobId);
+        return json;
+    }
+
+    public static JsonNode formatOperationSubmission(String operationId) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("operationId", operationId);
+        json.put("status", "/broker/operation/" + operationId);
+        return json;
+    }
+
+    public static ObjectNode formatLogDirPlan(LogDirPlan plan) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("replicaMoves", plan.moves().size());
+        json.put("bytesMoved", plan.bytesMoved());
+        json.put("planningMs", plan.planningMs());
+
+        ArrayNode dirsArray = json.putArray("logDirs");
+        for (LogDirPlan.Dir dir : plan.dirs()) {
+            ObjectNode dirJson = dirsArray.addObject();
+            dirJson.put("broker", dir.brokerId());
+            dirJson.put("path", dir.path());
+            if (dir.totalBytes() >= 0) {
+                dirJson.put("totalBytes", dir.totalBytes());
+            }
+            if (dir.error() != null) {
+                dirJson.put("error", dir.error());
+            } else {
+                dirJson.put("bytesBefore", dir.bytesBefore());
+                dirJson.put("bytesAfter", dir.bytesAfter());
+            }
+        }
+
+        ArrayNode movesArray = json.putArray("moves");
+        for (LogDirPlan.Move move : plan.moves()) {
+            movesArray.addObject()
+                    .put("topic", move.replica().topic())
+                    .put("partition", move.replica().partition())
+                    .put("broker", move.replica().brokerId())
+                    .put("sourceDir", move.sourceDir())
+                    .put("targetDir", move.targetDir())
+                    .put("sizeBytes", move.sizeBytes());
+        }
+        return json;
+    }
+
+    public static JsonNode formatLogDirJobSubmission(String jobId) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("jobId", jobId);
+        json.put("status", "/logdir/job/" + jobId);
+        return json;
+    }
+
+    static JsonNode formatLogDirJob(LogDirJob.Status status) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("jobId", status.id());
+        json.put("state", status.state().name());
+        json.put("createdAt", status.createdAtMs());
+        if (status.finishedAtMs() != 0) {
+            json.put("finishedAt", status.finishedAtMs());
+        }
+        json.put("movesTotal", status.movesTotal());
+        json.put("movesPending", status.movesPending());
+        json.put("movesInProgress", status.movesInProgress());
+        json.put("movesCompleted", status.movesCompleted());
+        json.put("movesFailed", status.failures().size());
+        json.put("bytesTotal", status.bytesTotal());
+        json.put("bytesCompleted", status.bytesCompleted());
+        json.put("offsetLag", status.offsetLag());
+        json.put("maxMovesPerBroker", status.maxMovesPerBroker());
+        if (status.ioRateBytes() > 0) {
+            json.put("ioRateBytes", status.ioRateBytes());
+        }
+        if (status.error() != null) {
+            json.put("error", status.error());
+        }
+
+        ArrayNode failuresArray = json.putArray("failures");
+        for (Map.Entry<TopicPartitionReplica, String> entry : status.failures().entrySet()) {
+            failuresArray.addObject()
+                    .put("topic", entry.getKey().topic())
+                    .put("partition", entry.getKey().partition())
+                    .put("broker", entry.getKey().brokerId())
+                    .put("error", entry.getValue());
+        }
+        return json;
+    }
+
+    static JsonNode formatLogDirJobs(List<LogDirJob.Status> statuses) {
+        ObjectNode json = objectMapper.createObjectNode();
+        ArrayNode jobsArray = json.putArray("jobs");
+        for (LogDirJob.Status status : statuses) {
+            jobsArray.add(formatLogDirJob(status));
+        }
+        return json;
+    }
+
+    static JsonNode formatScaleOperation(ScaleOperation.Status status) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("operationId", status.id());
+        json.put("type", status.type());
+        json.put("state", status.state().name());
+        json.put("targetBrokers", status.targetBrokers());
+        json.put("createdAt", status.createdAtMs());
+        if (status.finishedAtMs() != 0) {
+            json.put("finishedAt", status.finishedAtMs());
+            json.put("durationMs", status.finishedAtMs() - status.createdAtMs());
+        }
+        ArrayNode brokersArray = json.putArray("brokerIds");
+        status.brokerIds().forEach(brokersArray::add);
+        if (status.jobId() != null) {
+            json.put("job", "/job/" + status.jobId());
+        }
+        if (status.error() != null) {
+            json.put("error", status.error());
+        }
+
+        ArrayNode phasesArray = json.putArray("phases");
+        long nowMs = System.currentTimeMillis();
+        for (ScaleOperation.Phase phase : status.phases()) {
+            ObjectNode phaseJson = phasesArray.addObject();
+            phaseJson.put("phase", phase.name());
+            phaseJson.put("startedAt", phase.startedAtMs());
+            phaseJson.put("done", phase.finishedAtMs() != 0);
+            phaseJson.put("latencyMs", (phase.finishedAtMs() != 0 ? phase.finishedAtMs() : nowMs) - phase.startedAtMs());
+            if (phase.detail() != null) {
+                phaseJson.put("detail", phase.detail());
+            }
+        }
+        return json;
+    }
+
+    static JsonNode formatScaleOperations(List<ScaleOperation.Status> statuses) {
+        ObjectNode json = objectMapper.createObjectNode();
+        ArrayNode operationsArray = json.putArray("operations");
+        for (ScaleOperation.Status status : statuses) {
+            operationsArray.add(formatScaleOperation(status));
+        }
+        return json;
+    }
+
+    public static ObjectNode formatClusterConnection(ClusterConnection connection) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("cluster", connection.name);
+        json.put("bootstrapServers", connection.bootstrapServers);
+        json.put("namespace", connection.namespace);
+        json.put("clusterName", connection.clusterName);
+        json.put("createdAt", connection.createdAtMs);
+
+        ObjectNode healthJson = json.putObject("health");
+        healthJson.put("healthy", connection.isHealthy());
+        healthJson.put("brokers", connection.brokers());
+        healthJson.put("lastCheckedAt", connection.lastCheckedAtMs());
+        healthJson.put("lastCheckMs", connection.lastCheckMs());
+        if (connection.lastError() != null) {
+            healthJson.put("error", connection.lastError());
+        }
+
+        ClusterSettings settings = connection.settings;
+        ObjectNode settingsJson = json.putObject("settings");
+        settingsJson.put("requestTimeoutMs", settings.requestTimeoutMs());
+        settingsJson.put("defaultApiTimeoutMs", settings.defaultApiTimeoutMs());
+        settingsJson.put("metadataMaxAgeMs", settings.metadataMaxAgeMs());
+        settingsJson.put("connectionsMaxIdleMs", settings.connectionsMaxIdleMs());
+        settingsJson.put("connectionSetupTimeoutMs", settings.connectionSetupTimeoutMs());
+        settingsJson.put("connectionSetupTimeoutMaxMs", settings.connectionSetupTimeoutMaxMs());
+        settingsJson.put("closeTimeoutMs", settings.closeTimeoutMs());
+        // Property values may hold credentials, so only their names are reported
+        ArrayNode propertiesArray = settingsJson.putArray("properties");
+        settings.properties().keySet().stream().sorted().forEach(propertiesArray::add);
+        return json;
+    }
+
+    public static JsonNode formatClusterConnections(Collection<ClusterConnection> connections) {
+        ObjectNode json = objectMapper.createObjectNode();
+        ArrayNode clustersArray = json.putArray("clusters");
+        for (ClusterConnection connection : connections) {
+            clustersArray.add(formatClusterConnection(connection));
+        }
+        return json;
+    }
+
+    public static JsonNode wrapError(Throwable e) {
         ObjectNode errorJson = objectMapper.createObjectNode();
         errorJson.put("error", e.getMessage());
         return errorJson;
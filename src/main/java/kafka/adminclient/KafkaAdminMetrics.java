@@ -0,0 +1,236 @@
+package kafka.adminclient;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers and counters of the manager methods, registered on the global Micrometer registry that
+ * Spring Boot publishes at /actuator/prometheus:
+ * <ul>
+ *     <li>kafka.admin.operation: latency of each manager method, tagged by operation;</li>
+ *     <li>kafka.admin.roundtrip: latency of each Kafka admin API call, tagged by api;</li>
+ *     <li>kafka.admin.format: time spent turning Kafka results into JSON, tagged by operation;</li>
+ *     <li>kafka.admin.payload.partitions: partitions described or moved per call, tagged by operation;</li>
+ *     <li>kafka.admin.response.bytes: size of the streamed topic descriptions;</li>
+ *     <li>kafka.admin.errors: failures, tagged by operation and exception type, including per-partition failures.</li>
+ * </ul>
+ * Every meter is registered once, up front or on the first error of a type, so that recording a
+ * call only reads the clock and updates existing meters. Nothing here observes a future: managers
+ * record from the completion callbacks they already attach, so metrics add no stage or callback to
+ * a request. Only background jobs attach a callback of their own, to time the calls whose answer
+ * they consume per partition or replica.
+ */
+public class KafkaAdminMetrics {
+    private static final MeterRegistry registry = Metrics.globalRegistry;
+
+    /**
+     * The meters of one manager method.
+     */
+    public static final class Operation {
+        private final String name;
+        private final Timer latency;
+        private final Timer formatting;
+        private final DistributionSummary partitions;
+        private final Map<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+
+        private Operation(String name, Duration maximumLatency) {
+            this.name = name;
+            this.latency = Timer.builder("kafka.admin.operation")
+                    .description("Latency of admin operations")
+                    .tag("operation", name)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(maximumLatency)
+                    .register(registry);
+            this.formatting = Timer.builder("kafka.admin.format")
+                    .description("Time spent formatting Kafka results as JSON")
+                    .tag("operation", name)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(10_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+            this.partitions = DistributionSummary.builder("kafka.admin.payload.partitions")
+                    .description("Partitions described or moved per operation")
+                    .baseUnit("partitions")
+                    .tag("operation", name)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(1_000_000.0)
+                    .register(registry);
+        }
+
+        /**
+         * Records the latency of an operation that completed.
+         *
+         * @param startNs the System.nanoTime() the operation started at
+         */
+        public void record(long startNs) {
+            latency.record(System.nanoTime() - startNs, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Records the latency of an operation that completed, and its failure if error is not null.
+         */
+        public void record(long startNs, Throwable error) {
+            record(startNs);
+            if (error != null) {
+                recordError(error);
+            }
+        }
+
+        public void recordFormatting(long startNs) {
+            formatting.record(System.nanoTime() - startNs, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordPartitions(int count) {
+            partitions.record(count);
+        }
+
+        public void recordError(Throwable error) {
+            Throwable cause = KafkaAdminClientUtils.unwrap(error);
+            Counter counter = errors.get(cause.getClass());
+            if (counter == null) {
+                counter = errors.computeIfAbsent(cause.getClass(), type -> Counter.builder("kafka.admin.errors")
+                        .description("Failed admin operations and partitions")
+                        .tag("operation", name)
+                        .tag("exception", type.getSimpleName())
+                        .register(registry));
+            }
+            counter.increment();
+        }
+
+        /**
+         * Counts the partitions that failed, by exception type.
+         */
+        public void recordErrors(Map<?, Optional<Throwable>> results) {
+            for (Optional<Throwable> error : results.values()) {
+                if (error.isPresent()) {
+                    recordError(error.get());
+                }
+            }
+        }
+    }
+
+    /**
+     * The round-trip timer of one Kafka admin API.
+     */
+    public static final class RoundTrip {
+        private final Timer latency;
+
+        private RoundTrip(String api) {
+            this.latency = Timer.builder("kafka.admin.roundtrip")
+                    .description("Latency of Kafka admin API calls")
+                    .tag("api", api)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofMinutes(2))
+                    .register(registry);
+        }
+
+        /**
+         * Records the latency of a call, from the callback that consumes its answer.
+         *
+         * @param startNs the System.nanoTime() the call was issued at
+         */
+        public void record(long startNs) {
+            latency.record(System.nanoTime() - startNs, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Records the latency of calls issued together and consumed once the last of them answered.
+         */
+        public void record(long startNs, int calls) {
+            long elapsedNs = System.nanoTime() - startNs;
+            for (int i = 0; i < calls; i++) {
+                latency.record(elapsedNs, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public static final Operation DESCRIBE_CLUSTER = operation("describeCluster");
+    public static final Operation DESCRIBE_TOPIC = operation("describeTopic");
+    public static final Operation DESCRIBE_ALL_TOPICS = operation("describeAllTopics");
+    public static final Operation CREATE_TOPIC = operation("createTopic");
+    public static final Operation DELETE_TOPICS = operation("deleteTopics");
+    public static final Operation MIGRATE_PARTITIONS = operation("migratePartitions");
+    public static final Operation MIGRATE_ALL_PARTITIONS = operation("migrateAllPartitionsFromTopicToBroker");
+    public static final Operation SUBMIT_REASSIGNMENT_JOB = operation("submitReassignmentJob");
+    public static final Operation PLAN_REBALANCE = operation("planRebalance");
+    public static final Operation REBALANCE = operation("rebalance");
+    public static final Operation BALANCE_LEADERS = operation("balanceLeaders");
+    public static final Operation ELECT_NEW_LEADER = operation("electNewLeader");
+    public static final Operation SCALE_BROKERS = operation("scaleBrokers");
+    public static final Operation CONSUMER_LAG = operation("consumerLag");
+    public static final Operation PLAN_LOG_DIRS = operation("planLogDirs");
+    public static final Operation BALANCE_LOG_DIRS = operation("balanceLogDirs");
+    // Scaling operations wait for pods and drain brokers, so they can run for far longer
+    public static final Operation SCALE_OUT = new Operation("scaleOut", Duration.ofHours(2));
+    public static final Operation SCALE_IN = new Operation("scaleIn", Duration.ofHours(2));
+
+    public static final RoundTrip LIST_TOPICS_CALL = new RoundTrip("listTopics");
+    public static final RoundTrip DESCRIBE_TOPICS_CALL = new RoundTrip("describeTopics");
+    public static final RoundTrip DESCRIBE_CLUSTER_CALL = new RoundTrip("describeCluster");
+    public static final RoundTrip CREATE_TOPICS_CALL = new RoundTrip("createTopics");
+    public static final RoundTrip DELETE_TOPICS_CALL = new RoundTrip("deleteTopics");
+    public static final RoundTrip ALTER_PARTITION_REASSIGNMENTS_CALL = new RoundTrip("alterPartitionReassignments");
+    public static final RoundTrip LIST_PARTITION_REASSIGNMENTS_CALL = new RoundTrip("listPartitionReassignments");
+    public static final RoundTrip ELECT_LEADERS_CALL = new RoundTrip("electLeaders");
+    public static final RoundTrip DESCRIBE_LOG_DIRS_CALL = new RoundTrip("describeLogDirs");
+    public static final RoundTrip LIST_CONSUMER_GROUPS_CALL = new RoundTrip("listConsumerGroups");
+    public static final RoundTrip LIST_CONSUMER_GROUP_OFFSETS_CALL = new RoundTrip("listConsumerGroupOffsets");
+    public static final RoundTrip LIST_OFFSETS_CALL = new RoundTrip("listOffsets");
+    public static final RoundTrip ALTER_REPLICA_LOG_DIRS_CALL = new RoundTrip("alterReplicaLogDirs");
+    public static final RoundTrip DESCRIBE_REPLICA_LOG_DIRS_CALL = new RoundTrip("describeReplicaLogDirs");
+
+    private static final DistributionSummary responseBytes = DistributionSummary.builder("kafka.admin.response.bytes")
+            .description("Size of streamed topic descriptions")
+            .baseUnit("bytes")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(64.0)
+            .maximumExpectedValue(1024.0 * 1024 * 1024)
+            .register(registry);
+
+    private static Operation operation(String name) {
+        return new Operation(name, Duration.ofMinutes(2));
+    }
+
+    /**
+     * Wraps a response stream to record the number of bytes written to it once it is closed.
+     * Closing the wrapper does not close the response stream.
+     */
+    static OutputStream countingResponse(OutputStream out) {
+        return new FilterOutputStream(out) {
+            private long count;
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                count++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                count += len;
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+                responseBytes.record(count);
+            }
+        };
+    }
+}
@@ -1,35 +1,526 @@
 package kafka.adminclient;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.readiness.Readiness;
 import io.strimzi.api.kafka.Crds;
 import io.strimzi.api.kafka.model.nodepool.KafkaNodePool;
 import io.strimzi.api.kafka.model.nodepool.KafkaNodePoolBuilder;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.LogDirDescription;
+import org.apache.kafka.common.Node;
 
 public class KafkaBrokerManager {
+    static final String BROKER_POOL = "broker";
+    static final long KAFKA_POLL_INTERVAL_MS = 2_000;
+    static final long OPERATION_RETENTION_MS = TimeUnit.HOURS.toMillis(1);
+    public static final long DEFAULT_SCALE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * The Kubernetes client only offers blocking calls, so they run on this pool instead of the request threads.
+     */
+    private static final ExecutorService kubernetesExecutor = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "kubernetes-client");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "broker-scaling");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Map<String, ScaleOperation> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the replicas of the broker node pool directly. Lowering them this way removes brokers that may
+     * still hold replicas, so it is refused unless forced; {@link #scaleIn} drains the brokers first.
+     *
+     * @param force whether to lower the replicas without draining the removed brokers
+     * @return a CompletableFuture of null if the node pool was patched, or of a JsonNode object containing the error.
+     */
+    public static CompletableFuture<JsonNode> scaleBrokers(KubernetesClient kubernetesClient, String namespace, String clusterName,
+                                                           AdminClient adminClient, int newBrokerCount, boolean force) {
+        long startNs = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                KafkaNodePool nodePool = getNodePool(kubernetesClient, namespace);
+                if (!force && newBrokerCount < nodePool.getSpec().getReplicas()) {
+                    throw new IllegalArgumentException(String.format(
+                            "Lowering the brokers from %d to %d would remove brokers without draining them, use /broker/scalein or set force",
+                            nodePool.getSpec().getReplicas(), newBrokerCount));
+                }
+                patchNodePool(kubernetesClient, namespace, nodePool, newBrokerCount, adminClient);
+                return null;
+            } catch (Exception e) {
+                KafkaAdminMetrics.SCALE_BROKERS.recordError(e);
+                return KafkaAdminClientUtils.wrapError(e);
+            }
+        }, kubernetesExecutor).whenComplete((ignored, error) -> KafkaAdminMetrics.SCALE_BROKERS.record(startNs));
+    }
+
+    /**
+     * Scales the broker node pool out and returns right away. The returned operation then goes through
+     * these phases, each reported with its latency:
+     * <ol>
+     *     <li>patchNodePool: raises the replicas of the node pool;</li>
+     *     <li>waitForNodePool: waits, through an informer, for Strimzi to list the new node IDs in the pool status;</li>
+     *     <li>waitForPods: waits, through an informer, for the pods of the new brokers to be ready;</li>
+     *     <li>waitForKafka: waits for the new brokers to show up in describeCluster;</li>
+     *     <li>rebalance: moves partitions onto the new brokers with {@link KafkaClusterRebalancer}, throttled.</li>
+     * </ol>
+     *
+     * @param options   the goals and limits of the rebalance, or null to skip it
+     * @param throttle  the limits the rebalance is executed with
+     * @param timeoutMs the maximum time to wait for the new brokers, excluding the rebalance
+     * @return a JsonNode object containing the ID of the operation.
+     */
+    public static JsonNode scaleOut(KubernetesClient kubernetesClient, String namespace, String clusterName, AdminClient adminClient,
+                                    int newBrokerCount, RebalanceOptions options, ReassignmentThrottle throttle, long timeoutMs) {
+        long startNs = System.nanoTime();
+        ScaleOperation operation = register("scaleOut", adminClient, newBrokerCount);
+        long deadlineMs = System.currentTimeMillis() + timeoutMs;
+
+        operation.beginPhase("patchNodePool");
+        CompletableFuture.supplyAsync(() -> {
+                    KafkaNodePool nodePool = getNodePool(kubernetesClient, namespace);
+                    if (newBrokerCount <= nodePool.getSpec().getReplicas()) {
+                        throw new IllegalArgumentException(String.format("The broker pool already has %d replicas, scaling out needs more than that",
+                                nodePool.getSpec().getReplicas()));
+                    }
+                    return patchNodePool(kubernetesClient, namespace, nodePool, newBrokerCount, adminClient);
+                }, kubernetesExecutor)
+                .thenCompose(previousNodeIds -> {
+                    operation.endPhase("previous node IDs " + previousNodeIds);
+                    operation.beginPhase("waitForNodePool");
+                    return awaitNodePoolIds(kubernetesClient, namespace, newBrokerCount, deadlineMs).thenApply(nodeIds -> {
+                        Set<Integer> added = new TreeSet<>(nodeIds);
+                        added.removeAll(previousNodeIds);
+                        return added;
+                    });
+                })
+                .thenCompose(added -> {
+                    operation.setBrokerIds(added);
+                    operation.endPhase("new node IDs " + added);
+                    operation.beginPhase("waitForPods");
+                    return awaitPodsReady(kubernetesClient, namespace, clusterName, added, deadlineMs).thenApply(ignored -> added);
+                })
+                .thenCompose(added -> {
+                    operation.beginPhase("waitForKafka");
+                    return awaitBrokersRegistered(adminClient, added, deadlineMs).thenApply(ignored -> added);
+                })
+                .thenCompose(added -> {
+                    KafkaMetadataCache.invalidateCluster(adminClient);
+                    if (options == null) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    operation.beginPhase("rebalance");
+                    return KafkaClusterRebalancer.plan(adminClient, options).thenCompose(plan -> {
+                        String jobId = KafkaPartitionManager.submitRebalance(plan, throttle, adminClient);
+                        if (jobId == null) {
+                            operation.endPhase("nothing to move");
+                            return CompletableFuture.<Void>completedFuture(null);
+                        }
+                        operation.setJobId(jobId);
+                        return awaitJob(jobId, false).thenAccept(status -> operation.endPhase(String.format("moved %d partitions, %d failed",
+                                status.partitionsCompleted(), status.failures().size())));
+                    });
+                })
+                .whenComplete((ignored, error) -> {
+                    KafkaAdminMetrics.SCALE_OUT.record(startNs);
+                    if (error != null) {
+                        KafkaAdminMetrics.SCALE_OUT.recordError(error);
+                        operation.fail(KafkaAdminClientUtils.unwrap(error));
+                    } else {
+                        operation.complete();
+                    }
+                });
+        return KafkaAdminClientUtils.formatOperationSubmission(operation.id);
+    }
 
-    public static JsonNode scaleBrokers(KubernetesClient kubernetesClient, String namespace, String clusterName, int newBrokerCount) {
-        try {
-            KafkaNodePool existingNodePool = Crds.kafkaNodePoolOperation(kubernetesClient)
-                    .inNamespace(namespace)
-                    .withName("broker")
-                    .get();
-
-            KafkaNodePool updatedNodePool = new KafkaNodePoolBuilder(existingNodePool)
-                    .editSpec()
-                    .withReplicas(newBrokerCount)
-                    .endSpec()
-                    .build();
-
-            Crds.kafkaNodePoolOperation(kubernetesClient)
-                    .inNamespace(namespace)
-                    .withName("broker")
-                    .patch(updatedNodePool);
-
-            return null;
-        } catch (Exception e) {
-            return KafkaAdminClientUtils.wrapError(e);
+    /**
+     * Scales the broker node pool in without leaving partitions under-replicated, and returns right away.
+     * The brokers with the highest node IDs, which Strimzi removes first, are drained before the pool
+     * is patched. The returned operation goes through these phases, each reported with its latency:
+     * <ol>
+     *     <li>selectBrokers: picks the brokers to remove from the node pool status;</li>
+     *     <li>drain: moves their replicas to the remaining brokers with a throttled reassignment job, which
+     *     keeps the replication factor of every partition and bounds the moves per broker in each wave.
+     *     The plan is computed from uncached metadata, and fails at once if a partition on the brokers
+     *     is being reassigned or has replicas on unknown brokers;</li>
+     *     <li>waitForEmptyLogDirs: waits until describeLogDirs reports no replica left on them;</li>
+     *     <li>patchNodePool: lowers the replicas of the node pool;</li>
+     *     <li>waitForNodePool: waits, through an informer, for the pool status to drop the removed node IDs.</li>
+     * </ol>
+     * If any partition fails to move, or draining does not finish within timeoutMs, the reassignment job
+     * is cancelled, which reverts the moves still in progress, and the node pool is left untouched.
+     * The brokers are only removed once every one of their log dirs is described without error and
+     * holds no replica.
+     *
+     * @param throttle  the limits the drain is executed with
+     * @param timeoutMs the maximum time to drain the brokers, and then to wait for the node pool
+     * @return a JsonNode object containing the ID of the operation.
+     */
+    public static JsonNode scaleIn(KubernetesClient kubernetesClient, String namespace, AdminClient adminClient,
+                                   int newBrokerCount, ReassignmentThrottle throttle, long timeoutMs) {
+        long startNs = System.nanoTime();
+        ScaleOperation operation = register("scaleIn", adminClient, newBrokerCount);
+        long deadlineMs = System.currentTimeMillis() + timeoutMs;
+
+        operation.beginPhase("selectBrokers");
+        CompletableFuture.supplyAsync(() -> {
+                    KafkaNodePool nodePool = getNodePool(kubernetesClient, namespace);
+                    if (newBrokerCount <= 0 || newBrokerCount >= nodePool.getSpec().getReplicas()) {
+                        throw new IllegalArgumentException(String.format("Scaling in needs between 1 and %d brokers, got %d",
+                                nodePool.getSpec().getReplicas() - 1, newBrokerCount));
+                    }
+                    List<Integer> nodeIds = new ArrayList<>(nodeIds(nodePool));
+                    if (nodeIds.size() != nodePool.getSpec().getReplicas()) {
+                        throw new IllegalStateException("The broker node pool is still being scaled, its status lists node IDs " + nodeIds);
+                    }
+                    nodeIds.sort(null);
+                    return (Set<Integer>) new TreeSet<>(nodeIds.subList(newBrokerCount, nodeIds.size()));
+                }, kubernetesExecutor)
+                .thenCompose(removed -> {
+                    operation.setBrokerIds(removed);
+                    operation.endPhase("removing node IDs " + removed);
+                    operation.beginPhase("drain");
+                    // Plan from fresh metadata, a topic created within the cache TTL would be left on the brokers
+                    KafkaMetadataCache.invalidateCluster(adminClient);
+                    KafkaMetadataCache.invalidateTopics(adminClient, Set.of());
+                    return KafkaClusterRebalancer.planDrain(adminClient, removed).thenCompose(plan -> {
+                        if (plan.reassignments().isEmpty()) {
+                            operation.endPhase("nothing to move");
+                            return CompletableFuture.completedFuture(removed);
+                        }
+                        String jobId = KafkaReassignmentJobManager.submitJob("drain", adminClient, CompletableFuture.completedFuture(plan.reassignments()),
+                                plan.leaderChanges(), KafkaPartitionManager.DEFAULT_REASSIGNMENT_BATCH_SIZE, throttle);
+                        operation.setJobId(jobId);
+                        return withDeadline(awaitJob(jobId, true), deadlineMs, "brokers " + removed + " to be drained").handle((status, error) -> {
+                            if (error != null) {
+                                // Revert the moves still in progress and leave the node pool as it is
+                                KafkaReassignmentJobManager.cancelJob(jobId);
+                                throw new CompletionException(new IllegalStateException(
+                                        "Draining aborted, the reassignment was cancelled: " + KafkaAdminClientUtils.unwrap(error).getMessage()));
+                            }
+                            operation.endPhase(String.format("moved %d replicas, %d bytes", plan.replicaMoves(), plan.bytesMoved()));
+                            return removed;
+                        });
+                    });
+                })
+                .thenCompose(removed -> {
+                    operation.beginPhase("waitForEmptyLogDirs");
+                    return awaitDrained(adminClient, removed, deadlineMs);
+                })
+                .thenCompose(ignored -> {
+                    operation.beginPhase("patchNodePool");
+                    return CompletableFuture.supplyAsync(() ->
+                            patchNodePool(kubernetesClient, namespace, getNodePool(kubernetesClient, namespace), newBrokerCount, adminClient), kubernetesExecutor);
+                })
+                .thenCompose(ignored -> {
+                    operation.beginPhase("waitForNodePool");
+                    return awaitNodePoolIds(kubernetesClient, namespace, newBrokerCount, System.currentTimeMillis() + timeoutMs);
+                })
+                .whenComplete((ignored, error) -> {
+                    KafkaMetadataCache.invalidateCluster(adminClient);
+                    KafkaAdminMetrics.SCALE_IN.record(startNs);
+                    if (error != null) {
+                        KafkaAdminMetrics.SCALE_IN.recordError(error);
+                        operation.fail(KafkaAdminClientUtils.unwrap(error));
+                    } else {
+                        operation.complete();
+                    }
+                });
+        return KafkaAdminClientUtils.formatOperationSubmission(operation.id);
+    }
+
+    /**
+     * Retrieves the progress of a scaling operation as a JSON node.
+     *
+     * @return the operation status, or null if no such operation exists.
+     */
+    public static JsonNode describeOperation(String operationId) {
+        ScaleOperation operation = operations.get(operationId);
+        return operation == null ? null : KafkaAdminClientUtils.formatScaleOperation(operation.status());
+    }
+
+    /**
+     * Retrieves the progress of every known scaling operation, newest first.
+     */
+    public static JsonNode listOperations() {
+        List<ScaleOperation.Status> statuses = new ArrayList<>();
+        for (ScaleOperation operation : operations.values()) {
+            statuses.add(operation.status());
         }
+        statuses.sort(Comparator.comparingLong(ScaleOperation.Status::createdAtMs).reversed());
+        return KafkaAdminClientUtils.formatScaleOperations(statuses);
     }
-}
 
+    /**
+     * @return whether any scaling operation started through the given AdminClient is still running
+     */
+    static boolean hasActiveOperations(AdminClient adminClient) {
+        return operations.values().stream().anyMatch(operation -> operation.adminClient == adminClient && operation.isRunning());
+    }
+
+    private static ScaleOperation register(String type, AdminClient adminClient, int targetBrokers) {
+        long expiredBeforeMs = System.currentTimeMillis() - OPERATION_RETENTION_MS;
+        operations.values().removeIf(operation -> operation.isFinishedBefore(expiredBeforeMs));
+        ScaleOperation operation = new ScaleOperation(UUID.randomUUID().toString(), type, adminClient, targetBrokers);
+        operations.put(operation.id, operation);
+        return operation;
+    }
+
+    private static KafkaNodePool getNodePool(KubernetesClient kubernetesClient, String namespace) {
+        KafkaNodePool nodePool = Crds.kafkaNodePoolOperation(kubernetesClient)
+                .inNamespace(namespace)
+                .withName(BROKER_POOL)
+                .get();
+        if (nodePool == null) {
+            throw new IllegalStateException(String.format("No node pool named %s in namespace %s", BROKER_POOL, namespace));
+        }
+        return nodePool;
+    }
+
+    private static Set<Integer> nodeIds(KafkaNodePool nodePool) {
+        return nodePool.getStatus() == null || nodePool.getStatus().getNodeIds() == null
+                ? Set.of()
+                : new HashSet<>(nodePool.getStatus().getNodeIds());
+    }
+
+    /**
+     * Sets the replicas of the broker node pool, and drops the cached description of the cluster.
+     *
+     * @return the node IDs of the pool before the change
+     */
+    private static Set<Integer> patchNodePool(KubernetesClient kubernetesClient, String namespace, KafkaNodePool existingNodePool,
+                                              int newBrokerCount, AdminClient adminClient) {
+        Set<Integer> previousNodeIds = nodeIds(existingNodePool);
+
+        KafkaNodePool updatedNodePool = new KafkaNodePoolBuilder(existingNodePool)
+                .editSpec()
+                .withReplicas(newBrokerCount)
+                .endSpec()
+                .build();
+
+        Crds.kafkaNodePoolOperation(kubernetesClient)
+                .inNamespace(namespace)
+                .withName(BROKER_POOL)
+                .patch(updatedNodePool);
+        KafkaMetadataCache.invalidateCluster(adminClient);
+        return previousNodeIds;
+    }
+
+    /**
+     * Waits for the status of the broker node pool to list brokerCount node IDs. The informer
+     * delivers the current pool first, so a status that is already up to date completes at once.
+     */
+    static CompletableFuture<Set<Integer>> awaitNodePoolIds(KubernetesClient kubernetesClient, String namespace, int brokerCount, long deadlineMs) {
+        CompletableFuture<Set<Integer>> result = new CompletableFuture<>();
+        SharedIndexInformer<KafkaNodePool> informer = Crds.kafkaNodePoolOperation(kubernetesClient)
+                .inNamespace(namespace)
+                .withName(BROKER_POOL)
+                .inform(new ResourceEventHandler<>() {
+                    @Override
+                    public void onAdd(KafkaNodePool pool) {
+                        check(pool);
+                    }
+
+                    @Override
+                    public void onUpdate(KafkaNodePool oldPool, KafkaNodePool pool) {
+                        check(pool);
+                    }
+
+                    @Override
+                    public void onDelete(KafkaNodePool pool, boolean deletedFinalStateUnknown) {
+                        result.completeExceptionally(new IllegalStateException("The broker node pool was deleted"));
+                    }
+
+                    private void check(KafkaNodePool pool) {
+                        if (pool.getStatus() != null && pool.getStatus().getNodeIds() != null
+                                && pool.getStatus().getNodeIds().size() == brokerCount) {
+                            result.complete(new TreeSet<>(pool.getStatus().getNodeIds()));
+                        }
+                    }
+                });
+        return withDeadline(result, deadlineMs, "the node pool status to list " + brokerCount + " brokers")
+                .whenComplete((ignored, error) -> informer.close());
+    }
+
+    /**
+     * Waits for the pods of the given brokers to be ready, tracking them with an informer on the
+     * pods of the broker node pool. Pods are named after the cluster, the pool and the node ID.
+     */
+    static CompletableFuture<Void> awaitPodsReady(KubernetesClient kubernetesClient, String namespace, String clusterName,
+                                                  Set<Integer> nodeIds, long deadlineMs) {
+        Set<String> podNames = new HashSet<>();
+        for (int nodeId : nodeIds) {
+            podNames.add(String.format("%s-%s-%d", clusterName, BROKER_POOL, nodeId));
+        }
+        Set<String> readyPods = ConcurrentHashMap.newKeySet();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        SharedIndexInformer<Pod> informer = kubernetesClient.pods()
+                .inNamespace(namespace)
+                .withLabel("strimzi.io/cluster", clusterName)
+                .withLabel("strimzi.io/pool-name", BROKER_POOL)
+                .inform(new ResourceEventHandler<>() {
+                    @Override
+                    public void onAdd(Pod pod) {
+                        check(pod);
+                    }
+
+                    @Override
+                    public void onUpdate(Pod oldPod, Pod pod) {
+                        check(pod);
+                    }
+
+                    @Override
+                    public void onDelete(Pod pod, boolean deletedFinalStateUnknown) {
+                        readyPods.remove(pod.getMetadata().getName());
+                    }
+
+                    private void check(Pod pod) {
+                        String name = pod.getMetadata().getName();
+                        if (!podNames.contains(name)) {
+                            return;
+                        }
+                        if (Readiness.isPodReady(pod)) {
+                            readyPods.add(name);
+                        } else {
+                            readyPods.remove(name);
+                        }
+                        if (readyPods.containsAll(podNames)) {
+                            result.complete(null);
+                        }
+                    }
+                });
+        return withDeadline(result, deadlineMs, "pods " + podNames + " to be ready")
+                .whenComplete((ignored, error) -> informer.close());
+    }
+
+    /**
+     * Waits for every given broker to be part of the cluster metadata. Kafka offers no way to watch
+     * for brokers registering, so describeCluster is polled.
+     */
+    static CompletableFuture<Void> awaitBrokersRegistered(AdminClient adminClient, Set<Integer> brokerIds, long deadlineMs) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        pollBrokersRegistered(adminClient, brokerIds, result);
+        return withDeadline(result, deadlineMs, "brokers " + brokerIds + " to join the cluster");
+    }
+
+    private static void pollBrokersRegistered(AdminClient adminClient, Set<Integer> brokerIds, CompletableFuture<Void> result) {
+        if (result.isDone()) {
+            return;
+        }
+        adminClient.describeCluster().nodes().whenComplete((nodes, error) -> {
+            Set<Integer> registered = new HashSet<>();
+            if (nodes != null) {
+                for (Node node : nodes) {
+                    registered.add(node.id());
+                }
+            }
+            if (registered.containsAll(brokerIds)) {
+                result.complete(null);
+            } else {
+                scheduler.schedule(() -> pollBrokersRegistered(adminClient, brokerIds, result), KAFKA_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * Waits for the log dirs of the given brokers to hold no replica, which also covers replicas
+     * that are no longer assigned to them but have not been deleted yet. A log dir that cannot be read
+     * reports no replicas, so a broker only counts as drained once all of its log dirs are described
+     * without error.
+     */
+    static CompletableFuture<Void> awaitDrained(AdminClient adminClient, Set<Integer> brokerIds, long deadlineMs) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        pollDrained(adminClient, brokerIds, result);
+        return withDeadline(result, deadlineMs, "brokers " + brokerIds + " to hold no replicas");
+    }
+
+    private static void pollDrained(AdminClient adminClient, Set<Integer> brokerIds, CompletableFuture<Void> result) {
+        if (result.isDone()) {
+            return;
+        }
+        adminClient.describeLogDirs(brokerIds).allDescriptions().whenComplete((logDirs, error) -> {
+            boolean empty = logDirs != null;
+            for (int brokerId : brokerIds) {
+                Map<String, LogDirDescription> brokerLogDirs = logDirs == null ? null : logDirs.get(brokerId);
+                if (brokerLogDirs == null || brokerLogDirs.isEmpty()) {
+                    empty = false;
+                    break;
+                }
+                for (LogDirDescription logDir : brokerLogDirs.values()) {
+                    empty &= logDir.error() == null && logDir.replicaInfos().isEmpty();
+                }
+            }
+            if (empty) {
+                result.complete(null);
+            } else {
+                scheduler.schedule(() -> pollDrained(adminClient, brokerIds, result), KAFKA_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * Waits for a reassignment job to finish.
+     *
+     * @param failOnFailures whether to fail as soon as any partition of the job fails to move, instead of
+     *                       waiting for the job to finish with the partitions that did move
+     * @return the final status of the job, or a failed future if the job failed or was cancelled.
+     */
+    static CompletableFuture<ReassignmentJob.Status> awaitJob(String jobId, boolean failOnFailures) {
+        CompletableFuture<ReassignmentJob.Status> result = new CompletableFuture<>();
+        pollJob(jobId, failOnFailures, result);
+        return result;
+    }
+
+    private static void pollJob(String jobId, boolean failOnFailures, CompletableFuture<ReassignmentJob.Status> result) {
+        if (result.isDone()) {
+            return;
+        }
+        ReassignmentJob.Status status = KafkaReassignmentJobManager.jobStatus(jobId);
+        if (status == null) {
+            result.completeExceptionally(new IllegalStateException("Reassignment job " + jobId + " no longer exists"));
+        } else if (failOnFailures && !status.failures().isEmpty()) {
+            List<String> failed = new ArrayList<>();
+            status.failures().forEach((topicPartition, error) -> failed.add(topicPartition + " (" + error.getMessage() + ")"));
+            result.completeExceptionally(new IllegalStateException(String.format("Reassignment job %s failed to move %d partitions: %s",
+                    jobId, failed.size(), String.join(", ", failed))));
+        } else if (status.state() == ReassignmentJob.State.COMPLETED) {
+            result.complete(status);
+        } else if (status.state() == ReassignmentJob.State.FAILED || status.state() == ReassignmentJob.State.CANCELLED) {
+            result.completeExceptionally(new IllegalStateException(String.format("Reassignment job %s ended as %s%s", jobId,
+                    status.state(), status.error() == null ? "" : ": " + status.error())));
+        } else {
+            scheduler.schedule(() -> pollJob(jobId, failOnFailures, result), KafkaReassignmentJobManager.POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, long deadlineMs, String waitingFor) {
+        long remainingMs = Math.max(0, deadlineMs - System.currentTimeMillis());
+        scheduler.schedule(() -> future.completeExceptionally(new TimeoutException("Timed out waiting for " + waitingFor)),
+                remainingMs, TimeUnit.MILLISECONDS);
+        return future;
+    }
+}
@@ -0,0 +1,594 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.LogDirDescription;
+import org.apache.kafka.clients.admin.ReplicaInfo;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+
+/**
+ * Plans reassignments that even out disk usage and preferred leader count across brokers.
+ * Partition sizes come from describeLogDirs and replica layouts from describeTopics.
+ *
+ * The planner greedily moves a replica from the fullest broker to the emptiest one that does not
+ * host the partition yet, picking the replica whose size is closest to what the two brokers are
+ * off the mean by. Every replica is moved at most once and only when the move narrows the gap,
+ * which keeps the bytes moved low. Leaders are then balanced by reordering replicas, which moves
+ * no data. The cluster is held in flat primitive arrays so that plans for 100k+ partitions are
+ * computed in seconds.
+ */
+public class KafkaClusterRebalancer {
+    /**
+     * Computes a plan for the current state of the cluster without executing it.
+     *
+     * @param adminClient the Kafka AdminClient instance
+     * @param options     the goals and limits of the plan
+     * @return the plan.
+     */
+    public static CompletableFuture<RebalancePlan> plan(AdminClient adminClient, RebalanceOptions options) {
+        return load(adminClient, true).thenApply(model -> model.plan(options, true));
+    }
+
+    /**
+     * Computes the replica reorders that even out the number of preferred leaders per broker,
+     * without moving any data.
+     *
+     * @param adminClient the Kafka AdminClient instance
+     * @return the plan, whose reassignments only reorder replicas.
+     */
+    public static CompletableFuture<RebalancePlan> planLeaders(AdminClient adminClient) {
+        return load(adminClient, false).thenApply(model -> model.plan(RebalanceOptions.DEFAULT, false));
+    }
+
+    /**
+     * Computes the moves that empty the given brokers, for instance before removing them. The plan
+     * fails if a partition being reassigned, or with replicas on unknown brokers, has a replica on them.
+     *
+     * @param adminClient the Kafka AdminClient instance
+     * @param brokerIds   the brokers to move every replica away from
+     * @return the plan.
+     */
+    public static CompletableFuture<RebalancePlan> planDrain(AdminClient adminClient, Set<Integer> brokerIds) {
+        return load(adminClient, true).thenApply(model -> model.drainPlan(brokerIds));
+    }
+
+    private static CompletableFuture<Model> load(AdminClient adminClient, boolean withSizes) {
+        CompletableFuture<ClusterMetadata> cluster = KafkaMetadataCache.describeCluster(adminClient).future();
+        CompletableFuture<TopicPage> topics = KafkaMetadataCache.describeTopics(adminClient, TopicQuery.ALL).future();
+        long listStartNs = System.nanoTime();
+        CompletableFuture<Set<TopicPartition>> ongoing = adminClient.listPartitionReassignments().reassignments()
+                .toCompletionStage().toCompletableFuture().thenApply(reassignments -> {
+                    KafkaAdminMetrics.LIST_PARTITION_REASSIGNMENTS_CALL.record(listStartNs);
+                    return reassignments.keySet();
+                });
+
+        return CompletableFuture.allOf(cluster, topics, ongoing).thenCompose(ignored -> {
+            List<Integer> brokerIds = new ArrayList<>();
+            for (Node node : cluster.join().nodes()) {
+                brokerIds.add(node.id());
+            }
+            brokerIds.sort(null);
+            long describeStartNs = System.nanoTime();
+            CompletableFuture<Map<Integer, Map<String, LogDirDescription>>> logDirs = withSizes
+                    ? adminClient.describeLogDirs(brokerIds).allDescriptions().toCompletionStage().toCompletableFuture()
+                    : CompletableFuture.completedFuture(Map.of());
+            // Building the model and planning are CPU bound, keep them off the AdminClient's network thread
+            return logDirs.thenApplyAsync(sizes -> {
+                if (withSizes) {
+                    KafkaAdminMetrics.DESCRIBE_LOG_DIRS_CALL.record(describeStartNs);
+                }
+                return Model.load(brokerIds, topics.join().topics().values(), ongoing.join(), sizes);
+            });
+        });
+    }
+
+    /**
+     * Slots ordered by broker and size, from which moved slots are removed. Removed positions are
+     * skipped through pointers to the next live position in each direction, compressed as they are
+     * followed, so finding the live neighbour of a position takes amortized near-constant time.
+     */
+    static final class Candidates {
+        final int[] slots;
+        private final int[] positions;
+        private final int[] next;
+        // Shifted by one, so that 0 stands for the position before the first
+        private final int[] previous;
+
+        Candidates(int[] slots) {
+            this.slots = slots;
+            this.positions = new int[slots.length];
+            this.next = new int[slots.length + 1];
+            this.previous = new int[slots.length + 1];
+            for (int i = 0; i < slots.length; i++) {
+                positions[slots[i]] = i;
+            }
+            for (int i = 0; i <= slots.length; i++) {
+                next[i] = i;
+                previous[i] = i;
+            }
+        }
+
+        void remove(int slot) {
+            int position = positions[slot];
+            next[position] = position + 1;
+            previous[position + 1] = position;
+        }
+
+        /**
+         * @return the first live position at or after position, or slots.length if there is none
+         */
+        int atOrAfter(int position) {
+            return find(next, position);
+        }
+
+        /**
+         * @return the last live position at or before position, or -1 if there is none
+         */
+        int atOrBefore(int position) {
+            return find(previous, position + 1) - 1;
+        }
+
+        private static int find(int[] skip, int i) {
+            while (skip[i] != i) {
+                skip[i] = skip[skip[i]];
+                i = skip[i];
+            }
+            return i;
+        }
+    }
+
+    /**
+     * The replica layout of the cluster. Brokers are referred to by their index in brokerIds, and
+     * the replicas of partition p occupy the slots offsets[p] until offsets[p + 1], leader first.
+     */
+    static final class Model {
+        final int[] brokerIds;
+        final TopicPartition[] partitions;
+        final long[] sizes;
+        final int[] offsets;
+        final int[] replicas;
+        final int[] original;
+        final int[] slotPartition;
+        final boolean[] movedSlot;
+        final long[] brokerBytes;
+        final int[] brokerLeaders;
+        final Map<TopicPartition, List<Node>> skipped;
+        final long loadStartNs;
+
+        private Model(int[] brokerIds, TopicPartition[] partitions, long[] sizes, int[] offsets, int[] replicas,
+                      Map<TopicPartition, List<Node>> skipped) {
+            this.brokerIds = brokerIds;
+            this.partitions = partitions;
+            this.sizes = sizes;
+            this.offsets = offsets;
+            this.replicas = replicas;
+            this.original = replicas.clone();
+            this.slotPartition = new int[replicas.length];
+            this.movedSlot = new boolean[replicas.length];
+            this.brokerBytes = new long[brokerIds.length];
+            this.brokerLeaders = new int[brokerIds.length];
+            this.skipped = skipped;
+            this.loadStartNs = System.nanoTime();
+
+            for (int p = 0; p < partitions.length; p++) {
+                brokerLeaders[replicas[offsets[p]]]++;
+                for (int r = offsets[p]; r < offsets[p + 1]; r++) {
+                    slotPartition[r] = p;
+                    brokerBytes[replicas[r]] += sizes[p];
+                }
+            }
+        }
+
+        /**
+         * Builds the model, leaving out partitions that are being reassigned or have a replica on a
+         * broker outside of brokerIds, whose replicas are kept in skipped. A partition's size is the
+         * largest of its replicas.
+         */
+        static Model load(List<Integer> brokerIdList, Collection<TopicDescription> topics, Set<TopicPartition> excluded,
+                          Map<Integer, Map<String, LogDirDescription>> logDirs) {
+            int[] brokerIds = brokerIdList.stream().mapToInt(Integer::intValue).toArray();
+            Map<Integer, Integer> brokerIndex = new HashMap<>();
+            for (int b = 0; b < brokerIds.length; b++) {
+                brokerIndex.put(brokerIds[b], b);
+            }
+
+            Map<TopicPartition, Long> replicaSizes = new HashMap<>();
+            for (Map<String, LogDirDescription> brokerLogDirs : logDirs.values()) {
+                for (LogDirDescription logDir : brokerLogDirs.values()) {
+                    for (Map.Entry<TopicPartition, ReplicaInfo> replica : logDir.replicaInfos().entrySet()) {
+                        if (!replica.getValue().isFuture()) {
+                            replicaSizes.merge(replica.getKey(), replica.getValue().size(), Math::max);
+                        }
+                    }
+                }
+            }
+
+            List<TopicPartition> included = new ArrayList<>();
+            List<List<Node>> includedReplicas = new ArrayList<>();
+            int slots = 0;
+            Map<TopicPartition, List<Node>> skipped = new LinkedHashMap<>();
+            for (TopicDescription topicDescription : topics) {
+                for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                    TopicPartition topicPartition = new TopicPartition(topicDescription.name(), partitionInfo.partition());
+                    boolean known = !partitionInfo.replicas().isEmpty();
+                    for (Node replica : partitionInfo.replicas()) {
+                        known &= brokerIndex.containsKey(replica.id());
+                    }
+                    if (!known || excluded.contains(topicPartition)) {
+                        skipped.put(topicPartition, partitionInfo.replicas());
+                        continue;
+                    }
+                    included.add(topicPartition);
+                    includedReplicas.add(partitionInfo.replicas());
+                    slots += partitionInfo.replicas().size();
+                }
+            }
+
+            TopicPartition[] partitions = included.toArray(new TopicPartition[0]);
+            long[] sizes = new long[partitions.length];
+            int[] offsets = new int[partitions.length + 1];
+            int[] replicas = new int[slots];
+            int slot = 0;
+            for (int p = 0; p < partitions.length; p++) {
+                sizes[p] = replicaSizes.getOrDefault(partitions[p], 0L);
+                offsets[p] = slot;
+                for (Node replica : includedReplicas.get(p)) {
+                    replicas[slot++] = brokerIndex.get(replica.id());
+                }
+            }
+            offsets[partitions.length] = slot;
+            return new Model(brokerIds, partitions, sizes, offsets, replicas, skipped);
+        }
+
+        RebalancePlan plan(RebalanceOptions options, boolean balanceDisk) {
+            long[] bytesBefore = brokerBytes.clone();
+            int[] leadersBefore = brokerLeaders.clone();
+
+            long bytesMoved = balanceDisk ? balanceDisk(options) : 0;
+            if (options.balanceLeaders()) {
+                balanceLeaders();
+            }
+            return toPlan(bytesBefore, leadersBefore, bytesMoved);
+        }
+
+        /**
+         * Moves every replica off the given brokers, each to the broker with the least data that does
+         * not host the partition yet, largest partitions first. The other replicas stay where they are.
+         *
+         * @throws IllegalStateException if a partition has more replicas than there are brokers left, or
+         * if a partition left out of the model has a replica on the given brokers
+         */
+        RebalancePlan drainPlan(Set<Integer> drainedBrokerIds) {
+            List<TopicPartition> unmovable = new ArrayList<>();
+            skipped.forEach((topicPartition, partitionReplicas) -> {
+                if (partitionReplicas.stream().anyMatch(replica -> drainedBrokerIds.contains(replica.id()))) {
+                    unmovable.add(topicPartition);
+                }
+            });
+            if (!unmovable.isEmpty()) {
+                throw new IllegalStateException(String.format(
+                        "Cannot move the replicas of %s off brokers %s, they are being reassigned or have replicas on unknown brokers",
+                        unmovable, drainedBrokerIds));
+            }
+
+            long[] bytesBefore = brokerBytes.clone();
+            int[] leadersBefore = brokerLeaders.clone();
+
+            boolean[] drained = new boolean[brokerIds.length];
+            for (int b = 0; b < brokerIds.length; b++) {
+                drained[b] = drainedBrokerIds.contains(brokerIds[b]);
+            }
+            long bytesMoved = 0;
+            for (int p : partitionsBySizeDescending(sizes)) {
+                for (int r = offsets[p]; r < offsets[p + 1]; r++) {
+                    if (!drained[replicas[r]]) {
+                        continue;
+                    }
+                    int dst = -1;
+                    for (int b = 0; b < brokerIds.length; b++) {
+                        if (!drained[b] && !hosts(p, b) && (dst < 0 || brokerBytes[b] < brokerBytes[dst])) {
+                            dst = b;
+                        }
+                    }
+                    if (dst < 0) {
+                        throw new IllegalStateException(String.format("Not enough brokers left to hold the %d replicas of %s",
+                                offsets[p + 1] - offsets[p], partitions[p]));
+                    }
+                    moveSlot(r, dst);
+                    bytesMoved += sizes[p];
+                }
+            }
+            return toPlan(bytesBefore, leadersBefore, bytesMoved);
+        }
+
+        private RebalancePlan toPlan(long[] bytesBefore, int[] leadersBefore, long bytesMoved) {
+            Map<TopicPartition, List<Integer>> reassignments = new LinkedHashMap<>();
+            Set<TopicPartition> leaderChanges = new HashSet<>();
+            int replicaMoves = 0;
+            for (int p = 0; p < partitions.length; p++) {
+                boolean changed = false;
+                for (int r = offsets[p]; r < offsets[p + 1]; r++) {
+                    changed |= replicas[r] != original[r];
+                    if (movedSlot[r]) {
+                        replicaMoves++;
+                    }
+                }
+                if (!changed) {
+                    continue;
+                }
+                List<Integer> target = new ArrayList<>(offsets[p + 1] - offsets[p]);
+                for (int r = offsets[p]; r < offsets[p + 1]; r++) {
+                    target.add(brokerIds[replicas[r]]);
+                }
+                reassignments.put(partitions[p], target);
+                if (replicas[offsets[p]] != original[offsets[p]]) {
+                    leaderChanges.add(partitions[p]);
+                }
+            }
+
+            long planningMs = (System.nanoTime() - loadStartNs) / 1_000_000;
+            return new RebalancePlan(reassignments, leaderChanges, replicaMoves, bytesMoved, skipped.size(),
+                    brokerIds, bytesBefore, brokerBytes.clone(), leadersBefore, brokerLeaders.clone(), planningMs);
+        }
+
+        /**
+         * Moves replicas from the fullest brokers to the emptiest ones until every broker is
+         * within the tolerance of the mean, no move narrows a gap any more, or a limit is hit.
+         *
+         * @return the total size of the moved replicas
+         */
+        long balanceDisk(RebalanceOptions options) {
+            int brokerCount = brokerIds.length;
+            if (brokerCount < 2) {
+                return 0;
+            }
+
+            // Group the slots by broker, largest partitions first
+            int[] order = partitionsBySizeDescending(sizes);
+            int[] brokerOffsets = new int[brokerCount + 1];
+            for (int replica : replicas) {
+                brokerOffsets[replica + 1]++;
+            }
+            for (int b = 0; b < brokerCount; b++) {
+                brokerOffsets[b + 1] += brokerOffsets[b];
+            }
+            int[] candidates = new int[replicas.length];
+            int[] cursor = brokerOffsets.clone();
+            for (int p : order) {
+                for (int r = offsets[p]; r < offsets[p + 1]; r++) {
+                    candidates[cursor[replicas[r]]++] = r;
+                }
+            }
+            Candidates live = new Candidates(candidates);
+
+            long totalBytes = 0;
+            for (long bytes : brokerBytes) {
+                totalBytes += bytes;
+            }
+            long mean = totalBytes / brokerCount;
+            long upper = mean + (long) (mean * options.diskTolerance());
+            long lower = mean - (long) (mean * options.diskTolerance());
+
+            boolean[] exhausted = new boolean[brokerCount];
+            int[] brokersByBytes = new int[brokerCount];
+            long bytesMoved = 0;
+            int moves = 0;
+            while (options.maxMoves() == 0 || moves < options.maxMoves()) {
+                int src = -1;
+                for (int b = 0; b < brokerCount; b++) {
+                    if (!exhausted[b] && (src < 0 || brokerBytes[b] > brokerBytes[src])) {
+                        src = b;
+                    }
+                }
+                sortBrokersByBytes(brokersByBytes);
+                if (src < 0 || brokerBytes[src] <= upper && brokerBytes[brokersByBytes[0]] >= lower) {
+                    break;
+                }
+
+                long budget = options.maxBytesMoved() == 0 ? Long.MAX_VALUE : options.maxBytesMoved() - bytesMoved;
+                int slot = -1;
+                int dst = -1;
+                for (int candidate : brokersByBytes) {
+                    if (brokerBytes[candidate] >= brokerBytes[src]) {
+                        break;
+                    }
+                    long gap = brokerBytes[src] - brokerBytes[candidate];
+                    long ideal = Math.min(brokerBytes[src] - mean, mean - brokerBytes[candidate]);
+                    slot = pickSlot(live, brokerOffsets[src], brokerOffsets[src + 1], src, candidate,
+                            ideal > 0 ? ideal : gap / 2, Math.min(gap - 1, budget));
+                    if (slot >= 0) {
+                        dst = candidate;
+                        break;
+                    }
+                }
+                if (slot < 0) {
+                    exhausted[src] = true;
+                    continue;
+                }
+
+                moveSlot(slot, dst);
+                live.remove(slot);
+                bytesMoved += sizes[slotPartition[slot]];
+                moves++;
+            }
+            return bytesMoved;
+        }
+
+        /**
+         * Finds the replica on src, among the candidates in [from, to) sorted by size descending, whose
+         * size is closest to ideal without exceeding maxSize, and which can move to dst. Replicas that
+         * already moved are skipped through {@link Candidates}, so the scans around the binary search
+         * only pass over replicas of partitions that dst already hosts.
+         *
+         * @return the slot of the replica, or -1 if none qualifies
+         */
+        private int pickSlot(Candidates live, int from, int to, int src, int dst, long ideal, long maxSize) {
+            int[] candidates = live.slots;
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sizes[slotPartition[candidates[mid]]] > ideal) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            int below = -1;
+            for (int i = live.atOrAfter(low); i < to; i = live.atOrAfter(i + 1)) {
+                int r = candidates[i];
+                long size = sizes[slotPartition[r]];
+                if (size == 0) {
+                    break;
+                }
+                if (size <= maxSize && canMove(r, src, dst)) {
+                    below = r;
+                    break;
+                }
+            }
+            int above = -1;
+            for (int i = live.atOrBefore(low - 1); i >= from; i = live.atOrBefore(i - 1)) {
+                int r = candidates[i];
+                if (sizes[slotPartition[r]] > maxSize) {
+                    break;
+                }
+                if (canMove(r, src, dst)) {
+                    above = r;
+                    break;
+                }
+            }
+
+            if (above < 0) {
+                return below;
+            }
+            if (below < 0) {
+                return above;
+            }
+            return sizes[slotPartition[above]] - ideal < ideal - sizes[slotPartition[below]] ? above : below;
+        }
+
+        private boolean canMove(int slot, int src, int dst) {
+            return !movedSlot[slot] && replicas[slot] == src && !hosts(slotPartition[slot], dst);
+        }
+
+        private boolean hosts(int p, int broker) {
+            for (int r = offsets[p]; r < offsets[p + 1]; r++) {
+                if (replicas[r] == broker) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void moveSlot(int slot, int dst) {
+            int p = slotPartition[slot];
+            int src = replicas[slot];
+            replicas[slot] = dst;
+            movedSlot[slot] = true;
+            brokerBytes[src] -= sizes[p];
+            brokerBytes[dst] += sizes[p];
+            if (slot == offsets[p]) {
+                brokerLeaders[src]--;
+                brokerLeaders[dst]++;
+            }
+        }
+
+        /**
+         * Hands preferred leadership of partitions whose leader has more than its share to the
+         * replica on the broker with the fewest leaders, by swapping it to the front.
+         */
+        void balanceLeaders() {
+            int brokerCount = brokerIds.length;
+            if (brokerCount < 2 || partitions.length == 0) {
+                return;
+            }
+            int share = (partitions.length + brokerCount - 1) / brokerCount;
+            boolean changed = true;
+            for (int pass = 0; pass < 3 && changed; pass++) {
+                changed = false;
+                for (int p = 0; p < partitions.length; p++) {
+                    int leaderSlot = offsets[p];
+                    int leader = replicas[leaderSlot];
+                    if (brokerLeaders[leader] <= share) {
+                        continue;
+                    }
+                    int best = -1;
+                    for (int r = leaderSlot + 1; r < offsets[p + 1]; r++) {
+                        int broker = replicas[r];
+                        if (brokerLeaders[broker] + 1 < brokerLeaders[leader]
+                                && (best < 0 || brokerLeaders[broker] < brokerLeaders[replicas[best]])) {
+                            best = r;
+                        }
+                    }
+                    if (best < 0) {
+                        continue;
+                    }
+                    int newLeader = replicas[best];
+                    replicas[best] = leader;
+                    replicas[leaderSlot] = newLeader;
+                    boolean moved = movedSlot[best];
+                    movedSlot[best] = movedSlot[leaderSlot];
+                    movedSlot[leaderSlot] = moved;
+                    brokerLeaders[leader]--;
+                    brokerLeaders[newLeader]++;
+                    changed = true;
+                }
+            }
+        }
+
+        private void sortBrokersByBytes(int[] brokersByBytes) {
+            // Insertion sort, as there are few brokers
+            for (int b = 0; b < brokersByBytes.length; b++) {
+                int i = b;
+                while (i > 0 && brokerBytes[brokersByBytes[i - 1]] > brokerBytes[b]) {
+                    brokersByBytes[i] = brokersByBytes[i - 1];
+                    i--;
+                }
+                brokersByBytes[i] = b;
+            }
+        }
+
+        private static int[] partitionsBySizeDescending(long[] sizes) {
+            // Bottom-up merge sort of the partition indices
+            int n = sizes.length;
+            int[] order = new int[n];
+            int[] buffer = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            for (int width = 1; width < n; width *= 2) {
+                for (int low = 0; low < n - width; low += 2 * width) {
+                    int mid = low + width;
+                    int high = Math.min(low + 2 * width, n);
+                    int i = low;
+                    int j = mid;
+                    int k = low;
+                    while (i < mid && j < high) {
+                        buffer[k++] = sizes[order[j]] > sizes[order[i]] ? order[j++] : order[i++];
+                    }
+                    while (i < mid) {
+                        buffer[k++] = order[i++];
+                    }
+                    while (j < high) {
+                        buffer[k++] = order[j++];
+                    }
+                    System.arraycopy(buffer, low, order, low, high - low);
+                }
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package kafka.adminclient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Feed of cluster state changes. While a cluster has subscribers, a single poll every
+ * kafka.admin.watch.intervalMs (default 5000) describes it through {@link KafkaMetadataCache},
+ * diffs the result against the previous {@link ClusterSnapshot}, and pushes the changes to every
+ * subscriber, serialized once. New subscribers first receive a summary of the cluster, then only
+ * the changes.
+ */
+public class KafkaClusterWatcher {
+    private static final Logger log = LoggerFactory.getLogger(KafkaClusterWatcher.class);
+
+    public static final long POLL_INTERVAL_MS = Long.getLong("kafka.admin.watch.intervalMs", 5_000);
+
+    private static final TopicQuery ALL_INCLUDING_INTERNAL = new TopicQuery(null, null, true, null, 0, TopicQuery.DEFAULT_CHUNK_SIZE);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Receives the events of a cluster. Calls are made from the watcher thread, one at a time.
+     */
+    public interface Subscriber {
+        /**
+         * @param event "snapshot" for the summary sent first, "changes" afterwards
+         * @param seq   the number of the poll the event was computed from
+         * @param json  the serialized event
+         */
+        void send(String event, long seq, String json) throws Exception;
+
+        /**
+         * Called on polls without changes, so that closed connections are noticed.
+         */
+        void keepAlive() throws Exception;
+
+        /**
+         * Called when the feed ends because the cluster was replaced or removed.
+         */
+        default void close() {}
+    }
+
+    private static final class Subscription {
+        final Subscriber subscriber;
+        volatile boolean primed;
+
+        Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+
+    private static final class Feed {
+        final AdminClient adminClient;
+        final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        ScheduledFuture<?> task;
+        ClusterSnapshot snapshot;
+        long seq;
+        boolean polling;
+
+        Feed(AdminClient adminClient) {
+            this.adminClient = adminClient;
+        }
+    }
+
+    private static final Map<AdminClient, Feed> feeds = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Subscribes to the changes of a cluster, starting its poll if this is the first subscriber.
+     *
+     * @param adminClient the Kafka AdminClient instance of the cluster
+     * @param subscriber  the receiver of the events
+     * @return a callback that cancels the subscription, stopping the poll after the last one.
+     */
+    public static Runnable subscribe(AdminClient adminClient, Subscriber subscriber) {
+        Subscription subscription = new Subscription(subscriber);
+        synchronized (feeds) {
+            Feed feed = feeds.computeIfAbsent(adminClient, Feed::new);
+            feed.subscriptions.add(subscription);
+            if (feed.task == null) {
+                feed.task = poller.scheduleWithFixedDelay(() -> poll(feed), 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+        return () -> unsubscribe(adminClient, subscription);
+    }
+
+    private static void unsubscribe(AdminClient adminClient, Subscription subscription) {
+        synchronized (feeds) {
+            Feed feed = feeds.get(adminClient);
+            if (feed != null && feed.subscriptions.remove(subscription) && feed.subscriptions.isEmpty()) {
+                feed.task.cancel(false);
+                feeds.remove(adminClient);
+            }
+        }
+    }
+
+    /**
+     * Ends the feed of a cluster whose AdminClient is being closed, closing its subscribers.
+     */
+    public static void close(AdminClient adminClient) {
+        Feed feed;
+        synchronized (feeds) {
+            feed = feeds.remove(adminClient);
+            if (feed == null) {
+                return;
+            }
+            feed.task.cancel(false);
+        }
+        for (Subscription subscription : feed.subscriptions) {
+            subscription.subscriber.close();
+        }
+    }
+
+    /**
+     * @return the number of subscribers across all clusters
+     */
+    public static int subscriberCount() {
+        return feeds.values().stream().mapToInt(feed -> feed.subscriptions.size()).sum();
+    }
+
+    private static void poll(Feed feed) {
+        // Skip the tick if the previous describe is still running
+        if (feed.polling) {
+            return;
+        }
+        feed.polling = true;
+        CompletableFuture<ClusterMetadata> cluster = KafkaMetadataCache.describeCluster(feed.adminClient).future();
+        CompletableFuture<TopicPage> topics = KafkaMetadataCache.describeTopics(feed.adminClient, ALL_INCLUDING_INTERNAL).future();
+        cluster.thenCombine(topics, (clusterMetadata, page) -> ClusterSnapshot.of(clusterMetadata, page.topics().values()))
+                .whenCompleteAsync((snapshot, error) -> {
+                    feed.polling = false;
+                    if (error != null) {
+                        log.warn("Failed to describe the cluster for the change feed", KafkaAdminClientUtils.unwrap(error));
+                        return;
+                    }
+                    publish(feed, snapshot);
+                }, poller);
+    }
+
+    private static void publish(Feed feed, ClusterSnapshot snapshot) {
+        ClusterSnapshot previous = feed.snapshot;
+        feed.snapshot = snapshot;
+        long seq = ++feed.seq;
+        long timestamp = System.currentTimeMillis();
+
+        String changes = null;
+        if (previous != null) {
+            ObjectNode json = objectMapper.createObjectNode();
+            json.put("seq", seq);
+            json.put("timestamp", timestamp);
+            ArrayNode events = json.putArray("events");
+            snapshot.diff(previous, events);
+            changes = events.isEmpty() ? null : json.toString();
+        }
+        String summary = null;
+
+        for (Subscription subscription : feed.subscriptions) {
+            try {
+                if (!subscription.primed) {
+                    if (summary == null) {
+                        ObjectNode json = objectMapper.createObjectNode();
+                        json.put("seq", seq);
+                        json.put("timestamp", timestamp);
+                        snapshot.summarize(json);
+                        summary = json.toString();
+                    }
+                    subscription.subscriber.send("snapshot", seq, summary);
+                    subscription.primed = true;
+                } else if (changes != null) {
+                    subscription.subscriber.send("changes", seq, changes);
+                } else {
+                    subscription.subscriber.keepAlive();
+                }
+            } catch (Exception e) {
+                log.debug("Dropping change feed subscriber", e);
+                unsubscribe(feed.adminClient, subscription);
+            }
+        }
+    }
+}
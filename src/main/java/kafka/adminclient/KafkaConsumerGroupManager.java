@@ -0,0 +1,164 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+public class KafkaConsumerGroupManager {
+    /**
+     * Retrieves the lag of consumer groups per partition, per topic and per group, and the total lag
+     * of every topic across the groups. Served from {@link KafkaMetadataCache}.
+     *
+     * @param adminClient       the Kafka AdminClient instance
+     * @param groupIds          the groups to report, or an empty set for every group of the cluster
+     * @param includePartitions whether to report the offsets and lag of every partition, or only the totals of each topic
+     * @return a JSON node containing the lag of the groups, or the error message.
+     */
+    public static CompletableFuture<JsonNode> describeLag(AdminClient adminClient, Set<String> groupIds, boolean includePartitions) {
+        long startNs = System.nanoTime();
+        KafkaMetadataCache.Lookup<ConsumerLag> lookup = KafkaMetadataCache.consumerLag(adminClient, groupIds);
+        return lookup.future().handle((consumerLag, error) -> {
+                    if (error != null) {
+                        KafkaAdminMetrics.CONSUMER_LAG.record(startNs, error);
+                        return KafkaAdminClientUtils.wrapError(error);
+                    }
+                    KafkaAdminMetrics.CONSUMER_LAG.recordPartitions(consumerLag.partitionCount());
+                    long formatStartNs = System.nanoTime();
+                    JsonNode json = KafkaAdminClientUtils.addCacheInfo(
+                            KafkaAdminClientUtils.formatConsumerLag(consumerLag, includePartitions), lookup);
+                    KafkaAdminMetrics.CONSUMER_LAG.recordFormatting(formatStartNs);
+                    KafkaAdminMetrics.CONSUMER_LAG.record(startNs);
+                    return json;
+                })
+                .exceptionally(KafkaAdminClientUtils::wrapError);
+    }
+
+    /**
+     * Lists the consumer groups, fetches the committed offsets of all of them in a single
+     * listConsumerGroupOffsets call, then the end offsets of every partition they commit to in a
+     * single listOffsets call. The AdminClient splits both calls by group coordinator and by
+     * partition leader, so the load takes three rounds of requests whatever the number of groups.
+     */
+    static CompletableFuture<ConsumerLag> loadLag(AdminClient adminClient, Set<String> groupIds) {
+        // valid() skips the brokers that failed to list their groups instead of failing the whole load
+        long listStartNs = System.nanoTime();
+        return adminClient.listConsumerGroups().valid().toCompletionStage().toCompletableFuture().thenCompose(listings -> {
+            KafkaAdminMetrics.LIST_CONSUMER_GROUPS_CALL.record(listStartNs);
+            Map<String, String> states = new TreeMap<>();
+            Map<String, String> errors = new TreeMap<>();
+            for (ConsumerGroupListing listing : listings) {
+                if (groupIds.isEmpty() || groupIds.contains(listing.groupId())) {
+                    states.put(listing.groupId(), listing.state().map(Object::toString).orElse("Unknown"));
+                }
+            }
+            for (String groupId : groupIds) {
+                if (!states.containsKey(groupId)) {
+                    errors.put(groupId, String.format("No consumer group named %s", groupId));
+                }
+            }
+            if (states.isEmpty()) {
+                return CompletableFuture.completedFuture(new ConsumerLag(states, Map.of(), Map.of(), errors));
+            }
+            return fetchCommittedOffsets(adminClient, states.keySet(), errors).thenCompose(committed ->
+                    fetchEndOffsets(adminClient, committed.values()).thenApply(endOffsets ->
+                            new ConsumerLag(states, committed, endOffsets, errors)));
+        });
+    }
+
+    /**
+     * @return the committed offset of every partition of each group, without the groups whose offsets
+     * could not be fetched, which are added to errors instead.
+     */
+    private static CompletableFuture<Map<String, Map<TopicPartition, Long>>> fetchCommittedOffsets(
+            AdminClient adminClient, Collection<String> groupIds, Map<String, String> errors) {
+        Map<String, ListConsumerGroupOffsetsSpec> specs = new HashMap<>();
+        for (String groupId : groupIds) {
+            specs.put(groupId, new ListConsumerGroupOffsetsSpec());
+        }
+        long callStartNs = System.nanoTime();
+        ListConsumerGroupOffsetsResult result = adminClient.listConsumerGroupOffsets(specs);
+
+        Map<String, Map<TopicPartition, Long>> committed = new TreeMap<>();
+        List<CompletableFuture<?>> outcomes = new ArrayList<>(groupIds.size());
+        for (String groupId : groupIds) {
+            outcomes.add(result.partitionsToOffsetAndMetadata(groupId).toCompletionStage().toCompletableFuture().handle((offsets, error) -> {
+                Map<TopicPartition, Long> groupOffsets = new HashMap<>();
+                if (error == null) {
+                    for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : offsets.entrySet()) {
+                        // Partitions without a committed offset are reported as null
+                        if (entry.getValue() != null) {
+                            groupOffsets.put(entry.getKey(), entry.getValue().offset());
+                        }
+                    }
+                }
+                synchronized (committed) {
+                    if (error == null) {
+                        committed.put(groupId, groupOffsets);
+                    } else {
+                        errors.put(groupId, KafkaAdminClientUtils.unwrap(error).getMessage());
+                    }
+                }
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            KafkaAdminMetrics.LIST_CONSUMER_GROUP_OFFSETS_CALL.record(callStartNs);
+            synchronized (committed) {
+                return committed;
+            }
+        });
+    }
+
+    /**
+     * Lists the latest offset of every partition the groups commit to, each partition once however
+     * many groups consume it.
+     *
+     * @return the end offset of each partition, without those whose offsets could not be listed.
+     */
+    private static CompletableFuture<Map<TopicPartition, Long>> fetchEndOffsets(AdminClient adminClient,
+                                                                                Collection<Map<TopicPartition, Long>> committed) {
+        Set<TopicPartition> partitions = new HashSet<>();
+        committed.forEach(offsets -> partitions.addAll(offsets.keySet()));
+        if (partitions.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            request.put(partition, OffsetSpec.latest());
+        }
+        long callStartNs = System.nanoTime();
+        ListOffsetsResult result = adminClient.listOffsets(request);
+        return result.all().toCompletionStage().toCompletableFuture().handle((offsets, error) -> {
+            KafkaAdminMetrics.LIST_OFFSETS_CALL.record(callStartNs);
+            Map<TopicPartition, Long> endOffsets = new HashMap<>();
+            if (error == null) {
+                offsets.forEach((partition, info) -> endOffsets.put(partition, info.offset()));
+                return endOffsets;
+            }
+            // all() fails once every partition is done if any of them failed, e.g. for a deleted topic
+            for (TopicPartition partition : partitions) {
+                ListOffsetsResult.ListOffsetsResultInfo info = KafkaAdminClientUtils.completedValue(result.partitionResult(partition));
+                if (info != null) {
+                    endOffsets.put(partition, info.offset());
+                }
+            }
+            return endOffsets;
+        });
+    }
+}
@@ -0,0 +1,444 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AlterReplicaLogDirsResult;
+import org.apache.kafka.clients.admin.DescribeReplicaLogDirsResult;
+import org.apache.kafka.clients.admin.DescribeReplicaLogDirsResult.ReplicaLogDirInfo;
+import org.apache.kafka.clients.admin.LogDirDescription;
+import org.apache.kafka.clients.admin.ReplicaInfo;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionReplica;
+import org.apache.kafka.common.config.ConfigResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Balances the log dirs of JBOD brokers. Moving a replica between brokers does nothing for a full
+ * disk next to an empty one on the same broker, so the balancer plans moves within each broker from
+ * the usage describeLogDirs reports, and executes them as background jobs with alterReplicaLogDirs.
+ * A single poller thread tracks every running job with describeReplicaLogDirs, without waiting on the
+ * brokers, and keeps at most maxMovesPerBroker copies running on each broker since they all compete
+ * for the same disks. IO throttles are set through {@link ThrottleConfigs}, so concurrent jobs on a
+ * broker keep it throttled until the last of them ends, which then restores whatever throttle an
+ * operator had set before.
+ */
+public class KafkaLogDirBalancer {
+    private static final Logger log = LoggerFactory.getLogger(KafkaLogDirBalancer.class);
+
+    static final long POLL_INTERVAL_MS = KafkaReassignmentJobManager.POLL_INTERVAL_MS;
+    static final long REQUEST_TIMEOUT_MS = KafkaReassignmentJobManager.REQUEST_TIMEOUT_MS;
+    static final long JOB_RETENTION_MS = KafkaReassignmentJobManager.JOB_RETENTION_MS;
+
+    private static final String IO_THROTTLED_RATE = "replica.alter.log.dirs.io.max.bytes.per.second";
+
+    private static final Map<String, LogDirJob> jobs = new ConcurrentHashMap<>();
+    // Jobs whose previous poll has not been applied yet
+    private static final Set<LogDirJob> polling = ConcurrentHashMap.newKeySet();
+    private static final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-dir-balancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        poller.scheduleWithFixedDelay(KafkaLogDirBalancer::pollJobs, POLL_INTERVAL_MS, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Computes the moves that even out the usage of the log dirs of every broker.
+     *
+     * @param adminClient the Kafka AdminClient instance
+     * @param options     the goals and limits of the plan
+     * @return the plan.
+     */
+    public static CompletableFuture<LogDirPlan> plan(AdminClient adminClient, LogDirBalanceOptions options) {
+        return KafkaMetadataCache.describeCluster(adminClient).future().thenCompose(cluster -> {
+            List<Integer> brokerIds = new ArrayList<>();
+            for (Node node : cluster.nodes()) {
+                brokerIds.add(node.id());
+            }
+            // Planning is CPU bound, keep it off the AdminClient's network thread
+            long callStartNs = System.nanoTime();
+            return adminClient.describeLogDirs(brokerIds).allDescriptions().toCompletionStage().toCompletableFuture()
+                    .thenApplyAsync(logDirs -> {
+                        KafkaAdminMetrics.DESCRIBE_LOG_DIRS_CALL.record(callStartNs);
+                        return planMoves(logDirs, options);
+                    });
+        });
+    }
+
+    /**
+     * Plans every broker on its own, most imbalanced first so that maxMoves and maxBytesMoved go to
+     * the brokers that need them most.
+     */
+    static LogDirPlan planMoves(Map<Integer, Map<String, LogDirDescription>> logDirs, LogDirBalanceOptions options) {
+        long startNs = System.nanoTime();
+        List<BrokerDirs> brokers = new ArrayList<>();
+        for (Map.Entry<Integer, Map<String, LogDirDescription>> broker : logDirs.entrySet()) {
+            brokers.add(new BrokerDirs(broker.getKey(), broker.getValue()));
+        }
+        brokers.sort(Comparator.comparingDouble(BrokerDirs::imbalance).reversed().thenComparingInt(broker -> broker.brokerId));
+
+        List<LogDirPlan.Move> moves = new ArrayList<>();
+        long[] bytesMoved = {0};
+        for (BrokerDirs broker : brokers) {
+            broker.plan(options, moves, bytesMoved);
+        }
+
+        List<LogDirPlan.Dir> dirs = new ArrayList<>();
+        brokers.sort(Comparator.comparingInt(broker -> broker.brokerId));
+        for (BrokerDirs broker : brokers) {
+            broker.describe(dirs);
+        }
+        return new LogDirPlan(moves, bytesMoved[0], dirs, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs));
+    }
+
+    /**
+     * The online log dirs of a broker and the replicas that can move between them. The load of a dir
+     * is the fraction of its capacity in use when the broker reports the capacity of every dir, and
+     * its bytes in use otherwise.
+     */
+    private static final class BrokerDirs {
+        record Candidate(TopicPartition topicPartition, long size, int seq) {}
+
+        private static final Comparator<Candidate> BY_SIZE = Comparator.comparingLong(Candidate::size).thenComparingInt(Candidate::seq);
+
+        final int brokerId;
+        final Map<String, LogDirDescription> descriptions;
+        final List<String> paths = new ArrayList<>();
+        final long[] before;
+        final long[] used;
+        final double[] capacity;
+        final List<TreeSet<Candidate>> candidates = new ArrayList<>();
+
+        BrokerDirs(int brokerId, Map<String, LogDirDescription> descriptions) {
+            this.brokerId = brokerId;
+            this.descriptions = new TreeMap<>(descriptions);
+            boolean capacityKnown = true;
+            for (Map.Entry<String, LogDirDescription> dir : this.descriptions.entrySet()) {
+                if (dir.getValue().error() == null) {
+                    paths.add(dir.getKey());
+                    capacityKnown &= dir.getValue().totalBytes().isPresent();
+                }
+            }
+
+            // A partition with a future replica is already moving between dirs and must stay put
+            Set<TopicPartition> moving = new HashSet<>();
+            for (String path : paths) {
+                for (Map.Entry<TopicPartition, ReplicaInfo> replica : this.descriptions.get(path).replicaInfos().entrySet()) {
+                    if (replica.getValue().isFuture()) {
+                        moving.add(replica.getKey());
+                    }
+                }
+            }
+
+            before = new long[paths.size()];
+            used = new long[paths.size()];
+            capacity = new double[paths.size()];
+            int seq = 0;
+            for (int i = 0; i < paths.size(); i++) {
+                LogDirDescription description = this.descriptions.get(paths.get(i));
+                capacity[i] = capacityKnown ? Math.max(1, description.totalBytes().getAsLong()) : 1;
+                TreeSet<Candidate> dirCandidates = new TreeSet<>(BY_SIZE);
+                for (Map.Entry<TopicPartition, ReplicaInfo> replica : description.replicaInfos().entrySet()) {
+                    used[i] += replica.getValue().size();
+                    if (!moving.contains(replica.getKey())) {
+                        dirCandidates.add(new Candidate(replica.getKey(), replica.getValue().size(), seq++));
+                    }
+                }
+                if (capacityKnown && description.usableBytes().isPresent()) {
+                    // Count what the dir holds besides replicas, such as other files on a shared disk
+                    used[i] = Math.max(used[i], description.totalBytes().getAsLong() - description.usableBytes().getAsLong());
+                }
+                before[i] = used[i];
+                candidates.add(dirCandidates);
+            }
+        }
+
+        double load(int dir) {
+            return used[dir] / capacity[dir];
+        }
+
+        double meanLoad() {
+            long totalUsed = 0;
+            double totalCapacity = 0;
+            for (int i = 0; i < used.length; i++) {
+                totalUsed += used[i];
+                totalCapacity += capacity[i];
+            }
+            return totalCapacity == 0 ? 0 : totalUsed / totalCapacity;
+        }
+
+        /**
+         * @return the gap between the most and least loaded dirs, as a fraction of the mean load.
+         */
+        double imbalance() {
+            double mean = meanLoad();
+            if (used.length < 2 || mean == 0) {
+                return 0;
+            }
+            double min = Double.MAX_VALUE;
+            double max = 0;
+            for (int i = 0; i < used.length; i++) {
+                min = Math.min(min, load(i));
+                max = Math.max(max, load(i));
+            }
+            return (max - min) / mean;
+        }
+
+        /**
+         * Repeatedly moves the largest replica of the most loaded dir that does not overshoot the
+         * least loaded one, until the gap between them is within the tolerance or no replica fits.
+         * Every move strictly narrows the gap, and each replica moves at most once.
+         */
+        void plan(LogDirBalanceOptions options, List<LogDirPlan.Move> moves, long[] bytesMoved) {
+            while (used.length >= 2 && imbalance() > options.diskTolerance()) {
+                if (options.maxMoves() > 0 && moves.size() >= options.maxMoves()) {
+                    return;
+                }
+                int hi = 0;
+                int lo = 0;
+                for (int i = 1; i < used.length; i++) {
+                    if (load(i) > load(hi)) {
+                        hi = i;
+                    }
+                    if (load(i) < load(lo)) {
+                        lo = i;
+                    }
+                }
+                // The bytes that would leave both dirs equally loaded
+                double transfer = (used[hi] * capacity[lo] - used[lo] * capacity[hi]) / (capacity[hi] + capacity[lo]);
+                long limit = (long) transfer;
+                if (options.maxBytesMoved() > 0) {
+                    limit = Math.min(limit, options.maxBytesMoved() - bytesMoved[0]);
+                }
+                Candidate candidate = candidates.get(hi).floor(new Candidate(null, limit, Integer.MAX_VALUE));
+                if (candidate == null || candidate.size() == 0) {
+                    return;
+                }
+                candidates.get(hi).remove(candidate);
+                used[hi] -= candidate.size();
+                used[lo] += candidate.size();
+                bytesMoved[0] += candidate.size();
+                TopicPartition topicPartition = candidate.topicPartition();
+                moves.add(new LogDirPlan.Move(new TopicPartitionReplica(topicPartition.topic(), topicPartition.partition(), brokerId),
+                        paths.get(hi), paths.get(lo), candidate.size()));
+            }
+        }
+
+        void describe(List<LogDirPlan.Dir> dirs) {
+            for (Map.Entry<String, LogDirDescription> dir : descriptions.entrySet()) {
+                LogDirDescription description = dir.getValue();
+                long totalBytes = description.totalBytes().orElse(-1);
+                int i = paths.indexOf(dir.getKey());
+                if (i < 0) {
+                    dirs.add(new LogDirPlan.Dir(brokerId, dir.getKey(), totalBytes, 0, 0, description.error().getMessage()));
+                } else {
+                    dirs.add(new LogDirPlan.Dir(brokerId, dir.getKey(), totalBytes, before[i], used[i], null));
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a job executing the plan and returns right away. When ioRateBytes is set, the
+     * brokers of the moves are throttled until the job ends.
+     *
+     * @param adminClient the Kafka AdminClient instance
+     * @param plan        the moves to execute
+     * @param options     the limits to execute the moves with
+     * @return the ID of the new job, or null if the plan has nothing to move.
+     */
+    public static String submitJob(AdminClient adminClient, LogDirPlan plan, LogDirBalanceOptions options) {
+        if (plan.moves().isEmpty()) {
+            return null;
+        }
+        LogDirJob job = new LogDirJob(UUID.randomUUID().toString(), adminClient, plan.moves(), options.maxMovesPerBroker(), options.ioRateBytes());
+        jobs.put(job.id, job);
+
+        CompletionStage<Void> throttled = options.ioRateBytes() > 0
+                ? ThrottleConfigs.acquire(adminClient, throttleConfigs(job)).thenRun(job::throttleApplied)
+                : CompletableFuture.completedFuture(null);
+        throttled.whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                job.fail(error);
+                return;
+            }
+            submitNextMoves(job);
+            cleanUpIfEnded(job);
+        }, poller);
+        return job.id;
+    }
+
+    /**
+     * Retrieves the progress of a job as a JSON node.
+     *
+     * @param jobId the ID returned when the job was submitted
+     * @return the job status, or null if no such job exists.
+     */
+    public static JsonNode describeJob(String jobId) {
+        LogDirJob job = jobs.get(jobId);
+        return job == null ? null : KafkaAdminClientUtils.formatLogDirJob(job.status());
+    }
+
+    /**
+     * Retrieves the progress of every known job, newest first.
+     *
+     * @return a JSON node containing the status of all jobs.
+     */
+    public static JsonNode listJobs() {
+        List<LogDirJob.Status> statuses = new ArrayList<>();
+        for (LogDirJob job : jobs.values()) {
+            statuses.add(job.status());
+        }
+        statuses.sort(Comparator.comparingLong(LogDirJob.Status::createdAtMs).reversed());
+        return KafkaAdminClientUtils.formatLogDirJobs(statuses);
+    }
+
+    /**
+     * Cancels a job. Moves that were not submitted yet are dropped, and replicas still being copied
+     * are sent back to their current dir, which makes the broker discard their future replica.
+     *
+     * @param jobId the ID returned when the job was submitted
+     * @return the job status after cancellation, or null if no such job exists.
+     */
+    public static JsonNode cancelJob(String jobId) {
+        LogDirJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        List<LogDirPlan.Move> moving = job.cancel();
+        if (moving != null && !moving.isEmpty()) {
+            Map<TopicPartitionReplica, String> reverts = new HashMap<>();
+            for (LogDirPlan.Move move : moving) {
+                reverts.put(move.replica(), move.sourceDir());
+            }
+            job.adminClient.alterReplicaLogDirs(reverts).values().forEach((replica, future) -> future.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    log.warn("Failed to cancel log dir move of {} for job {}: {}", replica, job.id, error.getMessage());
+                }
+            }));
+        }
+        cleanUpIfEnded(job);
+        return KafkaAdminClientUtils.formatLogDirJob(job.status());
+    }
+
+    /**
+     * @return whether any job submitted through the given AdminClient is still moving replicas
+     */
+    static boolean hasActiveJobs(AdminClient adminClient) {
+        return jobs.values().stream().anyMatch(job -> job.adminClient == adminClient && job.isRunning());
+    }
+
+    private static void submitNextMoves(LogDirJob job) {
+        Map<TopicPartitionReplica, String> next = job.takeNextMoves();
+        if (next.isEmpty()) {
+            return;
+        }
+        long callStartNs = System.nanoTime();
+        AlterReplicaLogDirsResult result = job.adminClient.alterReplicaLogDirs(next);
+        // Off the request path, so the call gets a callback of its own rather than one per replica
+        result.all().whenComplete((ignored, error) -> KafkaAdminMetrics.ALTER_REPLICA_LOG_DIRS_CALL.record(callStartNs));
+        result.values().forEach((replica, future) -> future.whenComplete((ignored, error) -> job.onSubmitted(replica, error)));
+    }
+
+    /**
+     * The log dir IO throttle of every broker the job moves replicas on.
+     */
+    private static Map<ConfigResource, Map<String, String>> throttleConfigs(LogDirJob job) {
+        Map<ConfigResource, Map<String, String>> configs = new HashMap<>();
+        for (int broker : job.brokers) {
+            configs.put(new ConfigResource(ConfigResource.Type.BROKER, Integer.toString(broker)),
+                    Map.of(IO_THROTTLED_RATE, Long.toString(job.ioRateBytes)));
+        }
+        return configs;
+    }
+
+    /**
+     * Cleans up after a job that may have ended: releases the IO throttle it set.
+     */
+    private static void cleanUpIfEnded(LogDirJob job) {
+        if (!job.takeThrottle()) {
+            return;
+        }
+        ThrottleConfigs.release(job.adminClient, throttleConfigs(job)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Failed to remove log dir IO throttle of job {}: {}", job.id, error.getMessage());
+            }
+        });
+    }
+
+    private static void pollJobs() {
+        try {
+            long evictBefore = System.currentTimeMillis() - JOB_RETENTION_MS;
+            jobs.values().removeIf(job -> job.isFinishedBefore(evictBefore));
+            for (LogDirJob job : jobs.values()) {
+                // A job still waiting on its previous poll is skipped, without holding up the others
+                if (job.isRunning() && polling.add(job)) {
+                    pollJob(job);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Log dir job poll failed", e);
+        }
+    }
+
+    /**
+     * Polls the progress of a job without blocking the poller thread, and applies it from the poller
+     * thread once the brokers answer. Replicas whose broker cannot be reached in time are polled again
+     * on the next tick.
+     */
+    private static void pollJob(LogDirJob job) {
+        Set<TopicPartitionReplica> tracked = job.inProgressReplicas();
+        // Only moves the broker acknowledged before the describe was sent must show a future replica
+        Set<TopicPartitionReplica> accepted = job.acceptedReplicas();
+        Map<TopicPartitionReplica, CompletableFuture<ReplicaLogDirInfo>> infos = new HashMap<>();
+        long callStartNs = System.nanoTime();
+        if (!tracked.isEmpty()) {
+            DescribeReplicaLogDirsResult result = job.adminClient.describeReplicaLogDirs(tracked);
+            result.values().forEach((replica, future) -> infos.put(replica, KafkaAdminClientUtils.toCompletableFuture(future)
+                    .completeOnTimeout(null, REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .exceptionally(error -> null)));
+        }
+        CompletableFuture.allOf(infos.values().toArray(new CompletableFuture<?>[0])).whenCompleteAsync((ignored, error) -> {
+            try {
+                if (!tracked.isEmpty()) {
+                    KafkaAdminMetrics.DESCRIBE_REPLICA_LOG_DIRS_CALL.record(callStartNs);
+                }
+                Map<TopicPartitionReplica, ReplicaLogDirInfo> described = new HashMap<>();
+                infos.forEach((replica, info) -> {
+                    if (info.join() != null) {
+                        described.put(replica, info.join());
+                    }
+                });
+                job.update(accepted, described);
+                submitNextMoves(job);
+                job.finishIfDrained();
+                cleanUpIfEnded(job);
+            } catch (RuntimeException e) {
+                log.error("Log dir job poll failed", e);
+            } finally {
+                polling.remove(job);
+            }
+        }, poller);
+    }
+}
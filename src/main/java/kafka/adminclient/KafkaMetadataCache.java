@@ -0,0 +1,173 @@
+package kafka.adminclient;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DescribeClusterResult;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+
+/**
+ * Short-lived cache in front of the describe calls served by {@link KafkaTopicManager}, and of the
+ * consumer lag served by {@link KafkaConsumerGroupManager}.
+ * Entries are keyed by AdminClient instance, so every cluster has its own entries, and hold the
+ * in-flight future so that concurrent identical requests share a single broker round trip.
+ * Failed loads are dropped as soon as they complete. The TTL and size bound are set from the
+ * kafka.admin.cache.ttlMs and kafka.admin.cache.maxEntries properties of the application.
+ */
+public class KafkaMetadataCache {
+    public static final long DEFAULT_TTL_MS = 2_000;
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+
+    private static volatile long ttlMs = DEFAULT_TTL_MS;
+    private static volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    enum Kind { CLUSTER, TOPIC, TOPIC_PAGE, CONSUMER_LAG }
+
+    private record Key(AdminClient adminClient, Kind kind, Object name) {}
+
+    private static final class Entry {
+        final CompletableFuture<?> future;
+        final long loadedAtMs = System.currentTimeMillis();
+        volatile long completedAtMs;
+
+        Entry(CompletableFuture<?> future) {
+            this.future = future;
+        }
+
+        boolean isExpired(long nowMs) {
+            return completedAtMs != 0 && nowMs - completedAtMs > ttlMs;
+        }
+    }
+
+    /**
+     * The result of a cache lookup.
+     *
+     * @param future     the shared future of the cached value
+     * @param hit        whether the value was already cached or being loaded by an earlier request
+     * @param loadedAtMs when the value started loading
+     */
+    public record Lookup<T>(CompletableFuture<T> future, boolean hit, long loadedAtMs) {
+        public long ageMs() {
+            return System.currentTimeMillis() - loadedAtMs;
+        }
+    }
+
+    private static final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Sets how long loaded entries are served and how many are kept. A lower bound takes effect as
+     * soon as the next entry is added.
+     */
+    public static void configure(long ttlMs, int maxEntries) {
+        if (ttlMs < 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "The cache TTL must not be negative and its size must be positive, got %d ms and %d entries", ttlMs, maxEntries));
+        }
+        KafkaMetadataCache.ttlMs = ttlMs;
+        KafkaMetadataCache.maxEntries = maxEntries;
+    }
+
+    public static Lookup<ClusterMetadata> describeCluster(AdminClient adminClient) {
+        return lookup(new Key(adminClient, Kind.CLUSTER, ""), KafkaAdminMetrics.DESCRIBE_CLUSTER_CALL, () -> {
+            DescribeClusterResult result = adminClient.describeCluster();
+            CompletableFuture<String> clusterId = result.clusterId().toCompletionStage().toCompletableFuture();
+            CompletableFuture<Collection<Node>> nodes = result.nodes().toCompletionStage().toCompletableFuture();
+            CompletableFuture<Node> controller = result.controller().toCompletionStage().toCompletableFuture();
+            return CompletableFuture.allOf(clusterId, nodes, controller)
+                    .thenApply(ignored -> new ClusterMetadata(clusterId.join(), nodes.join(), controller.join()));
+        });
+    }
+
+    public static Lookup<TopicDescription> describeTopic(AdminClient adminClient, String topicName) {
+        return lookup(new Key(adminClient, Kind.TOPIC, topicName), KafkaAdminMetrics.DESCRIBE_TOPICS_CALL, () ->
+                adminClient.describeTopics(Collections.singleton(topicName)).topicNameValues().get(topicName).toCompletionStage().toCompletableFuture());
+    }
+
+    public static Lookup<TopicPage> describeTopics(AdminClient adminClient, TopicQuery query) {
+        return lookup(new Key(adminClient, Kind.TOPIC_PAGE, query), null, () -> KafkaTopicManager.loadTopicPage(adminClient, query));
+    }
+
+    /**
+     * @param groupIds the groups to load the lag of, or an empty set for every group
+     */
+    public static Lookup<ConsumerLag> consumerLag(AdminClient adminClient, Set<String> groupIds) {
+        Set<String> key = Set.copyOf(groupIds);
+        return lookup(new Key(adminClient, Kind.CONSUMER_LAG, key), null, () -> KafkaConsumerGroupManager.loadLag(adminClient, key));
+    }
+
+    /**
+     * Drops the cached description of the given topics and every cached topic page of the cluster.
+     */
+    public static void invalidateTopics(AdminClient adminClient, Collection<String> topicNames) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.adminClient() == adminClient
+                    && (key.kind() == Kind.TOPIC_PAGE || key.kind() == Kind.TOPIC && topicNames.contains(key.name())));
+        }
+    }
+
+    /**
+     * Drops the cached description of a cluster, e.g. once brokers are added or removed through Kubernetes.
+     */
+    public static void invalidateCluster(AdminClient adminClient) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.adminClient() == adminClient && key.kind() == Kind.CLUSTER);
+        }
+    }
+
+    /**
+     * Drops every cached entry of a cluster, once its AdminClient is no longer used.
+     */
+    public static void invalidate(AdminClient adminClient) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.adminClient() == adminClient);
+        }
+    }
+
+    /**
+     * @param roundTrip the timer of the Kafka call the loader issues, recorded once it completes, or
+     *                  null if the loader records its own calls
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Lookup<T> lookup(Key key, KafkaAdminMetrics.RoundTrip roundTrip, Supplier<CompletableFuture<T>> loader) {
+        long startNs = System.nanoTime();
+        Entry entry;
+        boolean hit;
+        synchronized (entries) {
+            entry = entries.get(key);
+            hit = entry != null && !entry.isExpired(System.currentTimeMillis());
+            if (!hit) {
+                entry = new Entry(loader.get());
+                entries.put(key, entry);
+            }
+        }
+
+        if (!hit) {
+            Entry loaded = entry;
+            loaded.future.whenComplete((value, error) -> {
+                if (roundTrip != null) {
+                    roundTrip.record(startNs);
+                }
+                if (error != null) {
+                    synchronized (entries) {
+                        entries.remove(key, loaded);
+                    }
+                } else {
+                    loaded.completedAtMs = System.currentTimeMillis();
+                }
+            });
+        }
+        return new Lookup<>((CompletableFuture<T>) entry.future, hit, entry.loadedAtMs);
+    }
+}
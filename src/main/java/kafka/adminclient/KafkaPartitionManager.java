@@ -1,46 +1,185 @@
 package kafka.adminclient;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.kafka.clients.admin.*;
 import org.apache.kafka.common.ElectionType;
+import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.Node;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.errors.ElectionNotNeededException;
 
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 public class KafkaPartitionManager {
+    /**
+     * Default number of partitions submitted per alterPartitionReassignments call.
+     */
+    public static final int DEFAULT_REASSIGNMENT_BATCH_SIZE = 500;
+
     /**
      * Migrates partitions of Kafka topics based on the provided map.
+     * All partitions are submitted up front in chunks of "batchSize" (defaults to
+     * {@link #DEFAULT_REASSIGNMENT_BATCH_SIZE}) and the outcome is reported per partition.
      *
      * @param map         the map containing the reassignment details
      * @param adminClient the Kafka AdminClient instance
-     * @return null if the partitions were successfully migrated, or a JsonNode object containing the error message.
+     * @return a JsonNode object containing the result of every partition in the request.
+     * @throws IllegalArgumentException if a partition is listed twice or batchSize is not a positive integer.
+     */
+    public static CompletableFuture<JsonNode> migratePartitions(Map<String, Object> map, AdminClient adminClient) {
+        long startNs = System.nanoTime();
+        Map<TopicPartition, Optional<NewPartitionReassignment>> reassignmentMap = new LinkedHashMap<>();
+        parseReassignments(map).forEach((topicPartition, replicas) ->
+                reassignmentMap.put(topicPartition, Optional.of(new NewPartitionReassignment(replicas))));
+        KafkaAdminMetrics.MIGRATE_PARTITIONS.recordPartitions(reassignmentMap.size());
+
+        return alterPartitionReassignments(reassignmentMap, batchSize(map), adminClient).thenApply(results -> {
+            KafkaMetadataCache.invalidateTopics(adminClient, topicsOf(reassignmentMap.keySet()));
+            KafkaAdminMetrics.MIGRATE_PARTITIONS.recordErrors(results);
+            long formatStartNs = System.nanoTime();
+            JsonNode json = KafkaAdminClientUtils.formatPartitionResults(results);
+            KafkaAdminMetrics.MIGRATE_PARTITIONS.recordFormatting(formatStartNs);
+            KafkaAdminMetrics.MIGRATE_PARTITIONS.record(startNs);
+            return json;
+        });
+    }
+
+    /**
+     * Submits the same reassignments as {@link #migratePartitions} as a background job.
+     *
+     * @param map         the map containing the reassignment details
+     * @param throttle    the limits to execute the reassignment in waves with, or null to submit it at once
+     * @param adminClient the Kafka AdminClient instance
+     * @return a JsonNode object containing the ID of the job tracking the reassignment.
+     * @throws IllegalArgumentException if a partition is listed twice or batchSize is not a positive integer.
+     */
+    public static JsonNode migratePartitionsAsync(Map<String, Object> map, ReassignmentThrottle throttle, AdminClient adminClient) {
+        long startNs = System.nanoTime();
+        Map<TopicPartition, List<Integer>> reassignments = parseReassignments(map);
+        KafkaAdminMetrics.SUBMIT_REASSIGNMENT_JOB.recordPartitions(reassignments.size());
+        String jobId = KafkaReassignmentJobManager.submitJob("reassign", adminClient,
+                CompletableFuture.completedFuture(reassignments), Set.of(), batchSize(map), throttle);
+        KafkaAdminMetrics.SUBMIT_REASSIGNMENT_JOB.record(startNs);
+        return KafkaAdminClientUtils.formatJobSubmission(jobId);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a partition is listed more than once or has no partition number.
      */
-    public static JsonNode migratePartitions(Map<String, Object> map, AdminClient adminClient) {
-        // sample hashmap "partitions":[{"topic":"quickstart-events","partition":0,"replicas":[1]}]}
-        try {
-            for (Map<String, Object> partition : (List<Map<String, Object>>) map.get("partitions")) {
-                String topicName = (String) partition.get("topic");
-                int partitionNumber = (int) partition.get("partition");
-                List<Integer> replicas = (List<Integer>) partition.get("replicas");
-
-                // Create a reassignment map for the partition
-                Map<TopicPartition, Optional<NewPartitionReassignment>> reassignmentMap = new HashMap<>();
-                reassignmentMap.put(
-                    new TopicPartition(topicName, partitionNumber),
-                    Optional.of(new NewPartitionReassignment(replicas))
-                );
-
-                // Execute the reassignment
-                AlterPartitionReassignmentsResult result = adminClient.alterPartitionReassignments(reassignmentMap);
-                result.all().get(); // Wait for the reassignment to complete
+    private static Map<TopicPartition, List<Integer>> parseReassignments(Map<String, Object> map) {
+        // sample hashmap {"partitions":[{"topic":"quickstart-events","partition":0,"replicas":[1]}],"batchSize":500}
+        Map<TopicPartition, List<Integer>> targets = new LinkedHashMap<>();
+        for (Map<String, Object> partition : (List<Map<String, Object>>) map.get("partitions")) {
+            String topicName = (String) partition.get("topic");
+            Object partitionNumber = partition.get("partition");
+            if (partitionNumber == null) {
+                throw new IllegalArgumentException("Every partition of topic " + topicName + " needs a partition number");
             }
-            return null;
-        } catch (ExecutionException | InterruptedException e) {
-            return KafkaAdminClientUtils.wrapError(e);
+            List<Integer> replicas = (List<Integer>) partition.get("replicas");
+            TopicPartition topicPartition = new TopicPartition(topicName, intValue("partition", partitionNumber));
+            if (targets.put(topicPartition, replicas) != null) {
+                throw new IllegalArgumentException("Partition " + topicPartition + " is listed more than once");
+            }
+        }
+        return targets;
+    }
+
+    static Set<String> topicsOf(Collection<TopicPartition> topicPartitions) {
+        Set<String> topics = new HashSet<>();
+        for (TopicPartition topicPartition : topicPartitions) {
+            topics.add(topicPartition.topic());
         }
+        return topics;
+    }
+
+    /**
+     * @throws IllegalArgumentException if batchSize is not a positive integer.
+     */
+    private static int batchSize(Map<String, Object> map) {
+        Object value = map.get("batchSize");
+        if (value == null) {
+            return DEFAULT_REASSIGNMENT_BATCH_SIZE;
+        }
+        int batchSize = intValue("batchSize", value);
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive, got " + batchSize);
+        }
+        return batchSize;
+    }
+
+    /**
+     * Reads an integer from a request payload, given as a whole JSON number or as a numeric string.
+     */
+    private static int intValue(String field, Object value) {
+        if (value instanceof Integer number) {
+            return number;
+        }
+        if (value instanceof Number number && number.doubleValue() == Math.rint(number.doubleValue())
+                && Math.abs(number.doubleValue()) <= Integer.MAX_VALUE) {
+            return number.intValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Integer.parseInt(text.strip());
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+        }
+        throw new IllegalArgumentException(String.format("%s must be an integer, got %s", field, value));
+    }
+
+    /**
+     * Submits the reassignments in chunks of at most batchSize partitions without waiting for
+     * earlier chunks to be accepted, then collects the outcome of every partition.
+     *
+     * @param reassignments the reassignments to submit
+     * @param batchSize     the maximum number of partitions per alterPartitionReassignments call
+     * @param adminClient   the Kafka AdminClient instance
+     * @return the error of each partition, or an empty Optional if it was accepted by the controller.
+     */
+    static CompletableFuture<Map<TopicPartition, Optional<Throwable>>> alterPartitionReassignments(
+            Map<TopicPartition, Optional<NewPartitionReassignment>> reassignments, int batchSize, AdminClient adminClient) {
+        long callStartNs = System.nanoTime();
+        Map<TopicPartition, KafkaFuture<Void>> futures = submitPartitionReassignments(reassignments, batchSize, adminClient);
+        int calls = (reassignments.size() + batchSize - 1) / batchSize;
+        return KafkaAdminClientUtils.collectResults(reassignments.keySet(), futures,
+                KafkaAdminMetrics.ALTER_PARTITION_REASSIGNMENTS_CALL, callStartNs, calls);
+    }
+
+    /**
+     * Fires every chunk of at most batchSize partitions without waiting for the controller to
+     * accept earlier chunks, so the round trips overlap.
+     *
+     * @return the future of each partition's reassignment.
+     */
+    static Map<TopicPartition, KafkaFuture<Void>> submitPartitionReassignments(
+            Map<TopicPartition, Optional<NewPartitionReassignment>> reassignments, int batchSize, AdminClient adminClient) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive, got " + batchSize);
+        }
+
+        Map<TopicPartition, KafkaFuture<Void>> futures = new HashMap<>();
+        Map<TopicPartition, Optional<NewPartitionReassignment>> chunk = new HashMap<>();
+        for (Map.Entry<TopicPartition, Optional<NewPartitionReassignment>> entry : reassignments.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() == batchSize) {
+                submitChunk(chunk, futures, adminClient);
+                chunk = new HashMap<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            submitChunk(chunk, futures, adminClient);
+        }
+        return futures;
+    }
+
+    private static void submitChunk(Map<TopicPartition, Optional<NewPartitionReassignment>> chunk,
+                                    Map<TopicPartition, KafkaFuture<Void>> futures, AdminClient adminClient) {
+        futures.putAll(adminClient.alterPartitionReassignments(chunk).values());
     }
 
     /**
@@ -51,62 +190,347 @@ public class KafkaPartitionManager {
      * @param adminClient the AdminClient instance used to perform the migration
      * @return null if the partitions were successfully migrated, or a JsonNode object containing the error message.
      */
-    public static JsonNode migrateAllPartitionsFromTopicToBroker(String topicName, int brokerId, AdminClient adminClient) {
-        try {
-            // Fetch the current topic partition information
-            DescribeTopicsResult describeTopicsResult = adminClient.describeTopics(Collections.singletonList(topicName));
-            Map<String, TopicDescription> topicDescriptions = describeTopicsResult.allTopicNames().get();
-            TopicDescription topicDescription = topicDescriptions.get(topicName);
-
-            // Create a reassignment map for all partitions to the new broker
-            Map<TopicPartition, Optional<NewPartitionReassignment>> reassignmentMap = new HashMap<>();
-            for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
-                reassignmentMap.put(
-                    new TopicPartition(topicName, partitionInfo.partition()),
-                    Optional.of(new NewPartitionReassignment(Collections.singletonList(brokerId)))
-                );
-            }
+    public static CompletableFuture<JsonNode> migrateAllPartitionsFromTopicToBroker(String topicName, int brokerId, AdminClient adminClient) {
+        long startNs = System.nanoTime();
+        // Fetch the current topic partition information
+        DescribeTopicsResult describeTopicsResult = adminClient.describeTopics(Collections.singletonList(topicName));
+        return describeTopicsResult.allTopicNames().toCompletionStage().toCompletableFuture()
+                .thenCompose(topicDescriptions -> {
+                    KafkaAdminMetrics.DESCRIBE_TOPICS_CALL.record(startNs);
+                    // Create a reassignment map for all partitions to the new broker
+                    Map<TopicPartition, Optional<NewPartitionReassignment>> reassignmentMap = new HashMap<>();
+                    planMoveAllToBroker(topicDescriptions.get(topicName), brokerId).forEach((topicPartition, replicas) ->
+                            reassignmentMap.put(topicPartition, Optional.of(new NewPartitionReassignment(replicas))));
+                    KafkaAdminMetrics.MIGRATE_ALL_PARTITIONS.recordPartitions(reassignmentMap.size());
+
+                    // Execute the reassignment
+                    long alterStartNs = System.nanoTime();
+                    AlterPartitionReassignmentsResult result = adminClient.alterPartitionReassignments(reassignmentMap);
+                    return result.all().toCompletionStage().toCompletableFuture().thenApply(ignored -> {
+                        KafkaAdminMetrics.ALTER_PARTITION_REASSIGNMENTS_CALL.record(alterStartNs);
+                        KafkaMetadataCache.invalidateTopics(adminClient, Collections.singleton(topicName));
+                        return (JsonNode) null;
+                    });
+                })
+                .handle((json, error) -> {
+                    KafkaAdminMetrics.MIGRATE_ALL_PARTITIONS.record(startNs, error);
+                    return error == null ? json : KafkaAdminClientUtils.wrapError(error);
+                });
+    }
+
+    /**
+     * Submits the same move as {@link #migrateAllPartitionsFromTopicToBroker} as a background job.
+     * With a throttle the partitions move in waves instead of all at once.
+     *
+     * @param topicName   the name of the topic to migrate partitions from
+     * @param brokerId    the ID of the new broker to migrate partitions to
+     * @param throttle    the limits to execute the move in waves with, or null to move every partition at once
+     * @param adminClient the AdminClient instance used to perform the migration
+     * @return a JsonNode object containing the ID of the job tracking the reassignment.
+     */
+    public static JsonNode migrateAllPartitionsFromTopicToBrokerAsync(String topicName, int brokerId, ReassignmentThrottle throttle,
+                                                                      AdminClient adminClient) {
+        long startNs = System.nanoTime();
+        CompletionStage<Map<TopicPartition, List<Integer>>> plan = adminClient.describeTopics(Collections.singletonList(topicName))
+                .allTopicNames().toCompletionStage()
+                .thenApply(topicDescriptions -> {
+                    KafkaAdminMetrics.DESCRIBE_TOPICS_CALL.record(startNs);
+                    return planMoveAllToBroker(topicDescriptions.get(topicName), brokerId);
+                });
+        String jobId = KafkaReassignmentJobManager.submitJob("reassignAll", adminClient, plan, Set.of(), DEFAULT_REASSIGNMENT_BATCH_SIZE, throttle);
+        KafkaAdminMetrics.SUBMIT_REASSIGNMENT_JOB.record(startNs);
+        return KafkaAdminClientUtils.formatJobSubmission(jobId);
+    }
+
+    private static Map<TopicPartition, List<Integer>> planMoveAllToBroker(TopicDescription topicDescription, int brokerId) {
+        Map<TopicPartition, List<Integer>> targets = new LinkedHashMap<>();
+        for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+            targets.put(new TopicPartition(topicDescription.name(), partitionInfo.partition()), Collections.singletonList(brokerId));
+        }
+        return targets;
+    }
+
+    /**
+     * Computes a rebalance plan with {@link KafkaClusterRebalancer} without executing it.
+     *
+     * @param options     the goals and limits of the plan
+     * @param adminClient the Kafka AdminClient instance
+     * @return a JsonNode object containing the plan, or the error message.
+     */
+    public static CompletableFuture<JsonNode> planRebalance(RebalanceOptions options, AdminClient adminClient) {
+        long startNs = System.nanoTime();
+        return KafkaClusterRebalancer.plan(adminClient, options).handle((plan, error) -> {
+                    if (error != null) {
+                        KafkaAdminMetrics.PLAN_REBALANCE.record(startNs, error);
+                        return KafkaAdminClientUtils.wrapError(error);
+                    }
+                    KafkaAdminMetrics.PLAN_REBALANCE.recordPartitions(plan.reassignments().size());
+                    long formatStartNs = System.nanoTime();
+                    JsonNode json = KafkaAdminClientUtils.formatRebalancePlan(plan);
+                    KafkaAdminMetrics.PLAN_REBALANCE.recordFormatting(formatStartNs);
+                    KafkaAdminMetrics.PLAN_REBALANCE.record(startNs);
+                    return json;
+                })
+                .exceptionally(KafkaAdminClientUtils::wrapError);
+    }
+
+    /**
+     * Computes a rebalance plan and submits its reassignments as a background job. Partitions whose
+     * preferred leader changes get a preferred leader election once every move is done.
+     *
+     * @param options     the goals and limits of the plan
+     * @param throttle    the limits to execute the plan in waves with, or null to submit it at once
+     * @param adminClient the Kafka AdminClient instance
+     * @return a JsonNode object containing the plan and the ID of the job executing it, or the error message.
+     */
+    public static CompletableFuture<JsonNode> rebalance(RebalanceOptions options, ReassignmentThrottle throttle, AdminClient adminClient) {
+        long startNs = System.nanoTime();
+        return KafkaClusterRebalancer.plan(adminClient, options).handle((plan, error) -> {
+                    if (error != null) {
+                        KafkaAdminMetrics.REBALANCE.record(startNs, error);
+                        return KafkaAdminClientUtils.wrapError(error);
+                    }
+                    KafkaAdminMetrics.REBALANCE.recordPartitions(plan.reassignments().size());
+                    long formatStartNs = System.nanoTime();
+                    ObjectNode json = KafkaAdminClientUtils.formatRebalancePlan(plan);
+                    KafkaAdminMetrics.REBALANCE.recordFormatting(formatStartNs);
+                    String jobId = submitRebalance(plan, throttle, adminClient);
+                    if (jobId != null) {
+                        json.setAll((ObjectNode) KafkaAdminClientUtils.formatJobSubmission(jobId));
+                    }
+                    KafkaAdminMetrics.REBALANCE.record(startNs);
+                    return (JsonNode) json;
+                })
+                .exceptionally(KafkaAdminClientUtils::wrapError);
+    }
 
-            // Execute the reassignment
-            AlterPartitionReassignmentsResult result = adminClient.alterPartitionReassignments(reassignmentMap);
-            result.all().get(); // Wait for the reassignment to complete
+    /**
+     * Submits the reassignments of a rebalance plan as a background job.
+     *
+     * @return the ID of the job, or null if the plan has nothing to move.
+     */
+    static String submitRebalance(RebalancePlan plan, ReassignmentThrottle throttle, AdminClient adminClient) {
+        if (plan.reassignments().isEmpty()) {
             return null;
-        } catch (ExecutionException | InterruptedException e) {
-            return KafkaAdminClientUtils.wrapError(e);
         }
+        return KafkaReassignmentJobManager.submitJob("rebalance", adminClient, CompletableFuture.completedFuture(plan.reassignments()),
+                plan.leaderChanges(), DEFAULT_REASSIGNMENT_BATCH_SIZE, throttle);
     }
 
-    public static JsonNode electNewLeader(AdminClient adminClient, String topicName, int partitionNumber, int newLeaderId) {
-        try {
-            // Use migratePartitions to set the new leader as first of replicas
-            Map<String, Object> partition = new HashMap<>();
-            partition.put("topic", topicName);
-            partition.put("partition", partitionNumber);
+    /**
+     * Computes the replica moves between the log dirs of every broker with {@link KafkaLogDirBalancer}
+     * without executing them.
+     *
+     * @param options     the goals and limits of the plan
+     * @param adminClient the Kafka AdminClient instance
+     * @return a JsonNode object containing the plan, or the error message.
+     */
+    public static CompletableFuture<JsonNode> planLogDirBalance(LogDirBalanceOptions options, AdminClient adminClient) {
+        long startNs = System.nanoTime();
+        return KafkaLogDirBalancer.plan(adminClient, options).handle((plan, error) -> {
+                    if (error != null) {
+                        KafkaAdminMetrics.PLAN_LOG_DIRS.record(startNs, error);
+                        return KafkaAdminClientUtils.wrapError(error);
+                    }
+                    KafkaAdminMetrics.PLAN_LOG_DIRS.recordPartitions(plan.moves().size());
+                    long formatStartNs = System.nanoTime();
+                    JsonNode json = KafkaAdminClientUtils.formatLogDirPlan(plan);
+                    KafkaAdminMetrics.PLAN_LOG_DIRS.recordFormatting(formatStartNs);
+                    KafkaAdminMetrics.PLAN_LOG_DIRS.record(startNs);
+                    return json;
+                })
+                .exceptionally(KafkaAdminClientUtils::wrapError);
+    }
 
-            // Extract out the current leader
-            DescribeTopicsResult describeTopicsResult = adminClient.describeTopics(Collections.singletonList(topicName));
-            Map<String, TopicDescription> topicDescriptions = describeTopicsResult.allTopicNames().get();
-            TopicDescription topicDescription = topicDescriptions.get(topicName);
-            int currentLeaderId = topicDescription.partitions().get(partitionNumber).leader().id();
+    /**
+     * Computes the replica moves between the log dirs of every broker and executes them as a
+     * background job, at most options.maxMovesPerBroker at a time on each broker.
+     *
+     * @param options     the goals and limits of the plan and of its execution
+     * @param adminClient the Kafka AdminClient instance
+     * @return a JsonNode object containing the plan and the ID of the job executing it, or the error message.
+     */
+    public static CompletableFuture<JsonNode> balanceLogDirs(LogDirBalanceOptions options, AdminClient adminClient) {
+        long startNs = System.nanoTime();
+        return KafkaLogDirBalancer.plan(adminClient, options).handle((plan, error) -> {
+                    if (error != null) {
+                        KafkaAdminMetrics.BALANCE_LOG_DIRS.record(startNs, error);
+                        return KafkaAdminClientUtils.wrapError(error);
+                    }
+                    KafkaAdminMetrics.BALANCE_LOG_DIRS.recordPartitions(plan.moves().size());
+                    long formatStartNs = System.nanoTime();
+                    ObjectNode json = KafkaAdminClientUtils.formatLogDirPlan(plan);
+                    KafkaAdminMetrics.BALANCE_LOG_DIRS.recordFormatting(formatStartNs);
+                    String jobId = KafkaLogDirBalancer.submitJob(adminClient, plan, options);
+                    if (jobId != null) {
+                        json.setAll((ObjectNode) KafkaAdminClientUtils.formatLogDirJobSubmission(jobId));
+                    }
+                    KafkaAdminMetrics.BALANCE_LOG_DIRS.record(startNs);
+                    return (JsonNode) json;
+                })
+                .exceptionally(KafkaAdminClientUtils::wrapError);
+    }
 
-            // Get the current replicas
-            List<Integer> replicas = new ArrayList<>(topicDescription.partitions().get(partitionNumber).replicas().stream().map(Node::id).toList());
+    /**
+     * Moves leadership back to the preferred replicas across the whole cluster. Replicas are first
+     * reordered where a broker is the preferred leader of more than its share of partitions, then
+     * a preferred leader election is run for those partitions and for every partition led by a
+     * replica other than its preferred one. Both steps are issued in chunks of batchSize partitions.
+     *
+     * @param batchSize   the maximum number of partitions per alterPartitionReassignments and electLeaders call
+     * @param adminClient the Kafka AdminClient instance
+     * @return a JsonNode object containing the election result of every partition, or the error message.
+     */
+    public static CompletableFuture<JsonNode> balanceLeaders(int batchSize, AdminClient adminClient) {
+        if (batchSize <= 0) {
+            return CompletableFuture.completedFuture(KafkaAdminClientUtils.wrapError(
+                    new IllegalArgumentException("batchSize must be positive, got " + batchSize)));
+        }
+        long startNs = System.nanoTime();
+        CompletableFuture<TopicPage> topics = KafkaMetadataCache.describeTopics(adminClient, TopicQuery.ALL).future();
+        return KafkaClusterRebalancer.planLeaders(adminClient).thenCompose(plan -> topics.thenCompose(page -> {
+                    Map<TopicPartition, Optional<NewPartitionReassignment>> reorders = new LinkedHashMap<>();
+                    plan.reassignments().forEach((topicPartition, replicas) ->
+                            reorders.put(topicPartition, Optional.of(new NewPartitionReassignment(replicas))));
 
-            // Remove the current leader from the replicas
-            replicas.remove((Integer) currentLeaderId);
-            replicas.remove((Integer) newLeaderId);
-            // Add the new leader to the front of the list
-            replicas.add(0, newLeaderId);
-            replicas.add(currentLeaderId);
-            partition.put("replicas", replicas);
+                    // Partitions whose leader is not already their preferred replica
+                    Set<TopicPartition> elections = new LinkedHashSet<>();
+                    for (TopicDescription topicDescription : page.topics().values()) {
+                        for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                            if (!partitionInfo.replicas().isEmpty()
+                                    && KafkaAdminClientUtils.leaderId(partitionInfo) != partitionInfo.replicas().get(0).id()) {
+                                elections.add(new TopicPartition(topicDescription.name(), partitionInfo.partition()));
+                            }
+                        }
+                    }
 
-            // Migrate the partition
-            migratePartitions(Map.of("partitions", List.of(partition)), adminClient);
-            // Elect the new leader
-            adminClient.electLeaders(ElectionType.PREFERRED, Collections.singleton(new TopicPartition(topicName, partitionNumber))).all().get();
-            return null;
-        } catch (ExecutionException | InterruptedException e) {
-            return KafkaAdminClientUtils.wrapError(e);
+                    return alterPartitionReassignments(reorders, batchSize, adminClient).thenCompose(reorderResults -> {
+                        Map<TopicPartition, Optional<Throwable>> results = new LinkedHashMap<>();
+                        reorderResults.forEach((topicPartition, error) -> {
+                            if (error.isPresent()) {
+                                // The election would move leadership to the old preferred replica
+                                results.put(topicPartition, error);
+                                elections.remove(topicPartition);
+                            } else {
+                                elections.add(topicPartition);
+                            }
+                        });
+                        return electPreferredLeaders(elections, batchSize, adminClient).thenApply(electionResults -> {
+                            results.putAll(electionResults);
+                            KafkaMetadataCache.invalidateTopics(adminClient, topicsOf(results.keySet()));
+                            KafkaAdminMetrics.BALANCE_LEADERS.recordPartitions(results.size());
+                            KafkaAdminMetrics.BALANCE_LEADERS.recordErrors(results);
+                            long formatStartNs = System.nanoTime();
+                            ObjectNode json = (ObjectNode) KafkaAdminClientUtils.formatPartitionResults(results);
+                            json.put("reordered", reorderResults.values().stream().filter(Optional::isEmpty).count());
+                            json.put("elections", electionResults.size());
+                            KafkaAdminMetrics.BALANCE_LEADERS.recordFormatting(formatStartNs);
+                            return (JsonNode) json;
+                        });
+                    });
+                }))
+                .handle((json, error) -> {
+                    KafkaAdminMetrics.BALANCE_LEADERS.record(startNs, error);
+                    return error == null ? json : KafkaAdminClientUtils.wrapError(error);
+                });
+    }
+
+    /**
+     * Runs preferred leader elections in chunks of at most batchSize partitions without waiting
+     * for earlier chunks. A partition already led by its preferred replica counts as a success.
+     *
+     * @return the error of each partition, or an empty Optional if its preferred replica is the leader.
+     */
+    static CompletableFuture<Map<TopicPartition, Optional<Throwable>>> electPreferredLeaders(
+            Collection<TopicPartition> partitions, int batchSize, AdminClient adminClient) {
+        List<CompletableFuture<Map<TopicPartition, Optional<Throwable>>>> chunks = new ArrayList<>();
+        List<TopicPartition> all = new ArrayList<>(partitions);
+        long callStartNs = System.nanoTime();
+        for (int i = 0; i < all.size(); i += batchSize) {
+            Set<TopicPartition> chunk = new HashSet<>(all.subList(i, Math.min(i + batchSize, all.size())));
+            chunks.add(adminClient.electLeaders(ElectionType.PREFERRED, chunk).partitions().toCompletionStage().toCompletableFuture());
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            KafkaAdminMetrics.ELECT_LEADERS_CALL.record(callStartNs, chunks.size());
+            Map<TopicPartition, Optional<Throwable>> results = new LinkedHashMap<>();
+            for (CompletableFuture<Map<TopicPartition, Optional<Throwable>>> chunk : chunks) {
+                chunk.join().forEach((topicPartition, error) -> results.put(topicPartition,
+                        error.filter(e -> !(e instanceof ElectionNotNeededException))));
+            }
+            return results;
+        });
+    }
+
+    public static CompletableFuture<JsonNode> electNewLeader(AdminClient adminClient, String topicName, int partitionNumber, int newLeaderId) {
+        long startNs = System.nanoTime();
+        DescribeTopicsResult describeTopicsResult = adminClient.describeTopics(Collections.singletonList(topicName));
+        return describeTopicsResult.allTopicNames().toCompletionStage().toCompletableFuture()
+                .thenCompose(topicDescriptions -> {
+                    KafkaAdminMetrics.DESCRIBE_TOPICS_CALL.record(startNs);
+                    // Use migratePartitions to set the new leader as first of replicas
+                    Map<String, Object> partition = new HashMap<>();
+                    partition.put("topic", topicName);
+                    partition.put("partition", partitionNumber);
+                    partition.put("replicas", planLeaderFirst(topicDescriptions.get(topicName), partitionNumber, newLeaderId));
+
+                    // Migrate the partition
+                    return migratePartitions(Map.of("partitions", List.of(partition)), adminClient);
+                })
+                .thenCompose(migrationResult -> {
+                    if (migrationResult.get("failed").asInt() > 0) {
+                        return CompletableFuture.completedFuture(migrationResult);
+                    }
+                    // Elect the new leader
+                    long electStartNs = System.nanoTime();
+                    return adminClient.electLeaders(ElectionType.PREFERRED, Collections.singleton(new TopicPartition(topicName, partitionNumber)))
+                            .all().toCompletionStage().toCompletableFuture()
+                            .thenApply(ignored -> {
+                                KafkaAdminMetrics.ELECT_LEADERS_CALL.record(electStartNs);
+                                KafkaMetadataCache.invalidateTopics(adminClient, Collections.singleton(topicName));
+                                return (JsonNode) null;
+                            });
+                })
+                .handle((json, error) -> {
+                    KafkaAdminMetrics.ELECT_NEW_LEADER.record(startNs, error);
+                    return error == null ? json : KafkaAdminClientUtils.wrapError(error);
+                });
+    }
+
+    /**
+     * Submits the same leader change as {@link #electNewLeader} as a background job. The preferred
+     * leader election runs once the replica reorder has completed.
+     *
+     * @return a JsonNode object containing the ID of the job tracking the election.
+     */
+    public static JsonNode electNewLeaderAsync(AdminClient adminClient, String topicName, int partitionNumber, int newLeaderId) {
+        long startNs = System.nanoTime();
+        TopicPartition topicPartition = new TopicPartition(topicName, partitionNumber);
+        CompletionStage<Map<TopicPartition, List<Integer>>> plan = adminClient.describeTopics(Collections.singletonList(topicName))
+                .allTopicNames().toCompletionStage()
+                .thenApply(topicDescriptions -> {
+                    KafkaAdminMetrics.DESCRIBE_TOPICS_CALL.record(startNs);
+                    return Map.of(topicPartition, planLeaderFirst(topicDescriptions.get(topicName), partitionNumber, newLeaderId));
+                });
+        String jobId = KafkaReassignmentJobManager.submitJob("electleader", adminClient, plan, Set.of(topicPartition), DEFAULT_REASSIGNMENT_BATCH_SIZE, null);
+        KafkaAdminMetrics.SUBMIT_REASSIGNMENT_JOB.record(startNs);
+        return KafkaAdminClientUtils.formatJobSubmission(jobId);
+    }
+
+    private static List<Integer> planLeaderFirst(TopicDescription topicDescription, int partitionNumber, int newLeaderId) {
+        // Extract out the current leader
+        int currentLeaderId = topicDescription.partitions().get(partitionNumber).leader().id();
+
+        // Get the current replicas
+        List<Integer> replicas = new ArrayList<>(topicDescription.partitions().get(partitionNumber).replicas().stream().map(Node::id).toList());
+
+        // Remove the current leader from the replicas
+        replicas.remove((Integer) currentLeaderId);
+        replicas.remove((Integer) newLeaderId);
+        // Add the new leader to the front of the list
+        replicas.add(0, newLeaderId);
+        if (currentLeaderId != newLeaderId) {
+            replicas.add(currentLeaderId);
         }
+        return replicas;
     }
-}
\ No newline at end of file
+}
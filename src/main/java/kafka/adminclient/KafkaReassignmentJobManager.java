@@ -0,0 +1,454 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ElectLeadersResult;
+import org.apache.kafka.clients.admin.LogDirDescription;
+import org.apache.kafka.clients.admin.NewPartitionReassignment;
+import org.apache.kafka.clients.admin.PartitionReassignment;
+import org.apache.kafka.clients.admin.ReplicaInfo;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.ElectionType;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.config.TopicConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of asynchronous reassignment jobs.
+ * A single poller thread tracks every running job: on each tick it issues one batched
+ * listPartitionReassignments and one describeLogDirs call per cluster, covering all jobs at once.
+ * The calls are not waited on, so a cluster that is slow to answer does not delay the others.
+ * Jobs submitted with a {@link ReassignmentThrottle} are executed in waves, with the replication
+ * throttle set on every broker and topic involved until the job ends. The throttles are shared
+ * through {@link ThrottleConfigs}: concurrent jobs on the same broker or topic keep it throttled until
+ * the last of them ends, which then restores whatever throttle an operator had set before.
+ */
+public class KafkaReassignmentJobManager {
+    private static final Logger log = LoggerFactory.getLogger(KafkaReassignmentJobManager.class);
+
+    static final long POLL_INTERVAL_MS = 2_000;
+    static final long REQUEST_TIMEOUT_MS = 30_000;
+    static final long JOB_RETENTION_MS = TimeUnit.HOURS.toMillis(1);
+
+    private static final String LEADER_THROTTLED_RATE = "leader.replication.throttled.rate";
+    private static final String FOLLOWER_THROTTLED_RATE = "follower.replication.throttled.rate";
+
+    private static final Map<String, ReassignmentJob> jobs = new ConcurrentHashMap<>();
+    private static final Set<AdminClient> polling = ConcurrentHashMap.newKeySet();
+    private static final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reassignment-job-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        poller.scheduleWithFixedDelay(KafkaReassignmentJobManager::pollJobs, POLL_INTERVAL_MS, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a new job and returns right away. Once the plan resolves, its reassignments are
+     * submitted from the poller thread and a preferred leader election is run for electOnCompletion
+     * after every partition has finished moving.
+     *
+     * @param type              a short label describing the job, e.g. "reassign"
+     * @param adminClient       the Kafka AdminClient instance
+     * @param plan              the target replicas of every partition to move
+     * @param electOnCompletion the partitions to run a preferred leader election on once the moves are done
+     * @param batchSize         the maximum number of partitions per alterPartitionReassignments call
+     * @param throttle          the limits to execute the plan in waves with, or null to submit every partition at once
+     * @return the ID of the new job
+     */
+    public static String submitJob(String type, AdminClient adminClient, CompletionStage<Map<TopicPartition, List<Integer>>> plan,
+                                   Set<TopicPartition> electOnCompletion, int batchSize, ReassignmentThrottle throttle) {
+        ReassignmentJob job = new ReassignmentJob(UUID.randomUUID().toString(), type, adminClient, batchSize, electOnCompletion, throttle);
+        jobs.put(job.id, job);
+
+        boolean throttled = throttle != null && throttle.replicationRateBytes() > 0;
+        CompletionStage<Map<TopicPartition, ReassignmentJob.Move>> moves = throttle == null
+                ? plan.thenApply(KafkaReassignmentJobManager::unsizedMoves)
+                : plan.thenCompose(targets -> sizedMoves(adminClient, targets));
+        if (throttled) {
+            moves = moves.thenCompose(sized -> ThrottleConfigs.acquire(adminClient, throttleConfigs(job, sized.values())).thenApply(ignored -> sized));
+        }
+        moves.whenCompleteAsync((planned, error) -> {
+            if (error != null) {
+                job.fail(error instanceof CompletionException ? error.getCause() : error);
+                return;
+            }
+            job.plan(planned, throttled);
+            cleanUpIfEnded(job);
+            submitNextWave(job);
+            finishIfDrained(job);
+        }, poller);
+        return job.id;
+    }
+
+    /**
+     * Retrieves the progress of a job as a JSON node.
+     *
+     * @param jobId the ID returned when the job was submitted
+     * @return the job status, or null if no such job exists.
+     */
+    public static JsonNode describeJob(String jobId) {
+        ReassignmentJob job = jobs.get(jobId);
+        return job == null ? null : KafkaAdminClientUtils.formatReassignmentJob(job.status());
+    }
+
+    /**
+     * Retrieves the progress of every known job, newest first.
+     *
+     * @return a JSON node containing the status of all jobs.
+     */
+    public static JsonNode listJobs() {
+        List<ReassignmentJob.Status> statuses = new ArrayList<>();
+        for (ReassignmentJob job : jobs.values()) {
+            statuses.add(job.status());
+        }
+        statuses.sort(Comparator.comparingLong(ReassignmentJob.Status::createdAtMs).reversed());
+        return KafkaAdminClientUtils.formatReassignmentJobs(statuses);
+    }
+
+    /**
+     * @return whether the job exists and is still planning or moving partitions
+     */
+    static boolean isActive(String jobId) {
+        ReassignmentJob.Status status = jobStatus(jobId);
+        return status != null && status.finishedAtMs() == 0;
+    }
+
+    /**
+     * @return whether any job submitted through the given AdminClient is still planning or moving partitions
+     */
+    static boolean hasActiveJobs(AdminClient adminClient) {
+        return jobs.values().stream().anyMatch(job -> job.adminClient == adminClient && job.status().finishedAtMs() == 0);
+    }
+
+    /**
+     * @return the status of the job, or null if no such job exists
+     */
+    static ReassignmentJob.Status jobStatus(String jobId) {
+        ReassignmentJob job = jobs.get(jobId);
+        return job == null ? null : job.status();
+    }
+
+    /**
+     * Cancels a job. Partitions that were not submitted yet are dropped and in-progress
+     * reassignments are reverted by submitting an empty reassignment for them.
+     *
+     * @param jobId the ID returned when the job was submitted
+     * @return the job status after cancellation, or null if no such job exists.
+     */
+    public static JsonNode cancelJob(String jobId) {
+        ReassignmentJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        Set<TopicPartition> toRevert = job.cancel();
+        if (toRevert != null) {
+            revert(job, toRevert);
+        }
+        cleanUpIfEnded(job);
+        return KafkaAdminClientUtils.formatReassignmentJob(job.status());
+    }
+
+    private static void submitNextWave(ReassignmentJob job) {
+        Map<TopicPartition, Optional<NewPartitionReassignment>> wave = job.takeNextWave();
+        if (wave.isEmpty()) {
+            return;
+        }
+        long callStartNs = System.nanoTime();
+        Map<TopicPartition, KafkaFuture<Void>> futures = KafkaPartitionManager.submitPartitionReassignments(wave, job.batchSize, job.adminClient);
+        // Off the request path, so the wave gets a callback of its own rather than one per partition
+        int calls = (wave.size() + job.batchSize - 1) / job.batchSize;
+        KafkaFuture.allOf(futures.values().toArray(new KafkaFuture<?>[0])).whenComplete((ignored, error) ->
+                KafkaAdminMetrics.ALTER_PARTITION_REASSIGNMENTS_CALL.record(callStartNs, calls));
+        futures.forEach((topicPartition, future) -> future.whenComplete((ignored, error) -> {
+            if (job.onSubmitted(topicPartition, error)) {
+                revert(job, Set.of(topicPartition));
+            }
+        }));
+    }
+
+    private static void revert(ReassignmentJob job, Set<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, Optional<NewPartitionReassignment>> cancellations = new HashMap<>();
+        for (TopicPartition topicPartition : partitions) {
+            cancellations.put(topicPartition, Optional.empty());
+        }
+        KafkaPartitionManager.submitPartitionReassignments(cancellations, job.batchSize, job.adminClient)
+                .forEach((topicPartition, future) -> future.whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        log.warn("Failed to cancel reassignment of {} for job {}: {}", topicPartition, job.id, error.getMessage());
+                    }
+                }));
+    }
+
+    private static void finishIfDrained(ReassignmentJob job) {
+        if (!job.beginFinish()) {
+            return;
+        }
+        if (job.electOnCompletion.isEmpty()) {
+            job.finish(Map.of());
+            cleanUpIfEnded(job);
+            return;
+        }
+        ElectLeadersResult result = job.adminClient.electLeaders(ElectionType.PREFERRED, job.electOnCompletion);
+        result.partitions().whenComplete((electionResults, error) -> {
+            if (error != null) {
+                job.fail(error);
+            } else {
+                job.finish(electionResults);
+            }
+            cleanUpIfEnded(job);
+        });
+    }
+
+    private static Map<TopicPartition, ReassignmentJob.Move> unsizedMoves(Map<TopicPartition, List<Integer>> targets) {
+        Map<TopicPartition, ReassignmentJob.Move> moves = new LinkedHashMap<>();
+        targets.forEach((topicPartition, replicas) ->
+                moves.put(topicPartition, new ReassignmentJob.Move(topicPartition, replicas, new int[0], 0)));
+        return moves;
+    }
+
+    /**
+     * Resolves the brokers each move touches from the current replica layout, and its size from
+     * the log dirs of the current leader.
+     */
+    private static CompletionStage<Map<TopicPartition, ReassignmentJob.Move>> sizedMoves(AdminClient adminClient,
+                                                                                        Map<TopicPartition, List<Integer>> targets) {
+        Set<String> topics = new HashSet<>();
+        for (TopicPartition topicPartition : targets.keySet()) {
+            topics.add(topicPartition.topic());
+        }
+        return adminClient.describeTopics(topics).allTopicNames().toCompletionStage().thenCompose(topicDescriptions -> {
+            Map<TopicPartition, TopicPartitionInfo> current = new HashMap<>();
+            for (TopicDescription topicDescription : topicDescriptions.values()) {
+                for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                    current.put(new TopicPartition(topicDescription.name(), partitionInfo.partition()), partitionInfo);
+                }
+            }
+            Set<Integer> leaders = new HashSet<>();
+            for (TopicPartition topicPartition : targets.keySet()) {
+                TopicPartitionInfo partitionInfo = current.get(topicPartition);
+                if (partitionInfo != null && partitionInfo.leader() != null) {
+                    leaders.add(partitionInfo.leader().id());
+                }
+            }
+
+            return adminClient.describeLogDirs(leaders).allDescriptions().toCompletionStage().thenApply(logDirs -> {
+                Map<TopicPartition, ReassignmentJob.Move> moves = new LinkedHashMap<>();
+                for (Map.Entry<TopicPartition, List<Integer>> target : targets.entrySet()) {
+                    TopicPartitionInfo partitionInfo = current.get(target.getKey());
+                    if (partitionInfo == null) {
+                        throw new IllegalArgumentException("Unknown partition " + target.getKey());
+                    }
+                    Set<Integer> brokers = new HashSet<>(target.getValue());
+                    for (Node replica : partitionInfo.replicas()) {
+                        brokers.remove(replica.id());
+                    }
+                    long size = 0;
+                    if (partitionInfo.leader() != null) {
+                        brokers.add(partitionInfo.leader().id());
+                        for (LogDirDescription logDir : logDirs.getOrDefault(partitionInfo.leader().id(), Map.of()).values()) {
+                            ReplicaInfo replicaInfo = logDir.replicaInfos().get(target.getKey());
+                            if (replicaInfo != null) {
+                                size = Math.max(size, replicaInfo.size());
+                            }
+                        }
+                    }
+                    int[] touched = brokers.stream().mapToInt(Integer::intValue).toArray();
+                    moves.put(target.getKey(), new ReassignmentJob.Move(target.getKey(), target.getValue(), touched, size));
+                }
+                return moves;
+            });
+        });
+    }
+
+    /**
+     * The replication throttle of every broker the moves touch, and the configs marking all replicas
+     * of their topics as throttled.
+     */
+    private static Map<ConfigResource, Map<String, String>> throttleConfigs(ReassignmentJob job, Collection<ReassignmentJob.Move> moves) {
+        Set<Integer> brokers = new HashSet<>();
+        Set<String> topics = new HashSet<>();
+        for (ReassignmentJob.Move move : moves) {
+            for (int broker : move.brokers()) {
+                brokers.add(broker);
+            }
+            topics.add(move.topicPartition().topic());
+        }
+
+        String rate = Long.toString(job.throttle.replicationRateBytes());
+        Map<ConfigResource, Map<String, String>> configs = new HashMap<>();
+        for (int broker : brokers) {
+            configs.put(new ConfigResource(ConfigResource.Type.BROKER, Integer.toString(broker)),
+                    Map.of(LEADER_THROTTLED_RATE, rate, FOLLOWER_THROTTLED_RATE, rate));
+        }
+        for (String topic : topics) {
+            configs.put(new ConfigResource(ConfigResource.Type.TOPIC, topic), Map.of(
+                    TopicConfig.LEADER_REPLICATION_THROTTLED_REPLICAS_CONFIG, "*",
+                    TopicConfig.FOLLOWER_REPLICATION_THROTTLED_REPLICAS_CONFIG, "*"));
+        }
+        return configs;
+    }
+
+    /**
+     * Cleans up after a job that may have ended: drops cached metadata of the topics it moved and
+     * releases the replication throttles it set.
+     */
+    private static void cleanUpIfEnded(ReassignmentJob job) {
+        if (!job.isRunning()) {
+            KafkaMetadataCache.invalidateTopics(job.adminClient, job.topics());
+        }
+        List<ReassignmentJob.Move> moves = job.takeThrottledMoves();
+        if (moves == null) {
+            return;
+        }
+        ThrottleConfigs.release(job.adminClient, throttleConfigs(job, moves)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Failed to remove replication throttle of job {}: {}", job.id, error.getMessage());
+            }
+        });
+    }
+
+    private static void pollJobs() {
+        try {
+            long evictBefore = System.currentTimeMillis() - JOB_RETENTION_MS;
+            jobs.values().removeIf(job -> job.isFinishedBefore(evictBefore));
+
+            // Group running jobs by cluster so each cluster is polled once per tick
+            Map<AdminClient, List<ReassignmentJob>> jobsByClient = new IdentityHashMap<>();
+            for (ReassignmentJob job : jobs.values()) {
+                if (job.isRunning()) {
+                    jobsByClient.computeIfAbsent(job.adminClient, client -> new ArrayList<>()).add(job);
+                }
+            }
+            jobsByClient.forEach((adminClient, clusterJobs) -> {
+                // A cluster still waiting on its previous poll is skipped, without holding up the others
+                if (polling.add(adminClient)) {
+                    pollCluster(adminClient, clusterJobs);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Reassignment job poll failed", e);
+        }
+    }
+
+    /**
+     * Polls the progress of the jobs of a cluster without blocking the poller thread, and applies it
+     * from the poller thread once the brokers answer.
+     */
+    private static void pollCluster(AdminClient adminClient, List<ReassignmentJob> clusterJobs) {
+        Set<TopicPartition> tracked = new HashSet<>();
+        for (ReassignmentJob job : clusterJobs) {
+            tracked.addAll(job.inProgressPartitions());
+        }
+
+        CompletableFuture<Map<TopicPartition, PartitionReassignment>> ongoing = tracked.isEmpty()
+                ? CompletableFuture.completedFuture(Map.of())
+                : KafkaAdminClientUtils.toCompletableFuture(adminClient.listPartitionReassignments(tracked).reassignments())
+                        .orTimeout(REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        ongoing.thenCompose(reassignments -> bytesRemaining(adminClient, reassignments)).whenCompleteAsync((bytesRemaining, error) -> {
+            try {
+                if (error != null) {
+                    Throwable cause = KafkaAdminClientUtils.unwrap(error);
+                    clusterJobs.forEach(job -> job.pollFailed(cause));
+                    return;
+                }
+                for (ReassignmentJob job : clusterJobs) {
+                    job.update(tracked, ongoing.join(), bytesRemaining);
+                    submitNextWave(job);
+                    finishIfDrained(job);
+                }
+            } catch (RuntimeException e) {
+                log.error("Reassignment job poll failed", e);
+            } finally {
+                polling.remove(adminClient);
+            }
+        }, poller);
+    }
+
+    /**
+     * Estimates the bytes each ongoing reassignment still has to copy, as the size of the largest
+     * existing replica minus what every adding replica already holds. Brokers whose log dirs cannot
+     * be described in time are skipped.
+     */
+    static CompletableFuture<Map<TopicPartition, Long>> bytesRemaining(AdminClient adminClient,
+                                                                       Map<TopicPartition, PartitionReassignment> ongoing) {
+        if (ongoing.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        Set<Integer> brokers = new HashSet<>();
+        for (PartitionReassignment reassignment : ongoing.values()) {
+            brokers.addAll(reassignment.replicas());
+        }
+
+        Map<Integer, CompletableFuture<Map<String, LogDirDescription>>> descriptions = new HashMap<>();
+        adminClient.describeLogDirs(brokers).descriptions().forEach((broker, future) -> descriptions.put(broker,
+                KafkaAdminClientUtils.toCompletableFuture(future)
+                        .completeOnTimeout(Map.of(), REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                        .exceptionally(error -> Map.of())));
+        return CompletableFuture.allOf(descriptions.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> bytesRemaining(ongoing, descriptions));
+    }
+
+    private static Map<TopicPartition, Long> bytesRemaining(Map<TopicPartition, PartitionReassignment> ongoing,
+                                                            Map<Integer, CompletableFuture<Map<String, LogDirDescription>>> descriptions) {
+        Map<TopicPartition, Map<Integer, Long>> replicaSizes = new HashMap<>();
+        for (Map.Entry<Integer, CompletableFuture<Map<String, LogDirDescription>>> broker : descriptions.entrySet()) {
+            for (LogDirDescription logDir : broker.getValue().join().values()) {
+                for (Map.Entry<TopicPartition, ReplicaInfo> replica : logDir.replicaInfos().entrySet()) {
+                    if (ongoing.containsKey(replica.getKey())) {
+                        replicaSizes.computeIfAbsent(replica.getKey(), tp -> new HashMap<>())
+                                .merge(broker.getKey(), replica.getValue().size(), Math::max);
+                    }
+                }
+            }
+        }
+
+        Map<TopicPartition, Long> remaining = new HashMap<>();
+        for (Map.Entry<TopicPartition, PartitionReassignment> entry : ongoing.entrySet()) {
+            Map<Integer, Long> sizes = replicaSizes.getOrDefault(entry.getKey(), Map.of());
+            List<Integer> adding = entry.getValue().addingReplicas();
+            long sourceSize = 0;
+            for (int replica : entry.getValue().replicas()) {
+                if (!adding.contains(replica)) {
+                    sourceSize = Math.max(sourceSize, sizes.getOrDefault(replica, 0L));
+                }
+            }
+            long bytes = 0;
+            for (int replica : adding) {
+                bytes += Math.max(0, sourceSize - sizes.getOrDefault(replica, 0L));
+            }
+            remaining.put(entry.getKey(), bytes);
+        }
+        return remaining;
+    }
+}
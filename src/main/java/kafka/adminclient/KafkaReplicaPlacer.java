@@ -0,0 +1,141 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+
+/**
+ * Builds explicit replica assignments for new topics. Replicas of a partition are spread over as
+ * many racks as possible, and each replica goes to the broker with the fewest partitions among
+ * those allowed, so new topics fill up the least loaded brokers first. Leaders are picked the
+ * same way using leader counts. Brokers without a rack are treated as racks of their own.
+ */
+public class KafkaReplicaPlacer {
+    private static final TopicQuery ALL_INCLUDING_INTERNAL = new TopicQuery(null, null, true, null, 0, TopicQuery.DEFAULT_CHUNK_SIZE);
+
+    /**
+     * Computes the replica assignment of a new topic from the racks of the brokers and the
+     * partitions and leaders they currently hold.
+     *
+     * @param adminClient       the Kafka AdminClient instance
+     * @param partitions        the number of partitions of the topic
+     * @param replicationFactor the number of replicas of each partition
+     * @return the replicas of every partition, preferred leader first.
+     */
+    public static CompletableFuture<Map<Integer, List<Integer>>> place(AdminClient adminClient, int partitions, int replicationFactor) {
+        CompletableFuture<ClusterMetadata> cluster = KafkaMetadataCache.describeCluster(adminClient).future();
+        CompletableFuture<TopicPage> topics = KafkaMetadataCache.describeTopics(adminClient, ALL_INCLUDING_INTERNAL).future();
+        return cluster.thenCombine(topics, (clusterMetadata, page) -> {
+            List<Node> nodes = new ArrayList<>(clusterMetadata.nodes());
+            nodes.sort((a, b) -> Integer.compare(a.id(), b.id()));
+            int[] brokerIds = new int[nodes.size()];
+            int[] brokerRacks = new int[nodes.size()];
+            Map<Integer, Integer> brokerIndex = new HashMap<>();
+            Map<String, Integer> rackIndex = new HashMap<>();
+            for (int b = 0; b < nodes.size(); b++) {
+                Node node = nodes.get(b);
+                brokerIds[b] = node.id();
+                brokerRacks[b] = rackIndex.computeIfAbsent(node.hasRack() ? node.rack() : "broker-" + node.id(), rack -> rackIndex.size());
+                brokerIndex.put(node.id(), b);
+            }
+
+            int[] replicaCounts = new int[brokerIds.length];
+            int[] leaderCounts = new int[brokerIds.length];
+            for (TopicDescription topicDescription : page.topics().values()) {
+                for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                    for (Node replica : partitionInfo.replicas()) {
+                        Integer b = brokerIndex.get(replica.id());
+                        if (b != null) {
+                            replicaCounts[b]++;
+                        }
+                    }
+                    Integer leader = partitionInfo.leader() == null ? null : brokerIndex.get(partitionInfo.leader().id());
+                    if (leader != null) {
+                        leaderCounts[leader]++;
+                    }
+                }
+            }
+            return assign(brokerIds, brokerRacks, rackIndex.size(), replicaCounts, leaderCounts, partitions, replicationFactor);
+        });
+    }
+
+    /**
+     * Assigns the replicas of every partition in turn, updating the counts as it goes. Each pick is
+     * a scan over the brokers, so a topic takes O(partitions * replicationFactor * brokers) steps.
+     *
+     * @param brokerIds     the ID of each broker
+     * @param brokerRacks   the rack index of each broker
+     * @param rackCount     the number of distinct racks
+     * @param replicaCounts the number of replicas each broker holds, updated in place
+     * @param leaderCounts  the number of partitions each broker leads, updated in place
+     */
+    static Map<Integer, List<Integer>> assign(int[] brokerIds, int[] brokerRacks, int rackCount, int[] replicaCounts,
+                                              int[] leaderCounts, int partitions, int replicationFactor) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Number of partitions must be positive, got " + partitions);
+        }
+        if (replicationFactor <= 0 || replicationFactor > brokerIds.length) {
+            throw new IllegalArgumentException(String.format("Replication factor must be between 1 and the number of brokers (%d), got %d",
+                    brokerIds.length, replicationFactor));
+        }
+
+        Map<Integer, List<Integer>> assignment = new LinkedHashMap<>();
+        int[] rackUse = new int[rackCount];
+        boolean[] chosen = new boolean[brokerIds.length];
+        int[] picked = new int[replicationFactor];
+        for (int p = 0; p < partitions; p++) {
+            for (int r = 0; r < replicationFactor; r++) {
+                int best = -1;
+                // Rotate the starting broker so ties do not always go to the lowest ID
+                for (int i = 0; i < brokerIds.length; i++) {
+                    int b = (p + i) % brokerIds.length;
+                    if (!chosen[b] && (best < 0 || isBetter(b, best, r == 0, brokerRacks, rackUse, replicaCounts, leaderCounts))) {
+                        best = b;
+                    }
+                }
+                chosen[best] = true;
+                rackUse[brokerRacks[best]]++;
+                replicaCounts[best]++;
+                if (r == 0) {
+                    leaderCounts[best]++;
+                }
+                picked[r] = best;
+            }
+
+            List<Integer> replicas = new ArrayList<>(replicationFactor);
+            for (int b : picked) {
+                replicas.add(brokerIds[b]);
+                chosen[b] = false;
+                rackUse[brokerRacks[b]]--;
+            }
+            assignment.put(p, replicas);
+        }
+        return assignment;
+    }
+
+    /**
+     * Orders candidates by how often their rack is already used by the partition, then by leader
+     * count for the leader or replica count for a follower, then by the other count.
+     */
+    private static boolean isBetter(int candidate, int best, boolean leader, int[] brokerRacks, int[] rackUse,
+                                    int[] replicaCounts, int[] leaderCounts) {
+        int rackOrder = Integer.compare(rackUse[brokerRacks[candidate]], rackUse[brokerRacks[best]]);
+        if (rackOrder != 0) {
+            return rackOrder < 0;
+        }
+        int[] primary = leader ? leaderCounts : replicaCounts;
+        int[] secondary = leader ? replicaCounts : leaderCounts;
+        if (primary[candidate] != primary[best]) {
+            return primary[candidate] < primary[best];
+        }
+        return secondary[candidate] < secondary[best];
+    }
+}
@@ -0,0 +1,442 @@
+package kafka.adminclient;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.config.TopicConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches clusters for under-replicated, under-min-ISR and leaderless partitions and repairs
+ * what can be repaired without data loss:
+ * <ul>
+ *     <li>a partition not led by its preferred replica, while that replica is alive and in sync,
+ *     gets a preferred leader election;</li>
+ *     <li>a partition with a replica on a broker that has been missing from the cluster for
+ *     deadBrokerMs gets that replica moved to the live broker with the fewest replicas.</li>
+ * </ul>
+ * A problem is only acted on once it has been seen in every check for debounceMs, so brokers that
+ * restart or flap are left alone. Each check acts on at most maxActionsPerCheck partitions, and a
+ * new healing reassignment is only submitted once the previous one has finished, so a large
+ * failure is repaired in bounded batches.
+ */
+public class KafkaSelfHealingMonitor {
+    private static final Logger log = LoggerFactory.getLogger(KafkaSelfHealingMonitor.class);
+
+    static final int MAX_HISTORY = 50;
+
+    private static final TopicQuery ALL_INCLUDING_INTERNAL = new TopicQuery(null, null, true, null, 0, TopicQuery.DEFAULT_CHUNK_SIZE);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The problems found in one check.
+     */
+    private record Scan(Set<Integer> liveBrokers, Map<Integer, Integer> replicaCounts,
+                        Map<TopicPartition, List<Integer>> replicas, Set<TopicPartition> electable,
+                        Set<TopicPartition> onMissingBrokers, Set<Integer> missingBrokers,
+                        int underReplicated, int underMinIsr, int leaderless) {}
+
+    private static final class Monitor {
+        final AdminClient adminClient;
+        final HealingPolicy policy;
+        final long enabledAtMs = System.currentTimeMillis();
+        ScheduledFuture<?> task;
+        boolean checking;
+
+        final Map<TopicPartition, Long> electableSince = new HashMap<>();
+        final Map<TopicPartition, Long> onMissingBrokerSince = new HashMap<>();
+        final Map<Integer, Long> brokerMissingSince = new HashMap<>();
+
+        volatile long lastCheckAtMs;
+        volatile long lastCheckMs;
+        volatile String lastError;
+        volatile Scan lastScan;
+        volatile long electionsIssued;
+        volatile long reassignmentsIssued;
+        volatile String healingJobId;
+        final Deque<ObjectNode> actions = new ArrayDeque<>();
+
+        Monitor(AdminClient adminClient, HealingPolicy policy) {
+            this.adminClient = adminClient;
+            this.policy = policy;
+        }
+    }
+
+    private static final Map<AdminClient, Monitor> monitors = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "self-healing-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Starts monitoring a cluster, replacing its previous policy if it was already monitored.
+     *
+     * @param adminClient the Kafka AdminClient instance of the cluster
+     * @param policy      the settings of the monitor
+     * @return the status of the monitor.
+     */
+    public static JsonNode enable(AdminClient adminClient, HealingPolicy policy) {
+        Monitor monitor = new Monitor(adminClient, policy);
+        Monitor previous = monitors.put(adminClient, monitor);
+        if (previous != null) {
+            previous.task.cancel(false);
+        }
+        monitor.task = executor.scheduleWithFixedDelay(() -> check(monitor), 0, policy.intervalMs(), TimeUnit.MILLISECONDS);
+        return status(adminClient);
+    }
+
+    /**
+     * Stops monitoring a cluster. Healing reassignments already submitted keep running.
+     *
+     * @return the last status of the monitor, or null if the cluster was not monitored.
+     */
+    public static JsonNode disable(AdminClient adminClient) {
+        Monitor monitor = monitors.remove(adminClient);
+        if (monitor == null) {
+            return null;
+        }
+        monitor.task.cancel(false);
+        return formatStatus(monitor);
+    }
+
+    /**
+     * @return the policy the cluster is monitored with, or null if the cluster is not monitored.
+     */
+    public static HealingPolicy policy(AdminClient adminClient) {
+        Monitor monitor = monitors.get(adminClient);
+        return monitor == null ? null : monitor.policy;
+    }
+
+    /**
+     * @return the status of the cluster's monitor, or null if the cluster is not monitored.
+     */
+    public static JsonNode status(AdminClient adminClient) {
+        Monitor monitor = monitors.get(adminClient);
+        return monitor == null ? null : formatStatus(monitor);
+    }
+
+    private static void check(Monitor monitor) {
+        // Skip the tick if the previous check is still running
+        if (monitor.checking) {
+            return;
+        }
+        monitor.checking = true;
+        long startMs = System.currentTimeMillis();
+        AdminClient adminClient = monitor.adminClient;
+
+        CompletableFuture<ClusterMetadata> cluster = KafkaMetadataCache.describeCluster(adminClient).future();
+        CompletableFuture<TopicPage> topics = KafkaMetadataCache.describeTopics(adminClient, ALL_INCLUDING_INTERNAL).future();
+        CompletableFuture<Set<TopicPartition>> ongoing = adminClient.listPartitionReassignments().reassignments()
+                .toCompletionStage().toCompletableFuture().thenApply(Map::keySet);
+        CompletableFuture.allOf(cluster, topics, ongoing)
+                .thenCompose(ignored -> {
+                    Collection<TopicDescription> topicDescriptions = topics.join().topics().values();
+                    return minInSyncReplicas(adminClient, topicDescriptions)
+                            .thenApply(minIsr -> scan(cluster.join(), topicDescriptions, minIsr));
+                })
+                .whenCompleteAsync((scan, error) -> {
+                    try {
+                        monitor.lastCheckAtMs = startMs;
+                        if (error != null) {
+                            monitor.lastError = KafkaAdminClientUtils.unwrap(error).getMessage();
+                            log.warn("Self-healing check failed: {}", monitor.lastError);
+                            return;
+                        }
+                        monitor.lastError = null;
+                        monitor.lastScan = scan;
+                        if (monitors.get(adminClient) != monitor) {
+                            // Disabled or replaced while the check was running
+                            return;
+                        }
+                        heal(monitor, scan, ongoing.join(), System.currentTimeMillis());
+                    } finally {
+                        monitor.lastCheckMs = System.currentTimeMillis() - startMs;
+                        monitor.checking = false;
+                    }
+                }, executor);
+    }
+
+    /**
+     * Reads min.insync.replicas of the topics with an under-replicated partition, the only ones
+     * that can be under their minimum ISR, in chunks of the describe chunk size.
+     */
+    private static CompletableFuture<Map<String, Integer>> minInSyncReplicas(AdminClient adminClient,
+                                                                              Collection<TopicDescription> topicDescriptions) {
+        List<ConfigResource> resources = new ArrayList<>();
+        for (TopicDescription topicDescription : topicDescriptions) {
+            for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                if (partitionInfo.isr().size() < partitionInfo.replicas().size()) {
+                    resources.add(new ConfigResource(ConfigResource.Type.TOPIC, topicDescription.name()));
+                    break;
+                }
+            }
+        }
+
+        List<CompletableFuture<Map<ConfigResource, Config>>> chunks = new ArrayList<>();
+        for (int i = 0; i < resources.size(); i += TopicQuery.DEFAULT_CHUNK_SIZE) {
+            List<ConfigResource> chunk = resources.subList(i, Math.min(i + TopicQuery.DEFAULT_CHUNK_SIZE, resources.size()));
+            chunks.add(adminClient.describeConfigs(chunk).all().toCompletionStage().toCompletableFuture());
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<String, Integer> minIsr = new HashMap<>();
+            for (CompletableFuture<Map<ConfigResource, Config>> chunk : chunks) {
+                chunk.join().forEach((resource, config) -> {
+                    ConfigEntry entry = config.get(TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG);
+                    if (entry != null && entry.value() != null) {
+                        minIsr.put(resource.name(), Integer.parseInt(entry.value()));
+                    }
+                });
+            }
+            return minIsr;
+        });
+    }
+
+    private static Scan scan(ClusterMetadata cluster, Collection<TopicDescription> topicDescriptions, Map<String, Integer> minIsr) {
+        Set<Integer> liveBrokers = new HashSet<>();
+        Map<Integer, Integer> replicaCounts = new HashMap<>();
+        for (Node node : cluster.nodes()) {
+            liveBrokers.add(node.id());
+            replicaCounts.put(node.id(), 0);
+        }
+
+        Map<TopicPartition, List<Integer>> replicas = new HashMap<>();
+        Set<TopicPartition> electable = new LinkedHashSet<>();
+        Set<TopicPartition> onMissingBrokers = new LinkedHashSet<>();
+        Set<Integer> missingBrokers = new HashSet<>();
+        int underReplicated = 0;
+        int underMinIsr = 0;
+        int leaderless = 0;
+        for (TopicDescription topicDescription : topicDescriptions) {
+            for (TopicPartitionInfo partitionInfo : topicDescription.partitions()) {
+                TopicPartition topicPartition = new TopicPartition(topicDescription.name(), partitionInfo.partition());
+                List<Integer> partitionReplicas = new ArrayList<>(partitionInfo.replicas().size());
+                boolean missing = false;
+                for (Node replica : partitionInfo.replicas()) {
+                    partitionReplicas.add(replica.id());
+                    if (liveBrokers.contains(replica.id())) {
+                        replicaCounts.merge(replica.id(), 1, Integer::sum);
+                    } else {
+                        missingBrokers.add(replica.id());
+                        missing = true;
+                    }
+                }
+
+                int leader = KafkaAdminClientUtils.leaderId(partitionInfo);
+                int isrSize = partitionInfo.isr().size();
+                if (leader < 0) {
+                    leaderless++;
+                }
+                if (isrSize < partitionReplicas.size()) {
+                    underReplicated++;
+                    if (isrSize < minIsr.getOrDefault(topicDescription.name(), 1)) {
+                        underMinIsr++;
+                    }
+                }
+                if (missing) {
+                    replicas.put(topicPartition, partitionReplicas);
+                    onMissingBrokers.add(topicPartition);
+                }
+                if (!partitionReplicas.isEmpty()) {
+                    int preferred = partitionReplicas.get(0);
+                    boolean preferredInSync = partitionInfo.isr().stream().anyMatch(node -> node.id() == preferred);
+                    if (leader != preferred && preferredInSync && liveBrokers.contains(preferred)) {
+                        electable.add(topicPartition);
+                    }
+                }
+            }
+        }
+        return new Scan(liveBrokers, replicaCounts, replicas, electable, onMissingBrokers, missingBrokers,
+                underReplicated, underMinIsr, leaderless);
+    }
+
+    private static void heal(Monitor monitor, Scan scan, Set<TopicPartition> ongoing, long nowMs) {
+        HealingPolicy policy = monitor.policy;
+        debounce(monitor.electableSince, scan.electable(), nowMs);
+        debounce(monitor.onMissingBrokerSince, scan.onMissingBrokers(), nowMs);
+        debounce(monitor.brokerMissingSince, scan.missingBrokers(), nowMs);
+
+        int budget = policy.maxActionsPerCheck();
+        if (policy.reassignDeadBrokers()
+                && (monitor.healingJobId == null || !KafkaReassignmentJobManager.isActive(monitor.healingJobId))) {
+            Set<Integer> deadBrokers = new HashSet<>();
+            monitor.brokerMissingSince.forEach((broker, sinceMs) -> {
+                if (nowMs - sinceMs >= policy.deadBrokerMs()) {
+                    deadBrokers.add(broker);
+                }
+            });
+
+            Map<TopicPartition, List<Integer>> targets = new LinkedHashMap<>();
+            Map<Integer, Integer> replicaCounts = new HashMap<>(scan.replicaCounts());
+            for (TopicPartition topicPartition : due(monitor.onMissingBrokerSince, ongoing, policy.debounceMs(), nowMs)) {
+                if (targets.size() == budget) {
+                    break;
+                }
+                List<Integer> target = replaceDeadReplicas(scan.replicas().get(topicPartition), deadBrokers, replicaCounts);
+                if (target != null) {
+                    targets.put(topicPartition, target);
+                }
+            }
+            if (!targets.isEmpty()) {
+                monitor.healingJobId = KafkaReassignmentJobManager.submitJob("heal", monitor.adminClient,
+                        CompletableFuture.completedFuture(targets), Set.of(), budget, null);
+                monitor.onMissingBrokerSince.keySet().removeAll(targets.keySet());
+                monitor.reassignmentsIssued += targets.size();
+                budget -= targets.size();
+                ObjectNode action = recordAction(monitor, nowMs, "reassign", targets.size());
+                synchronized (monitor.actions) {
+                    action.put("jobId", monitor.healingJobId);
+                    action.putPOJO("deadBrokers", deadBrokers);
+                }
+                log.info("Self-healing moves {} partitions away from dead brokers {} in job {}", targets.size(), deadBrokers, monitor.healingJobId);
+            }
+        }
+
+        Set<TopicPartition> elections = new LinkedHashSet<>();
+        for (TopicPartition topicPartition : due(monitor.electableSince, ongoing, policy.debounceMs(), nowMs)) {
+            if (elections.size() >= budget) {
+                break;
+            }
+            elections.add(topicPartition);
+        }
+        if (!elections.isEmpty()) {
+            monitor.electableSince.keySet().removeAll(elections);
+            monitor.electionsIssued += elections.size();
+            ObjectNode action = recordAction(monitor, nowMs, "electPreferredLeader", elections.size());
+            KafkaPartitionManager.electPreferredLeaders(elections, elections.size(), monitor.adminClient).whenCompleteAsync((results, error) -> {
+                synchronized (monitor.actions) {
+                    if (error != null) {
+                        action.put("error", KafkaAdminClientUtils.unwrap(error).getMessage());
+                        return;
+                    }
+                    action.put("failed", results.values().stream().filter(Optional::isPresent).count());
+                }
+                KafkaMetadataCache.invalidateTopics(monitor.adminClient, KafkaPartitionManager.topicsOf(results.keySet()));
+            }, executor);
+        }
+    }
+
+    /**
+     * Keeps the time each key was first seen, forgetting keys that are no longer present.
+     */
+    private static <K> void debounce(Map<K, Long> firstSeen, Set<K> present, long nowMs) {
+        firstSeen.keySet().retainAll(present);
+        for (K key : present) {
+            firstSeen.putIfAbsent(key, nowMs);
+        }
+    }
+
+    private static List<TopicPartition> due(Map<TopicPartition, Long> firstSeen, Set<TopicPartition> ongoing, long debounceMs, long nowMs) {
+        List<TopicPartition> due = new ArrayList<>();
+        for (Map.Entry<TopicPartition, Long> entry : firstSeen.entrySet()) {
+            if (nowMs - entry.getValue() >= debounceMs && !ongoing.contains(entry.getKey())) {
+                due.add(entry.getKey());
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Replaces every replica on a dead broker with the live broker holding the fewest replicas that
+     * does not already host the partition, keeping the order of the other replicas.
+     *
+     * @return the new replicas, or null if no replica is on a dead broker or no live broker is left.
+     */
+    private static List<Integer> replaceDeadReplicas(List<Integer> replicas, Set<Integer> deadBrokers, Map<Integer, Integer> replicaCounts) {
+        List<Integer> target = new ArrayList<>(replicas);
+        boolean replaced = false;
+        for (int i = 0; i < target.size(); i++) {
+            if (!deadBrokers.contains(target.get(i))) {
+                continue;
+            }
+            Integer best = null;
+            for (Map.Entry<Integer, Integer> broker : replicaCounts.entrySet()) {
+                if (!target.contains(broker.getKey()) && (best == null || broker.getValue() < replicaCounts.get(best))) {
+                    best = broker.getKey();
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            target.set(i, best);
+            replicaCounts.merge(best, 1, Integer::sum);
+            replaced = true;
+        }
+        return replaced ? target : null;
+    }
+
+    private static ObjectNode recordAction(Monitor monitor, long nowMs, String type, int partitions) {
+        ObjectNode action = objectMapper.createObjectNode();
+        action.put("timestamp", nowMs);
+        action.put("type", type);
+        action.put("partitions", partitions);
+        synchronized (monitor.actions) {
+            monitor.actions.addFirst(action);
+            while (monitor.actions.size() > MAX_HISTORY) {
+                monitor.actions.removeLast();
+            }
+        }
+        return action;
+    }
+
+    private static JsonNode formatStatus(Monitor monitor) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.putPOJO("policy", monitor.policy);
+        json.put("enabledAt", monitor.enabledAtMs);
+        if (monitor.lastCheckAtMs != 0) {
+            json.put("lastCheckAt", monitor.lastCheckAtMs);
+            json.put("lastCheckMs", monitor.lastCheckMs);
+        }
+        if (monitor.lastError != null) {
+            json.put("error", monitor.lastError);
+        }
+        Scan scan = monitor.lastScan;
+        if (scan != null) {
+            json.put("underReplicatedPartitions", scan.underReplicated());
+            json.put("underMinIsrPartitions", scan.underMinIsr());
+            json.put("leaderlessPartitions", scan.leaderless());
+            json.put("partitionsOnMissingBrokers", scan.onMissingBrokers().size());
+            json.put("partitionsNotOnPreferredLeader", scan.electable().size());
+            json.putPOJO("missingBrokers", scan.missingBrokers());
+        }
+        json.put("electionsIssued", monitor.electionsIssued);
+        json.put("reassignmentsIssued", monitor.reassignmentsIssued);
+        if (monitor.healingJobId != null) {
+            json.put("healingJob", "/job/" + monitor.healingJobId);
+        }
+        ArrayNode actionsArray = json.putArray("actions");
+        synchronized (monitor.actions) {
+            monitor.actions.forEach(action -> actionsArray.add(action.deepCopy()));
+        }
+        return json;
+    }
+}
@@ -1,118 +1,314 @@
 package kafka.adminclient;
 
-import java.lang.InterruptedException;
-import java.util.Collection;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.kafka.clients.admin.AdminClient;
-import org.apache.kafka.clients.admin.DescribeTopicsResult;
-import org.apache.kafka.clients.admin.DeleteTopicsOptions;
+import org.apache.kafka.clients.admin.CreateTopicsOptions;
+import org.apache.kafka.clients.admin.CreateTopicsResult;
 import org.apache.kafka.clients.admin.DeleteTopicsResult;
-import org.apache.kafka.clients.admin.DescribeClusterResult;
-import org.apache.kafka.clients.admin.ListTopicsResult;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.ListTopicsOptions;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.admin.TopicDescription;
-import org.apache.kafka.clients.admin.TopicListing;
+import org.apache.kafka.common.KafkaFuture;
 
 public class KafkaTopicManager {
+    /**
+     * Default number of topics submitted per createTopics or deleteTopics call.
+     */
+    public static final int DEFAULT_TOPIC_BATCH_SIZE = 100;
+
     /**
      * Retrieves the cluster description as a JSON node.
      * Information included are the brokers and controllers running
-     * along with their ID and ports.
+     * along with their ID and ports. Served from {@link KafkaMetadataCache}.
      *
      * @param adminClient the Kafka admin client
      * @return the cluster description as a JSON node
      */
-    public static JsonNode describeCluster(AdminClient adminClient) {
-        try {
-            DescribeClusterResult clusterResult = adminClient.describeCluster();
-            return KafkaAdminClientUtils.formatClusterDescription(clusterResult);
-        } catch (ExecutionException | InterruptedException e) {
-            return KafkaAdminClientUtils.wrapError(e);
-        }
+    public static CompletableFuture<JsonNode> describeCluster(AdminClient adminClient) {
+        long startNs = System.nanoTime();
+        KafkaMetadataCache.Lookup<ClusterMetadata> lookup = KafkaMetadataCache.describeCluster(adminClient);
+        return lookup.future().handle((cluster, error) -> {
+                    if (error != null) {
+                        KafkaAdminMetrics.DESCRIBE_CLUSTER.record(startNs, error);
+                        return KafkaAdminClientUtils.wrapError(error);
+                    }
+                    long formatStartNs = System.nanoTime();
+                    JsonNode json = KafkaAdminClientUtils.addCacheInfo(KafkaAdminClientUtils.formatClusterDescription(cluster), lookup);
+                    KafkaAdminMetrics.DESCRIBE_CLUSTER.recordFormatting(formatStartNs);
+                    KafkaAdminMetrics.DESCRIBE_CLUSTER.record(startNs);
+                    return json;
+                })
+                .exceptionally(KafkaAdminClientUtils::wrapError);
     }
 
     /**
      * Retrieves the description of a Kafka topic as a JSON node.
      * Information returned includes the topic name, partitions, leader, replicas, and ISRs.
+     * Served from {@link KafkaMetadataCache}.
      *
      * @param adminClient the Kafka AdminClient instance
      * @param topicName   the name of the topic to describe
      * @return the description of the topic as a JSON node
      */
-    public static JsonNode describeTopic(AdminClient adminClient, String topicName) {
-        try {
-            DescribeTopicsResult result = adminClient.describeTopics(Collections.singleton(topicName));
-            TopicDescription topicDescription = result.topicNameValues().get(topicName).get();
+    public static CompletableFuture<JsonNode> describeTopic(AdminClient adminClient, String topicName) {
+        long startNs = System.nanoTime();
+        KafkaMetadataCache.Lookup<TopicDescription> lookup = KafkaMetadataCache.describeTopic(adminClient, topicName);
+        return lookup.future().handle((topicDescription, error) -> {
+                    if (error != null) {
+                        KafkaAdminMetrics.DESCRIBE_TOPIC.record(startNs, error);
+                        return KafkaAdminClientUtils.wrapError(error);
+                    }
+                    KafkaAdminMetrics.DESCRIBE_TOPIC.recordPartitions(topicDescription.partitions().size());
+                    long formatStartNs = System.nanoTime();
+                    JsonNode json = KafkaAdminClientUtils.addCacheInfo(
+                            KafkaAdminClientUtils.formatTopicDescription(topicDescription, topicName), lookup);
+                    KafkaAdminMetrics.DESCRIBE_TOPIC.recordFormatting(formatStartNs);
+                    KafkaAdminMetrics.DESCRIBE_TOPIC.record(startNs);
+                    return json;
+                })
+                .exceptionally(KafkaAdminClientUtils::wrapError);
+    }
 
-            return KafkaAdminClientUtils.formatTopicDescription(topicDescription, topicName);
-        } catch (ExecutionException | InterruptedException e) {
-            return KafkaAdminClientUtils.wrapError(e);
-        }
+    /**
+     * Retrieves the metadata of a page of topics in the Kafka cluster. The returned writer streams
+     * the JSON shape of {@link KafkaAdminClientUtils#formatTopicDescriptions} straight from the topic
+     * descriptions instead of going through an intermediate JSON tree, with a "nextCursor" field when
+     * more topics match the query.
+     *
+     * @param adminClient the Kafka AdminClient instance.
+     * @param query       the topics to describe.
+     * @return a writer of the page as JSON, or of the error message.
+     */
+    public static CompletableFuture<JsonWriter> describeTopics(AdminClient adminClient, TopicQuery query) {
+        return describeTopics(adminClient, query, ResponseFormat.JSON, false);
     }
 
     /**
-     * Retrieves the metadata of all topics in the Kafka cluster and returns it as a JSON node.
-     * Information returned for each topic is the same as that returned by the describeTopic method.
+     * Retrieves the metadata of a page of topics in the Kafka cluster, streamed in the given encoding
+     * and, optionally, in the columnar layout of {@link KafkaAdminClientUtils#writeTopicColumns}.
      *
      * @param adminClient the Kafka AdminClient instance.
-     * @return a JSON node containing the metadata of all topics.
+     * @param query       the topics to describe.
+     * @param format      the encoding of the page, and of the error message.
+     * @param columnar    whether to write the partitions column by column instead of topic by topic.
+     * @return a writer of the page, or of the error message.
+     */
+    public static CompletableFuture<JsonWriter> describeTopics(AdminClient adminClient, TopicQuery query, ResponseFormat format,
+                                                               boolean columnar) {
+        long startNs = System.nanoTime();
+        KafkaMetadataCache.Lookup<TopicPage> lookup = KafkaMetadataCache.describeTopics(adminClient, query);
+        return lookup.future().handle((page, error) -> {
+            KafkaAdminMetrics.DESCRIBE_ALL_TOPICS.record(startNs, error);
+            if (error != null) {
+                JsonNode errorJson = KafkaAdminClientUtils.wrapError(error);
+                return out -> KafkaAdminClientUtils.writeJson(out, format, errorJson);
+            }
+            KafkaAdminMetrics.DESCRIBE_ALL_TOPICS.recordPartitions(page.partitionCount());
+            return out -> {
+                // Streaming interleaves formatting with writing to the client, so both are timed together
+                long formatStartNs = System.nanoTime();
+                try (OutputStream counted = KafkaAdminMetrics.countingResponse(out)) {
+                    if (columnar) {
+                        KafkaAdminClientUtils.writeTopicColumns(counted, format, page, lookup);
+                    } else {
+                        KafkaAdminClientUtils.writeTopicDescriptions(counted, format, page, lookup);
+                    }
+                }
+                KafkaAdminMetrics.DESCRIBE_ALL_TOPICS.recordFormatting(formatStartNs);
+            };
+        });
+    }
+
+    /**
+     * Lists the topic names and describes only those in the requested page, as parallel
+     * describeTopics calls of at most query.chunkSize() topics each.
      */
-    public static JsonNode describeAllTopics(AdminClient adminClient) {
-        try {
-            // List topics
-            ListTopicsResult listTopicsResult = adminClient.listTopics();
-            Collection<TopicListing> topics = listTopicsResult.listings().get();
+    static CompletableFuture<TopicPage> loadTopicPage(AdminClient adminClient, TopicQuery query) {
+        ListTopicsOptions options = new ListTopicsOptions().listInternal(query.includeInternal());
+        long listStartNs = System.nanoTime();
+        return adminClient.listTopics(options).names().toCompletionStage().toCompletableFuture().thenCompose(topicNames -> {
+            KafkaAdminMetrics.LIST_TOPICS_CALL.record(listStartNs);
+            List<String> names = query.page(topicNames);
+            String nextCursor = null;
+            if (query.limit() != 0 && names.size() > query.limit()) {
+                names = names.subList(0, query.limit());
+                nextCursor = names.get(names.size() - 1);
+            }
+            List<String> pageNames = names;
 
-            // Describe topics to get metadata
-            DescribeTopicsResult describeTopicsResult = adminClient.describeTopics(topics.stream().map(TopicListing::name).toList());
-            Map<String, TopicDescription> topicDescriptions = describeTopicsResult.allTopicNames().get(); 
-            
-            return KafkaAdminClientUtils.formatTopicDescriptions(topicDescriptions);
-        } catch (ExecutionException | InterruptedException e) {
-            return KafkaAdminClientUtils.wrapError(e);
-        }
+            List<CompletableFuture<Map<String, TopicDescription>>> chunks = new ArrayList<>();
+            long describeStartNs = System.nanoTime();
+            for (int i = 0; i < pageNames.size(); i += query.chunkSize()) {
+                List<String> chunk = pageNames.subList(i, Math.min(i + query.chunkSize(), pageNames.size()));
+                chunks.add(adminClient.describeTopics(chunk).allTopicNames().toCompletionStage().toCompletableFuture());
+            }
+
+            String cursor = nextCursor;
+            return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+                KafkaAdminMetrics.DESCRIBE_TOPICS_CALL.record(describeStartNs, chunks.size());
+                Map<String, TopicDescription> described = new HashMap<>();
+                chunks.forEach(chunk -> described.putAll(chunk.join()));
+                Map<String, TopicDescription> topics = new LinkedHashMap<>();
+                for (String name : pageNames) {
+                    TopicDescription topicDescription = described.get(name);
+                    if (topicDescription != null) {
+                        topics.put(name, topicDescription);
+                    }
+                }
+                return new TopicPage(topics, cursor);
+            });
+        });
     }
-    
+
     /**
-     * Creates a new topic with the specified name, number of partitions, and replication factor.
-     * 
-     * @param topicName         the name of the topic to create.
-     * @param partitions        the number of partitions for the topic.
-     * @param replicationFactor the replication factor for the topic.
+     * Creates a topic, optionally with an explicit replica assignment computed by
+     * {@link KafkaReplicaPlacer} instead of the broker's default placement.
+     *
+     * @param topic             the topic to create.
+     * @param balancedPlacement whether to spread replicas across racks and towards the least loaded brokers.
+     * @param validateOnly      whether to only check that the topic could be created.
      * @param adminClient       the AdminClient instance.
-     * @return null if the topic was successfully created, or a JsonNode object containing the error message.
+     * @return a JsonNode object containing the result of the topic, as returned by {@link #createTopics}.
      */
-    public static JsonNode createTopic(String topicName, 
-                        int partitions, short replicationFactor, AdminClient adminClient) {
-        try {
-            NewTopic newTopic = new NewTopic(topicName, partitions, replicationFactor);
-            adminClient.createTopics(Collections.singleton(newTopic)).all().get();
-            return null;
-        } catch (ExecutionException | InterruptedException e) {
-            return KafkaAdminClientUtils.wrapError(e);
+    public static CompletableFuture<JsonNode> createTopic(TopicSpec topic, boolean balancedPlacement, boolean validateOnly,
+                                                          AdminClient adminClient) {
+        if (!balancedPlacement) {
+            return createTopics(Collections.singletonList(topic), validateOnly, DEFAULT_TOPIC_BATCH_SIZE, adminClient);
         }
+        if (topic.partitions() == -1 || topic.replicationFactor() == -1) {
+            return CompletableFuture.completedFuture(KafkaAdminClientUtils.wrapError(new IllegalArgumentException(
+                    "Balanced placement needs numPartitions and replicationFactor")));
+        }
+        return KafkaReplicaPlacer.place(adminClient, topic.partitions(), topic.replicationFactor())
+                .thenCompose(assignment -> createTopics(Collections.singletonList(topic.withAssignment(assignment)),
+                        validateOnly, DEFAULT_TOPIC_BATCH_SIZE, adminClient))
+                .exceptionally(KafkaAdminClientUtils::wrapError);
     }
-    
+
     /**
-     * Deletes the specified topics from the Kafka cluster.
-     * 
-     * @param topicsToDelete the list of topics to delete
+     * Creates topics in createTopics calls of at most batchSize topics each, all submitted up front,
+     * and reports the outcome of every topic. Created topics are reported with the number of partitions,
+     * replication factor and ID the controller gave them.
+     *
+     * @param topics       the topics to create.
+     * @param validateOnly whether to only check that the topics could be created, without creating them.
+     * @param batchSize    the maximum number of topics per createTopics call.
+     * @param adminClient  the AdminClient instance.
+     * @return a JsonNode object containing the result of every topic in the request, or an error if
+     * batchSize is not positive or a topic is listed more than once.
+     */
+    public static CompletableFuture<JsonNode> createTopics(List<TopicSpec> topics, boolean validateOnly, int batchSize,
+                                                           AdminClient adminClient) {
+        if (batchSize <= 0) {
+            return CompletableFuture.completedFuture(KafkaAdminClientUtils.wrapError(new IllegalArgumentException(
+                    "batchSize must be positive, got " + batchSize)));
+        }
+        // A name in two chunks would get two results, and the later one would hide the earlier
+        Set<String> names = new LinkedHashSet<>();
+        for (TopicSpec topic : topics) {
+            if (!names.add(topic.name())) {
+                return CompletableFuture.completedFuture(KafkaAdminClientUtils.wrapError(new IllegalArgumentException(
+                        "Topic " + topic.name() + " is listed more than once")));
+            }
+        }
+        long startNs = System.nanoTime();
+        KafkaAdminMetrics.CREATE_TOPIC.recordPartitions(topics.stream().mapToInt(topic -> Math.max(topic.partitions(), 0)).sum());
+        CreateTopicsOptions options = new CreateTopicsOptions().validateOnly(validateOnly);
+        Map<String, KafkaFuture<Void>> futures = new HashMap<>();
+        Map<String, CreateTopicsResult> createResults = new HashMap<>();
+        long callStartNs = System.nanoTime();
+        for (int i = 0; i < topics.size(); i += batchSize) {
+            List<NewTopic> chunk = new ArrayList<>();
+            for (TopicSpec topic : topics.subList(i, Math.min(i + batchSize, topics.size()))) {
+                chunk.add(topic.toNewTopic());
+            }
+            CreateTopicsResult result = adminClient.createTopics(chunk, options);
+            futures.putAll(result.values());
+            result.values().keySet().forEach(name -> createResults.put(name, result));
+        }
+
+        int calls = (topics.size() + batchSize - 1) / batchSize;
+        return KafkaAdminClientUtils.collectResults(names, futures, KafkaAdminMetrics.CREATE_TOPICS_CALL, callStartNs, calls)
+                .handle((results, error) -> {
+                    if (error != null) {
+                        KafkaAdminMetrics.CREATE_TOPIC.record(startNs, error);
+                        return KafkaAdminClientUtils.wrapError(error);
+                    }
+                    if (!validateOnly) {
+                        KafkaMetadataCache.invalidateTopics(adminClient, names);
+                    }
+                    KafkaAdminMetrics.CREATE_TOPIC.recordErrors(results);
+                    long formatStartNs = System.nanoTime();
+                    JsonNode json = KafkaAdminClientUtils.formatTopicResults(results, createResults, validateOnly);
+                    KafkaAdminMetrics.CREATE_TOPIC.recordFormatting(formatStartNs);
+                    KafkaAdminMetrics.CREATE_TOPIC.record(startNs);
+                    return json;
+                })
+                .exceptionally(KafkaAdminClientUtils::wrapError);
+    }
+
+    /**
+     * Deletes topics in deleteTopics calls of at most batchSize topics each, all submitted up front,
+     * and reports the outcome of every topic. Kafka has no dry run for deletes, so validateOnly only
+     * checks that the topics exist.
+     *
+     * @param topicsToDelete the names of the topics to delete
+     * @param validateOnly   whether to only check that the topics exist, without deleting them
+     * @param batchSize      the maximum number of topics per deleteTopics call
      * @param adminClient    the Kafka AdminClient instance
-     * @return null if the topics were successfully deleted, or a JsonNode object containing the error message.
+     * @return a JsonNode object containing the result of every topic in the request, or an error if
+     * batchSize is not positive.
      */
-    public static JsonNode deleteTopics(List<String> topicsToDelete, AdminClient adminClient) {
-        try {
-            DeleteTopicsOptions options = new DeleteTopicsOptions();
-            DeleteTopicsResult result = adminClient.deleteTopics(topicsToDelete, options);
-            result.all().get();
-            return null;
-        } catch (ExecutionException | InterruptedException e) {
-            return KafkaAdminClientUtils.wrapError(e);
+    public static CompletableFuture<JsonNode> deleteTopics(List<String> topicsToDelete, boolean validateOnly, int batchSize,
+                                                           AdminClient adminClient) {
+        if (batchSize <= 0) {
+            return CompletableFuture.completedFuture(KafkaAdminClientUtils.wrapError(new IllegalArgumentException(
+                    "batchSize must be positive, got " + batchSize)));
         }
+        long startNs = System.nanoTime();
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(topicsToDelete));
+        Map<String, KafkaFuture<Void>> futures = new HashMap<>();
+        long callStartNs = System.nanoTime();
+        for (int i = 0; i < names.size(); i += batchSize) {
+            List<String> chunk = names.subList(i, Math.min(i + batchSize, names.size()));
+            if (validateOnly) {
+                DescribeTopicsResult result = adminClient.describeTopics(chunk);
+                result.topicNameValues().forEach((name, future) -> futures.put(name, future.thenApply(description -> (Void) null)));
+            } else {
+                DeleteTopicsResult result = adminClient.deleteTopics(chunk);
+                futures.putAll(result.topicNameValues());
+            }
+        }
+
+        int calls = (names.size() + batchSize - 1) / batchSize;
+        KafkaAdminMetrics.RoundTrip roundTrip = validateOnly ? KafkaAdminMetrics.DESCRIBE_TOPICS_CALL : KafkaAdminMetrics.DELETE_TOPICS_CALL;
+        return KafkaAdminClientUtils.collectResults(names, futures, roundTrip, callStartNs, calls)
+                .handle((results, error) -> {
+                    if (error != null) {
+                        KafkaAdminMetrics.DELETE_TOPICS.record(startNs, error);
+                        return KafkaAdminClientUtils.wrapError(error);
+                    }
+                    if (!validateOnly) {
+                        // Some topics may have been deleted even if others failed
+                        KafkaMetadataCache.invalidateTopics(adminClient, names);
+                    }
+                    KafkaAdminMetrics.DELETE_TOPICS.recordErrors(results);
+                    JsonNode json = KafkaAdminClientUtils.formatTopicResults(results, Map.of(), validateOnly);
+                    KafkaAdminMetrics.DELETE_TOPICS.record(startNs);
+                    return json;
+                })
+                .exceptionally(KafkaAdminClientUtils::wrapError);
     }
 }
@@ -0,0 +1,47 @@
+package kafka.adminclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Goals and limits of a log-dir balance computed and executed by {@link KafkaLogDirBalancer}.
+ *
+ * @param diskTolerance     the gap between the most and least loaded log dirs of a broker, as a fraction of their mean load, left unbalanced
+ * @param maxMoves          the maximum number of replicas to move, or 0 for no limit
+ * @param maxBytesMoved     the maximum total size of the replicas to move, or 0 for no limit
+ * @param maxMovesPerBroker the maximum number of replicas copied between the log dirs of a broker at the same time
+ * @param ioRateBytes       the replica.alter.log.dirs.io.max.bytes.per.second throttle of the brokers in bytes/s, or 0 to leave them unthrottled
+ */
+public record LogDirBalanceOptions(double diskTolerance, int maxMoves, long maxBytesMoved, int maxMovesPerBroker, long ioRateBytes) {
+    public static final double DEFAULT_DISK_TOLERANCE = 0.05;
+    public static final int DEFAULT_MAX_MOVES_PER_BROKER = 2;
+
+    public static final LogDirBalanceOptions DEFAULT = new LogDirBalanceOptions(DEFAULT_DISK_TOLERANCE, 0, 0, DEFAULT_MAX_MOVES_PER_BROKER, 0);
+
+    public LogDirBalanceOptions {
+        if (diskTolerance < 0 || maxMoves < 0 || maxBytesMoved < 0 || ioRateBytes < 0) {
+            throw new IllegalArgumentException("Log dir balance limits must not be negative");
+        }
+        if (maxMovesPerBroker <= 0) {
+            throw new IllegalArgumentException("maxMovesPerBroker must be positive, got " + maxMovesPerBroker);
+        }
+    }
+
+    /**
+     * Reads the options from a request payload such as {"diskTolerance":0.1,"maxMovesPerBroker":1,"ioRateBytes":52428800},
+     * falling back to the defaults for missing fields.
+     *
+     * @param node the request payload, or null
+     * @return the options, or {@link #DEFAULT} if the payload is missing.
+     */
+    public static LogDirBalanceOptions fromJson(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return DEFAULT;
+        }
+        return new LogDirBalanceOptions(
+                node.path("diskTolerance").asDouble(DEFAULT_DISK_TOLERANCE),
+                node.path("maxMoves").asInt(0),
+                node.path("maxBytesMoved").asLong(0),
+                node.path("maxMovesPerBroker").asInt(DEFAULT_MAX_MOVES_PER_BROKER),
+                node.path("ioRateBytes").asLong(0));
+    }
+}
@@ -0,0 +1,224 @@
+package kafka.adminclient;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DescribeReplicaLogDirsResult.ReplicaLogDirInfo;
+import org.apache.kafka.common.TopicPartitionReplica;
+
+/**
+ * State of a log-dir balance executed by {@link KafkaLogDirBalancer}. A move is pending until it is
+ * sent with alterReplicaLogDirs, then in progress until describeReplicaLogDirs reports the replica
+ * in its target dir with no future replica left. A move the broker acknowledged but then dropped,
+ * which leaves the replica in its source dir with no future replica, is recorded as failed. At most
+ * maxMovesPerBroker moves of a broker are in progress at the same time. All mutators are
+ * synchronized since the poller, the admin client callbacks and HTTP threads share a job.
+ */
+class LogDirJob {
+    enum State { RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    record Status(String id, State state, long createdAtMs, long finishedAtMs, int movesTotal, int movesPending,
+                  int movesInProgress, int movesCompleted, long bytesTotal, long bytesCompleted, long offsetLag,
+                  String error, Map<TopicPartitionReplica, String> failures, int maxMovesPerBroker, long ioRateBytes) {}
+
+    final String id;
+    final AdminClient adminClient;
+    final int maxMovesPerBroker;
+    final long ioRateBytes;
+    final Set<Integer> brokers = new TreeSet<>();
+    final long createdAtMs = System.currentTimeMillis();
+
+    private State state = State.RUNNING;
+    private String error;
+    private long finishedAtMs;
+    private final int movesTotal;
+    private final long bytesTotal;
+    private int completed;
+    private long bytesCompleted;
+    private long offsetLag;
+    private boolean throttleApplied;
+    private final Deque<LogDirPlan.Move> pending = new ArrayDeque<>();
+    private final Map<TopicPartitionReplica, LogDirPlan.Move> inProgress = new LinkedHashMap<>();
+    private final Set<TopicPartitionReplica> accepted = new HashSet<>();
+    private final Map<Integer, Integer> inProgressByBroker = new HashMap<>();
+    private final Map<TopicPartitionReplica, String> failures = new LinkedHashMap<>();
+
+    LogDirJob(String id, AdminClient adminClient, List<LogDirPlan.Move> moves, int maxMovesPerBroker, long ioRateBytes) {
+        this.id = id;
+        this.adminClient = adminClient;
+        this.maxMovesPerBroker = maxMovesPerBroker;
+        this.ioRateBytes = ioRateBytes;
+        this.movesTotal = moves.size();
+        long bytes = 0;
+        for (LogDirPlan.Move move : moves) {
+            pending.add(move);
+            brokers.add(move.replica().brokerId());
+            bytes += move.sizeBytes();
+        }
+        this.bytesTotal = bytes;
+    }
+
+    synchronized boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    synchronized boolean isFinishedBefore(long timeMs) {
+        return finishedAtMs != 0 && finishedAtMs < timeMs;
+    }
+
+    synchronized void throttleApplied() {
+        throttleApplied = true;
+    }
+
+    /**
+     * @return whether the job set a throttle that is still to be removed, in which case the caller removes it.
+     */
+    synchronized boolean takeThrottle() {
+        if (state == State.RUNNING || !throttleApplied) {
+            return false;
+        }
+        throttleApplied = false;
+        return true;
+    }
+
+    /**
+     * Takes the pending moves whose broker has a free slot and marks them in progress.
+     *
+     * @return the target dir of every replica to move now.
+     */
+    synchronized Map<TopicPartitionReplica, String> takeNextMoves() {
+        Map<TopicPartitionReplica, String> next = new HashMap<>();
+        if (state != State.RUNNING) {
+            return next;
+        }
+        Iterator<LogDirPlan.Move> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            LogDirPlan.Move move = iterator.next();
+            int broker = move.replica().brokerId();
+            if (inProgressByBroker.getOrDefault(broker, 0) < maxMovesPerBroker) {
+                iterator.remove();
+                inProgress.put(move.replica(), move);
+                inProgressByBroker.merge(broker, 1, Integer::sum);
+                next.put(move.replica(), move.targetDir());
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Records the outcome of submitting a move. A rejected move is recorded as failed and frees its slot.
+     */
+    synchronized void onSubmitted(TopicPartitionReplica replica, Throwable error) {
+        if (!inProgress.containsKey(replica)) {
+            return;
+        }
+        if (error != null) {
+            release(replica);
+            failures.put(replica, KafkaAdminClientUtils.unwrap(error).getMessage());
+        } else {
+            accepted.add(replica);
+        }
+    }
+
+    synchronized Set<TopicPartitionReplica> inProgressReplicas() {
+        return Set.copyOf(inProgress.keySet());
+    }
+
+    /**
+     * @return the moves in progress the broker acknowledged, and so created a future replica for.
+     */
+    synchronized Set<TopicPartitionReplica> acceptedReplicas() {
+        return Set.copyOf(accepted);
+    }
+
+    /**
+     * Marks the moves whose replica is now in its target dir as completed, and sums the offset lag
+     * of the future replicas still catching up. A move is failed if its replica left the broker, or if
+     * it is back in its source dir with no future replica although the broker had acknowledged it.
+     *
+     * @param acceptedBefore the moves acknowledged before the replica log dirs were described
+     */
+    synchronized void update(Set<TopicPartitionReplica> acceptedBefore, Map<TopicPartitionReplica, ReplicaLogDirInfo> infos) {
+        long lag = 0;
+        for (Map.Entry<TopicPartitionReplica, ReplicaLogDirInfo> entry : infos.entrySet()) {
+            LogDirPlan.Move move = inProgress.get(entry.getKey());
+            if (move == null) {
+                continue;
+            }
+            ReplicaLogDirInfo info = entry.getValue();
+            if (info.getCurrentReplicaLogDir() == null) {
+                release(entry.getKey());
+                failures.put(entry.getKey(), "The replica is no longer on the broker");
+            } else if (info.getFutureReplicaLogDir() == null && move.targetDir().equals(info.getCurrentReplicaLogDir())) {
+                release(entry.getKey());
+                completed++;
+                bytesCompleted += move.sizeBytes();
+            } else if (info.getFutureReplicaLogDir() == null && move.sourceDir().equals(info.getCurrentReplicaLogDir())
+                    && acceptedBefore.contains(entry.getKey())) {
+                release(entry.getKey());
+                failures.put(entry.getKey(), "The broker dropped the move, the replica is still in its source dir");
+            } else if (info.getFutureReplicaLogDir() != null) {
+                lag += Math.max(0, info.getFutureReplicaOffsetLag());
+            }
+        }
+        offsetLag = lag;
+    }
+
+    /**
+     * Completes the job once no move is pending or in progress.
+     */
+    synchronized void finishIfDrained() {
+        if (state == State.RUNNING && pending.isEmpty() && inProgress.isEmpty()) {
+            state = State.COMPLETED;
+            finishedAtMs = System.currentTimeMillis();
+        }
+    }
+
+    synchronized void fail(Throwable cause) {
+        if (state != State.RUNNING) {
+            return;
+        }
+        state = State.FAILED;
+        error = KafkaAdminClientUtils.unwrap(cause).getMessage();
+        finishedAtMs = System.currentTimeMillis();
+    }
+
+    /**
+     * Cancels the job, dropping its pending moves.
+     *
+     * @return the moves in progress, to send back to their source dir, or null if the job already ended.
+     */
+    synchronized List<LogDirPlan.Move> cancel() {
+        if (state != State.RUNNING) {
+            return null;
+        }
+        List<LogDirPlan.Move> moving = List.copyOf(inProgress.values());
+        pending.clear();
+        inProgress.clear();
+        accepted.clear();
+        inProgressByBroker.clear();
+        state = State.CANCELLED;
+        finishedAtMs = System.currentTimeMillis();
+        return moving;
+    }
+
+    synchronized Status status() {
+        return new Status(id, state, createdAtMs, finishedAtMs, movesTotal, pending.size(), inProgress.size(), completed,
+                bytesTotal, bytesCompleted, offsetLag, error, new LinkedHashMap<>(failures), maxMovesPerBroker, ioRateBytes);
+    }
+
+    private void release(TopicPartitionReplica replica) {
+        inProgress.remove(replica);
+        accepted.remove(replica);
+        inProgressByBroker.merge(replica.brokerId(), -1, Integer::sum);
+    }
+}
@@ -0,0 +1,28 @@
+package kafka.adminclient;
+
+import java.util.List;
+
+import org.apache.kafka.common.TopicPartitionReplica;
+
+/**
+ * Replica moves between the log dirs of each broker, computed by {@link KafkaLogDirBalancer}.
+ *
+ * @param moves      the replicas to move, each within its broker
+ * @param bytesMoved the total size of the replicas to move
+ * @param dirs       the usage of every log dir before and after the plan, ordered by broker and path
+ * @param planningMs how long computing the plan took, excluding the metadata requests
+ */
+public record LogDirPlan(List<Move> moves, long bytesMoved, List<Dir> dirs, long planningMs) {
+    /**
+     * A replica to copy from one log dir of its broker to another.
+     */
+    public record Move(TopicPartitionReplica replica, String sourceDir, String targetDir, long sizeBytes) {}
+
+    /**
+     * A log dir of a broker.
+     *
+     * @param totalBytes the capacity of the dir, or -1 if the broker does not report it
+     * @param error      why the dir is offline, or null if it is online
+     */
+    public record Dir(int brokerId, String path, long totalBytes, long bytesBefore, long bytesAfter, String error) {}
+}
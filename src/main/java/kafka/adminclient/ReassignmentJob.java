@@ -0,0 +1,286 @@
+package kafka.adminclient;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewPartitionReassignment;
+import org.apache.kafka.clients.admin.PartitionReassignment;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * State of a single asynchronous reassignment tracked by {@link KafkaReassignmentJobManager}.
+ * A partition moves from pending to submitting once its reassignment is sent, to in progress once
+ * the controller accepts it, and is done when it no longer shows up in listPartitionReassignments.
+ * Without a throttle every partition is submitted at once; with one, partitions are submitted in
+ * waves bounded by the throttle's limits and the next wave is resized from how long the last one took.
+ * All mutators are synchronized since the poller, the admin client callbacks and HTTP threads share a job.
+ */
+class ReassignmentJob {
+    enum State { PLANNING, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    /**
+     * A single partition move. brokers holds the current leader and every broker receiving a new
+     * replica, which are the brokers the move counts against in a wave.
+     */
+    record Move(TopicPartition topicPartition, List<Integer> targetReplicas, int[] brokers, long sizeBytes) {}
+
+    record Status(String id, String type, State state, long createdAtMs, long finishedAtMs,
+                  int partitionsTotal, int partitionsPending, int partitionsInProgress,
+                  int partitionsCompleted, long bytesRemaining, String error,
+                  Map<TopicPartition, Throwable> failures, ReassignmentThrottle throttle, int wave, int waveSize) {}
+
+    final String id;
+    final String type;
+    final AdminClient adminClient;
+    final int batchSize;
+    final Set<TopicPartition> electOnCompletion;
+    final ReassignmentThrottle throttle;
+    final long createdAtMs = System.currentTimeMillis();
+
+    private State state = State.PLANNING;
+    private String error;
+    private long finishedAtMs;
+    private boolean finishing;
+    private int completed;
+    private long bytesRemaining;
+    private boolean throttleApplied;
+    private int wave;
+    private int waveSize;
+    private long waveStartedMs;
+    private final Map<TopicPartition, Move> moves = new LinkedHashMap<>();
+    private final Set<TopicPartition> currentWave = new HashSet<>();
+    private final Deque<TopicPartition> pending = new ArrayDeque<>();
+    private final Set<TopicPartition> submitting = new HashSet<>();
+    private final Set<TopicPartition> inProgress = new HashSet<>();
+    private final Map<TopicPartition, Throwable> failures = new LinkedHashMap<>();
+
+    ReassignmentJob(String id, String type, AdminClient adminClient, int batchSize, Set<TopicPartition> electOnCompletion,
+                    ReassignmentThrottle throttle) {
+        this.id = id;
+        this.type = type;
+        this.adminClient = adminClient;
+        this.batchSize = batchSize;
+        this.electOnCompletion = electOnCompletion;
+        this.throttle = throttle;
+        this.waveSize = throttle == null ? 0 : throttle.initialWaveSize();
+    }
+
+    /**
+     * Starts the job with its planned moves.
+     *
+     * @param throttled whether replication throttles were set for the moves and have to be removed when the job ends
+     */
+    synchronized void plan(Map<TopicPartition, Move> plannedMoves, boolean throttled) {
+        throttleApplied = throttled;
+        moves.putAll(plannedMoves);
+        if (state != State.PLANNING) {
+            return;
+        }
+        pending.addAll(plannedMoves.keySet());
+        state = State.RUNNING;
+    }
+
+    synchronized Map<TopicPartition, Optional<NewPartitionReassignment>> takeNextWave() {
+        Map<TopicPartition, Optional<NewPartitionReassignment>> next = new HashMap<>();
+        if (state != State.RUNNING || pending.isEmpty()) {
+            return next;
+        }
+        if (throttle == null) {
+            while (!pending.isEmpty()) {
+                addToWave(next, pending.poll());
+            }
+            return next;
+        }
+        if (!currentWave.isEmpty()) {
+            return next;
+        }
+
+        // Scale the wave by how far the last one was from the target duration, at most halving or doubling it
+        long now = System.currentTimeMillis();
+        if (waveStartedMs != 0) {
+            long elapsedMs = Math.max(1, now - waveStartedMs);
+            long scaled = waveSize * throttle.targetWaveMs() / elapsedMs;
+            waveSize = (int) Math.max(Math.max(1, waveSize / 2), Math.min(2L * waveSize, scaled));
+        }
+
+        Map<Integer, Integer> movesPerBroker = new HashMap<>();
+        long waveBytes = 0;
+        Iterator<TopicPartition> iterator = pending.iterator();
+        while (iterator.hasNext() && next.size() < waveSize) {
+            Move move = moves.get(iterator.next());
+            if (!next.isEmpty() && waveBytes + move.sizeBytes() > throttle.maxInflightBytes()) {
+                continue;
+            }
+            boolean brokerAtLimit = false;
+            for (int broker : move.brokers()) {
+                if (movesPerBroker.getOrDefault(broker, 0) >= throttle.maxMovesPerBroker()) {
+                    brokerAtLimit = true;
+                    break;
+                }
+            }
+            if (brokerAtLimit) {
+                continue;
+            }
+            for (int broker : move.brokers()) {
+                movesPerBroker.merge(broker, 1, Integer::sum);
+            }
+            waveBytes += move.sizeBytes();
+            iterator.remove();
+            addToWave(next, move.topicPartition());
+            currentWave.add(move.topicPartition());
+        }
+        wave++;
+        waveStartedMs = now;
+        return next;
+    }
+
+    private void addToWave(Map<TopicPartition, Optional<NewPartitionReassignment>> next, TopicPartition topicPartition) {
+        next.put(topicPartition, Optional.of(new NewPartitionReassignment(moves.get(topicPartition).targetReplicas())));
+        submitting.add(topicPartition);
+    }
+
+    /**
+     * Records the controller's answer to a submitted reassignment.
+     *
+     * @return true if the reassignment was accepted after the job got cancelled and has to be reverted.
+     */
+    synchronized boolean onSubmitted(TopicPartition topicPartition, Throwable submitError) {
+        submitting.remove(topicPartition);
+        if (submitError != null) {
+            currentWave.remove(topicPartition);
+            failures.put(topicPartition, submitError);
+            return false;
+        }
+        if (state == State.CANCELLED) {
+            return true;
+        }
+        inProgress.add(topicPartition);
+        return false;
+    }
+
+    synchronized Set<TopicPartition> inProgressPartitions() {
+        return new HashSet<>(inProgress);
+    }
+
+    /**
+     * Marks every in-progress partition the controller no longer reports as reassigning as completed.
+     * Only partitions that were part of the poll count: those accepted while it was in flight were
+     * not asked about, so their absence from ongoing says nothing.
+     *
+     * @param tracked the partitions listPartitionReassignments was asked about
+     */
+    synchronized void update(Set<TopicPartition> tracked, Map<TopicPartition, PartitionReassignment> ongoing,
+                             Map<TopicPartition, Long> bytesRemainingByPartition) {
+        if (state != State.RUNNING) {
+            return;
+        }
+        long remaining = 0;
+        int before = inProgress.size();
+        inProgress.removeIf(topicPartition -> {
+            if (!tracked.contains(topicPartition) || ongoing.containsKey(topicPartition)) {
+                return false;
+            }
+            currentWave.remove(topicPartition);
+            return true;
+        });
+        completed += before - inProgress.size();
+        for (TopicPartition topicPartition : inProgress) {
+            remaining += bytesRemainingByPartition.getOrDefault(topicPartition, 0L);
+        }
+        bytesRemaining = remaining;
+        error = null;
+    }
+
+    synchronized void pollFailed(Throwable pollError) {
+        error = "Progress poll failed: " + (pollError.getMessage() != null ? pollError.getMessage() : pollError.getClass().getSimpleName());
+    }
+
+    /**
+     * @return true exactly once, when every partition has either completed or failed.
+     */
+    synchronized boolean beginFinish() {
+        if (state != State.RUNNING || finishing || !pending.isEmpty() || !submitting.isEmpty() || !inProgress.isEmpty()) {
+            return false;
+        }
+        finishing = true;
+        return true;
+    }
+
+    synchronized void finish(Map<TopicPartition, Optional<Throwable>> electionResults) {
+        if (state != State.RUNNING) {
+            return;
+        }
+        electionResults.forEach((topicPartition, electionError) -> electionError.ifPresent(e -> failures.put(topicPartition, e)));
+        state = completed == 0 && !failures.isEmpty() ? State.FAILED : State.COMPLETED;
+        finishedAtMs = System.currentTimeMillis();
+    }
+
+    synchronized void fail(Throwable cause) {
+        if (state == State.PLANNING || state == State.RUNNING) {
+            state = State.FAILED;
+            error = cause.getMessage();
+            finishedAtMs = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Cancels the job, dropping partitions that have not been submitted yet.
+     *
+     * @return the partitions whose reassignment is in progress and must be reverted, or null if the job already finished.
+     */
+    synchronized Set<TopicPartition> cancel() {
+        if (state != State.PLANNING && state != State.RUNNING) {
+            return null;
+        }
+        state = State.CANCELLED;
+        finishedAtMs = System.currentTimeMillis();
+        pending.clear();
+        Set<TopicPartition> toRevert = new HashSet<>(inProgress);
+        inProgress.clear();
+        currentWave.clear();
+        bytesRemaining = 0;
+        return toRevert;
+    }
+
+    /**
+     * @return the moves whose replication throttles have to be removed, exactly once after the job ended
+     * with throttles applied, and null otherwise.
+     */
+    synchronized List<Move> takeThrottledMoves() {
+        if (!throttleApplied || state == State.PLANNING || state == State.RUNNING) {
+            return null;
+        }
+        throttleApplied = false;
+        return new ArrayList<>(moves.values());
+    }
+
+    synchronized Set<String> topics() {
+        return KafkaPartitionManager.topicsOf(moves.keySet());
+    }
+
+    synchronized boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    synchronized boolean isFinishedBefore(long timestampMs) {
+        return finishedAtMs != 0 && finishedAtMs < timestampMs;
+    }
+
+    synchronized Status status() {
+        return new Status(id, type, state, createdAtMs, finishedAtMs,
+                moves.size(), pending.size() + submitting.size(), inProgress.size(),
+                completed, bytesRemaining, error, Collections.unmodifiableMap(new LinkedHashMap<>(failures)),
+                throttle, wave, waveSize);
+    }
+}
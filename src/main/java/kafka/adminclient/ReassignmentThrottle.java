@@ -0,0 +1,46 @@
+package kafka.adminclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Limits applied by {@link KafkaReassignmentJobManager} when executing a plan in waves.
+ *
+ * @param maxMovesPerBroker    the maximum number of moves in a wave that send from or copy to the same broker
+ * @param maxInflightBytes     the maximum total size of the partitions moved in a wave
+ * @param replicationRateBytes the leader and follower replication throttle in bytes/s, or 0 to leave the brokers unthrottled
+ * @param initialWaveSize      the number of moves in the first wave
+ * @param targetWaveMs         the wave duration the executor aims for when resizing the next wave
+ */
+public record ReassignmentThrottle(int maxMovesPerBroker, long maxInflightBytes, long replicationRateBytes,
+                                   int initialWaveSize, long targetWaveMs) {
+    public static final int DEFAULT_MAX_MOVES_PER_BROKER = 5;
+    public static final long DEFAULT_MAX_INFLIGHT_BYTES = 10L * 1024 * 1024 * 1024;
+    public static final long DEFAULT_REPLICATION_RATE_BYTES = 50L * 1024 * 1024;
+    public static final int DEFAULT_INITIAL_WAVE_SIZE = 10;
+    public static final long DEFAULT_TARGET_WAVE_MS = 60_000;
+
+    public ReassignmentThrottle {
+        if (maxMovesPerBroker <= 0 || maxInflightBytes <= 0 || initialWaveSize <= 0 || targetWaveMs <= 0) {
+            throw new IllegalArgumentException("Throttle limits must be positive");
+        }
+    }
+
+    /**
+     * Reads the throttle from a request payload such as {"maxMovesPerBroker":2,"replicationRateBytes":10485760},
+     * falling back to the defaults for missing fields.
+     *
+     * @param node the "throttle" field of the payload
+     * @return the throttle, or null if the payload has no throttle.
+     */
+    public static ReassignmentThrottle fromJson(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        return new ReassignmentThrottle(
+                node.path("maxMovesPerBroker").asInt(DEFAULT_MAX_MOVES_PER_BROKER),
+                node.path("maxInflightBytes").asLong(DEFAULT_MAX_INFLIGHT_BYTES),
+                node.path("replicationRateBytes").asLong(DEFAULT_REPLICATION_RATE_BYTES),
+                node.path("initialWaveSize").asInt(DEFAULT_INITIAL_WAVE_SIZE),
+                node.path("targetWaveMs").asLong(DEFAULT_TARGET_WAVE_MS));
+    }
+}
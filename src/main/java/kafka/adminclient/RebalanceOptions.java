@@ -0,0 +1,41 @@
+package kafka.adminclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Goals and limits of a plan computed by {@link KafkaClusterRebalancer}.
+ *
+ * @param diskTolerance  how far, as a fraction of the mean, a broker's disk usage may deviate from the mean before it is rebalanced
+ * @param maxMoves       the maximum number of replicas to move, or 0 for no limit
+ * @param maxBytesMoved  the maximum total size of the replicas to move, or 0 for no limit
+ * @param balanceLeaders whether to also even out the number of preferred leaders per broker
+ */
+public record RebalanceOptions(double diskTolerance, int maxMoves, long maxBytesMoved, boolean balanceLeaders) {
+    public static final double DEFAULT_DISK_TOLERANCE = 0.05;
+
+    public static final RebalanceOptions DEFAULT = new RebalanceOptions(DEFAULT_DISK_TOLERANCE, 0, 0, true);
+
+    public RebalanceOptions {
+        if (diskTolerance < 0 || maxMoves < 0 || maxBytesMoved < 0) {
+            throw new IllegalArgumentException("Rebalance limits must not be negative");
+        }
+    }
+
+    /**
+     * Reads the options from a request payload such as {"diskTolerance":0.1,"maxMoves":100},
+     * falling back to the defaults for missing fields.
+     *
+     * @param node the request payload, or null
+     * @return the options, or {@link #DEFAULT} if the payload is missing.
+     */
+    public static RebalanceOptions fromJson(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return DEFAULT;
+        }
+        return new RebalanceOptions(
+                node.path("diskTolerance").asDouble(DEFAULT_DISK_TOLERANCE),
+                node.path("maxMoves").asInt(0),
+                node.path("maxBytesMoved").asLong(0),
+                node.path("balanceLeaders").asBoolean(true));
+    }
+}
@@ -0,0 +1,28 @@
+package kafka.adminclient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * A reassignment computed by {@link KafkaClusterRebalancer}. The broker arrays are indexed alike.
+ *
+ * @param reassignments     the target replicas of every partition the plan changes
+ * @param leaderChanges     the partitions whose preferred leader changes, to elect once moved
+ * @param replicaMoves      the number of replicas copied to another broker
+ * @param bytesMoved        the total size of the replicas copied to another broker
+ * @param skippedPartitions the partitions left untouched because they are being reassigned or have replicas on unknown brokers
+ * @param brokerIds         the brokers the plan balances across
+ * @param bytesBefore       the disk usage of each broker before the plan
+ * @param bytesAfter        the disk usage of each broker after the plan
+ * @param leadersBefore     the number of preferred leaders of each broker before the plan
+ * @param leadersAfter      the number of preferred leaders of each broker after the plan
+ * @param planningMs        how long computing the plan took, excluding the metadata requests
+ */
+public record RebalancePlan(Map<TopicPartition, List<Integer>> reassignments, Set<TopicPartition> leaderChanges,
+                            int replicaMoves, long bytesMoved, int skippedPartitions,
+                            int[] brokerIds, long[] bytesBefore, long[] bytesAfter,
+                            int[] leadersBefore, int[] leadersAfter, long planningMs) {
+}
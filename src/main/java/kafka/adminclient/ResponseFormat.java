@@ -0,0 +1,27 @@
+package kafka.adminclient;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Encodings of the streamed responses. Smile and CBOR carry the same data model as JSON, with
+ * numbers and binary values written without going through text.
+ */
+public enum ResponseFormat {
+    JSON("application/json", new JsonFactory()),
+    SMILE("application/x-jackson-smile", SmileFactory.builder()
+            // Smile escapes binary values to 7 bits by default, which only matters for raw socket framing
+            .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+            .build()),
+    CBOR("application/cbor", new CBORFactory());
+
+    public final String mediaType;
+    final JsonFactory factory;
+
+    ResponseFormat(String mediaType, JsonFactory factory) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+    }
+}
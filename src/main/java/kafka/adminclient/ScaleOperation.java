@@ -0,0 +1,102 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.kafka.clients.admin.AdminClient;
+
+/**
+ * State of a broker scaling pipeline run by {@link KafkaBrokerManager}. The pipeline goes through
+ * named phases one after the other, and the start and end of each phase are recorded so that the
+ * latency of every step can be reported. Mutators are synchronized since the phases complete on
+ * Kubernetes informer, AdminClient and scheduler threads.
+ */
+class ScaleOperation {
+    enum State { RUNNING, COMPLETED, FAILED }
+
+    record Phase(String name, long startedAtMs, long finishedAtMs, String detail) {}
+
+    record Status(String id, String type, State state, int targetBrokers, long createdAtMs, long finishedAtMs,
+                  List<Phase> phases, Set<Integer> brokerIds, String jobId, String error) {}
+
+    final String id;
+    final String type;
+    final AdminClient adminClient;
+    final int targetBrokers;
+    final long createdAtMs = System.currentTimeMillis();
+
+    private State state = State.RUNNING;
+    private long finishedAtMs;
+    private String error;
+    private String jobId;
+    private final Set<Integer> brokerIds = new TreeSet<>();
+    private final List<Phase> phases = new ArrayList<>();
+
+    ScaleOperation(String id, String type, AdminClient adminClient, int targetBrokers) {
+        this.id = id;
+        this.type = type;
+        this.adminClient = adminClient;
+        this.targetBrokers = targetBrokers;
+    }
+
+    /**
+     * Ends the current phase, if any, and starts the next one.
+     */
+    synchronized void beginPhase(String name) {
+        endPhase(null);
+        phases.add(new Phase(name, System.currentTimeMillis(), 0, null));
+    }
+
+    /**
+     * Ends the current phase with a short description of its outcome.
+     */
+    synchronized void endPhase(String detail) {
+        if (!phases.isEmpty()) {
+            Phase current = phases.get(phases.size() - 1);
+            if (current.finishedAtMs() == 0) {
+                phases.set(phases.size() - 1, new Phase(current.name(), current.startedAtMs(), System.currentTimeMillis(), detail));
+            }
+        }
+    }
+
+    synchronized void setBrokerIds(Set<Integer> ids) {
+        brokerIds.clear();
+        brokerIds.addAll(ids);
+    }
+
+    synchronized void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    synchronized void complete() {
+        if (state == State.RUNNING) {
+            endPhase(null);
+            state = State.COMPLETED;
+            finishedAtMs = System.currentTimeMillis();
+        }
+    }
+
+    synchronized void fail(Throwable cause) {
+        if (state == State.RUNNING) {
+            endPhase("failed");
+            state = State.FAILED;
+            error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+            finishedAtMs = System.currentTimeMillis();
+        }
+    }
+
+    synchronized boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    synchronized boolean isFinishedBefore(long timestampMs) {
+        return finishedAtMs != 0 && finishedAtMs < timestampMs;
+    }
+
+    synchronized Status status() {
+        return new Status(id, type, state, targetBrokers, createdAtMs, finishedAtMs, List.copyOf(phases),
+                new TreeSet<>(brokerIds), jobId, error);
+    }
+}
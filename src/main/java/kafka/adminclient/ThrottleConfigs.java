@@ -0,0 +1,193 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AlterConfigOp;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.common.config.ConfigResource;
+
+/**
+ * Broker and topic configs set on behalf of running jobs, such as replication throttles. Every
+ * config is reference counted per cluster. The first job to acquire it saves the value an operator
+ * had set, every job sets its own value, and the last job to release it restores the saved value, or
+ * deletes the config if there was none. Concurrent jobs setting different values for the same config
+ * share the value set last. Operations on a config run one after the other, so a release never races
+ * the describeConfigs of the next acquire.
+ */
+final class ThrottleConfigs {
+    private record Key(AdminClient adminClient, ConfigResource resource, String name) {}
+
+    private static final class Entry {
+        int users;
+        boolean saved;
+        String previous;
+        CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+    }
+
+    // Guarded by itself
+    private static final Map<Key, Entry> entries = new HashMap<>();
+
+    private ThrottleConfigs() {
+    }
+
+    /**
+     * Sets the configs for a job. If this fails, the configs are released again.
+     *
+     * @param configs the value of every config to set, by resource
+     * @return a CompletableFuture completed once every config is set.
+     */
+    static CompletableFuture<Void> acquire(AdminClient adminClient, Map<ConfigResource, Map<String, String>> configs) {
+        Map<Key, String> values = keys(adminClient, configs);
+        if (values.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> result;
+        synchronized (entries) {
+            List<CompletableFuture<Void>> previousOperations = new ArrayList<>();
+            for (Key key : values.keySet()) {
+                Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+                entry.users++;
+                previousOperations.add(entry.last);
+            }
+            result = CompletableFuture.allOf(previousOperations.toArray(new CompletableFuture<?>[0]))
+                    .thenCompose(ignored -> save(adminClient, values.keySet()))
+                    .thenCompose(ignored -> {
+                        Map<ConfigResource, Collection<AlterConfigOp>> ops = new HashMap<>();
+                        values.forEach((key, value) -> ops.computeIfAbsent(key.resource(), resource -> new ArrayList<>())
+                                .add(new AlterConfigOp(new ConfigEntry(key.name(), value), AlterConfigOp.OpType.SET)));
+                        return adminClient.incrementalAlterConfigs(ops).all().toCompletionStage();
+                    });
+            chain(values.keySet(), result);
+        }
+        return result.whenComplete((ignored, error) -> {
+            if (error != null) {
+                release(adminClient, configs);
+            }
+        });
+    }
+
+    /**
+     * Releases the configs of a job, restoring those no other job still uses.
+     *
+     * @param configs the configs passed to {@link #acquire}
+     * @return a CompletableFuture completed once the configs no longer used are restored.
+     */
+    static CompletableFuture<Void> release(AdminClient adminClient, Map<ConfigResource, Map<String, String>> configs) {
+        Set<Key> released = new HashSet<>();
+        CompletableFuture<Void> result;
+        synchronized (entries) {
+            List<CompletableFuture<Void>> previousOperations = new ArrayList<>();
+            for (Key key : keys(adminClient, configs).keySet()) {
+                Entry entry = entries.get(key);
+                if (entry == null || entry.users == 0 || --entry.users > 0) {
+                    continue;
+                }
+                released.add(key);
+                previousOperations.add(entry.last);
+            }
+            if (released.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            result = CompletableFuture.allOf(previousOperations.toArray(new CompletableFuture<?>[0]))
+                    .thenCompose(ignored -> restore(adminClient, released));
+            chain(released, result);
+        }
+        return result;
+    }
+
+    private static Map<Key, String> keys(AdminClient adminClient, Map<ConfigResource, Map<String, String>> configs) {
+        Map<Key, String> keys = new LinkedHashMap<>();
+        configs.forEach((resource, values) -> values.forEach((name, value) -> keys.put(new Key(adminClient, resource, name), value)));
+        return keys;
+    }
+
+    /**
+     * Makes the next operation on the keys wait for this one, and forgets the keys once they are
+     * restored and no job acquired them in the meantime.
+     */
+    private static void chain(Set<Key> keys, CompletableFuture<Void> operation) {
+        CompletableFuture<Void> done = operation.handle((ignored, error) -> null);
+        for (Key key : keys) {
+            entries.get(key).last = done;
+        }
+        done.thenRun(() -> {
+            synchronized (entries) {
+                for (Key key : keys) {
+                    Entry entry = entries.get(key);
+                    if (entry != null && entry.users == 0 && entry.last == done) {
+                        entries.remove(key);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Saves the value an operator set for every key not saved yet. Values inherited from the
+     * cluster-wide defaults are not overrides of the resource, so they are left out.
+     */
+    private static CompletableFuture<Void> save(AdminClient adminClient, Set<Key> keys) {
+        Set<Key> unsaved = new HashSet<>();
+        Set<ConfigResource> resources = new HashSet<>();
+        synchronized (entries) {
+            for (Key key : keys) {
+                if (!entries.get(key).saved) {
+                    unsaved.add(key);
+                    resources.add(key.resource());
+                }
+            }
+        }
+        if (unsaved.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return adminClient.describeConfigs(resources).all().toCompletionStage().toCompletableFuture().thenAccept(described -> {
+            synchronized (entries) {
+                for (Key key : unsaved) {
+                    Config config = described.get(key.resource());
+                    ConfigEntry configEntry = config == null ? null : config.get(key.name());
+                    boolean override = configEntry != null && configEntry.value() != null
+                            && (configEntry.source() == ConfigEntry.ConfigSource.DYNAMIC_BROKER_CONFIG
+                            || configEntry.source() == ConfigEntry.ConfigSource.DYNAMIC_TOPIC_CONFIG);
+                    Entry entry = entries.get(key);
+                    entry.previous = override ? configEntry.value() : null;
+                    entry.saved = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * Restores the saved value of every key no job acquired again in the meantime.
+     */
+    private static CompletableFuture<Void> restore(AdminClient adminClient, Set<Key> keys) {
+        Map<ConfigResource, Collection<AlterConfigOp>> ops = new HashMap<>();
+        synchronized (entries) {
+            for (Key key : keys) {
+                Entry entry = entries.get(key);
+                if (entry.users > 0 || !entry.saved) {
+                    continue;
+                }
+                AlterConfigOp op = entry.previous == null
+                        ? new AlterConfigOp(new ConfigEntry(key.name(), ""), AlterConfigOp.OpType.DELETE)
+                        : new AlterConfigOp(new ConfigEntry(key.name(), entry.previous), AlterConfigOp.OpType.SET);
+                ops.computeIfAbsent(key.resource(), resource -> new ArrayList<>()).add(op);
+                entry.saved = false;
+                entry.previous = null;
+            }
+        }
+        if (ops.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return adminClient.incrementalAlterConfigs(ops).all().toCompletionStage().toCompletableFuture();
+    }
+}
@@ -0,0 +1,24 @@
+package kafka.adminclient;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.TopicDescription;
+
+/**
+ * A page of topic descriptions selected by a {@link TopicQuery}.
+ *
+ * @param topics     the descriptions of the topics in the page, ordered by name
+ * @param nextCursor the cursor of the next page, or null if this is the last page
+ */
+public record TopicPage(Map<String, TopicDescription> topics, String nextCursor) {
+    /**
+     * @return the number of partitions across the topics of the page
+     */
+    public int partitionCount() {
+        int count = 0;
+        for (TopicDescription topicDescription : topics.values()) {
+            count += topicDescription.partitions().size();
+        }
+        return count;
+    }
+}
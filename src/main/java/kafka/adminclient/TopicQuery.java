@@ -0,0 +1,58 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Selects a page of topics to describe. Topics are ordered by name, and a page holds up to
+ * limit topics whose name sorts after the cursor, which is the last topic of the previous page.
+ *
+ * @param prefix          only topics starting with this prefix, or null for any
+ * @param regex           only topics fully matching this regular expression, or null for any
+ * @param includeInternal whether to include internal topics such as __consumer_offsets
+ * @param cursor          the last topic name of the previous page, or null for the first page
+ * @param limit           the maximum number of topics in the page, or 0 for no limit
+ * @param chunkSize       the maximum number of topics per describeTopics call
+ */
+public record TopicQuery(String prefix, String regex, boolean includeInternal, String cursor, int limit, int chunkSize) {
+    public static final int DEFAULT_CHUNK_SIZE = Integer.getInteger("kafka.admin.describe.chunkSize", 100);
+
+    /**
+     * Every non-internal topic in a single page, as listed by the plain listTopics call.
+     */
+    public static final TopicQuery ALL = new TopicQuery(null, null, false, null, 0, DEFAULT_CHUNK_SIZE);
+
+    public TopicQuery {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative, got " + limit);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive, got " + chunkSize);
+        }
+        if (regex != null) {
+            // Fail fast on an invalid pattern
+            Pattern.compile(regex);
+        }
+    }
+
+    /**
+     * Applies the filters, cursor and limit to the topic names.
+     *
+     * @return the sorted names of the page, plus the first name of the next page if there is one.
+     */
+    List<String> page(Collection<String> topicNames) {
+        Pattern pattern = regex == null ? null : Pattern.compile(regex);
+        List<String> matching = new ArrayList<>();
+        for (String name : topicNames) {
+            if ((prefix == null || name.startsWith(prefix))
+                    && (pattern == null || pattern.matcher(name).matches())
+                    && (cursor == null || name.compareTo(cursor) > 0)) {
+                matching.add(name);
+            }
+        }
+        matching.sort(null);
+        return limit == 0 || matching.size() <= limit ? matching : matching.subList(0, limit + 1);
+    }
+}
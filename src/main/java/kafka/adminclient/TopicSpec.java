@@ -0,0 +1,65 @@
+package kafka.adminclient;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.kafka.clients.admin.NewTopic;
+
+/**
+ * A topic to create with {@link KafkaTopicManager#createTopics}.
+ *
+ * @param name              the name of the topic
+ * @param partitions        the number of partitions, or -1 for the default of the brokers
+ * @param replicationFactor the number of replicas of each partition, or -1 for the default of the brokers
+ * @param configs           the topic configs, such as retention.ms, overriding those of the brokers
+ * @param assignment        the replicas of every partition, preferred leader first, or null to let the controller place them
+ */
+public record TopicSpec(String name, int partitions, short replicationFactor, Map<String, String> configs,
+                        Map<Integer, List<Integer>> assignment) {
+    public TopicSpec {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Topic name must not be empty");
+        }
+        if (partitions == 0 || partitions < -1 || replicationFactor == 0 || replicationFactor < -1) {
+            throw new IllegalArgumentException(String.format(
+                    "Topic %s must have a positive number of partitions and replication factor, or -1 for the broker defaults", name));
+        }
+        configs = configs == null ? Map.of() : configs;
+    }
+
+    /**
+     * Reads a topic from a request payload such as
+     * {"topicName":"orders","numPartitions":12,"replicationFactor":3,"configs":{"retention.ms":"86400000"}},
+     * falling back to the broker defaults for missing partitions and replication factor.
+     */
+    public static TopicSpec fromJson(JsonNode node) {
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a topic object, got " + node);
+        }
+        Map<String, String> configs = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.path("configs").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            configs.put(field.getKey(), field.getValue().asText());
+        }
+        return new TopicSpec(node.path("topicName").asText(null), node.path("numPartitions").asInt(-1),
+                (short) node.path("replicationFactor").asInt(-1), configs, null);
+    }
+
+    public TopicSpec withAssignment(Map<Integer, List<Integer>> assignment) {
+        return new TopicSpec(name, assignment.size(), (short) assignment.values().iterator().next().size(), configs, assignment);
+    }
+
+    NewTopic toNewTopic() {
+        NewTopic newTopic = assignment != null
+                ? new NewTopic(name, assignment)
+                : new NewTopic(name,
+                        partitions == -1 ? Optional.empty() : Optional.of(partitions),
+                        replicationFactor == -1 ? Optional.empty() : Optional.of(replicationFactor));
+        return newTopic.configs(configs);
+    }
+}
@@ -1,57 +1,176 @@
 package kafka.adminclientapi;
 
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import kafka.adminclient.ClusterConnection;
+import kafka.adminclient.ClusterSettings;
+import kafka.adminclient.KafkaMetadataCache;
 import org.apache.kafka.clients.admin.AdminClient;
-import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+/**
+ * Registry of the Kafka clusters served by the API, each registered under a name through /bootstrap.
+ * Requests select a cluster with the cluster parameter, and use {@link #DEFAULT_CLUSTER} without it.
+ * Registering a name again swaps in the new connection atomically: requests already holding the
+ * previous one finish with it, and it is closed gracefully afterwards. The health of every cluster is
+ * checked every kafka.admin.health.intervalMs (default 30000). The Kubernetes client is shared by
+ * all clusters, since it only depends on the kubeconfig of the server.
+ */
 @Configuration
 public class KafkaConfig {
-    private static AdminClient adminClient;
-    private static KubernetesClient kubernetesClient;
-    public static String namespace;
-    public static String clusterName;
+    public static final String DEFAULT_CLUSTER = "default";
+    public static final long CONNECT_TIMEOUT_MS = Long.getLong("kafka.admin.connectTimeoutMs", 5_000);
+    public static final long HEALTH_CHECK_INTERVAL_MS = Long.getLong("kafka.admin.health.intervalMs", 30_000);
 
-    public static AdminClient getAdminClient() {
-        return adminClient;
+    private static final Map<String, ClusterConnection> clusters = new ConcurrentHashMap<>();
+    private static volatile KubernetesClient kubernetesClient;
+
+    private static final ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        healthChecker.scheduleWithFixedDelay(() -> clusters.values().forEach(ClusterConnection::checkHealth),
+                HEALTH_CHECK_INTERVAL_MS, HEALTH_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies the settings of the metadata cache from the application properties, or from the
+     * matching system properties and environment variables that Spring also binds.
+     *
+     * @param cacheTtlMs      how long cached descriptions are served, kafka.admin.cache.ttlMs
+     * @param cacheMaxEntries how many cached descriptions are kept, kafka.admin.cache.maxEntries
+     */
+    public KafkaConfig(@Value("${kafka.admin.cache.ttlMs:" + KafkaMetadataCache.DEFAULT_TTL_MS + "}") long cacheTtlMs,
+                       @Value("${kafka.admin.cache.maxEntries:" + KafkaMetadataCache.DEFAULT_MAX_ENTRIES + "}") int cacheMaxEntries) {
+        KafkaMetadataCache.configure(cacheTtlMs, cacheMaxEntries);
+    }
+
+    /**
+     * Thrown when a request selects a cluster that is not registered.
+     */
+    public static class UnknownClusterException extends RuntimeException {
+        public UnknownClusterException(String name) {
+            super(String.format("No cluster named %s, register it with /bootstrap first", name));
+        }
+    }
+
+    /**
+     * @param name the name of the cluster, or null for {@link #DEFAULT_CLUSTER}
+     * @return the connection of the cluster.
+     * @throws UnknownClusterException if no cluster is registered under that name.
+     */
+    public static ClusterConnection cluster(String name) {
+        String key = name == null || name.isBlank() ? DEFAULT_CLUSTER : name;
+        ClusterConnection connection = clusters.get(key);
+        if (connection == null) {
+            throw new UnknownClusterException(key);
+        }
+        return connection;
+    }
+
+    public static AdminClient getAdminClient(String cluster) {
+        return cluster(cluster).adminClient();
     }
+
+    /**
+     * @return the registered clusters, sorted by name.
+     */
+    public static Collection<ClusterConnection> clusters() {
+        List<ClusterConnection> connections = new ArrayList<>(clusters.values());
+        connections.sort(Comparator.comparing(connection -> connection.name));
+        return connections;
+    }
+
     public static KubernetesClient getKubernetesClient() {
-        return kubernetesClient;
+        KubernetesClient client = kubernetesClient;
+        if (client == null) {
+            synchronized (KafkaConfig.class) {
+                if (kubernetesClient == null) {
+                    try {
+                        kubernetesClient = new KubernetesClientBuilder().build();
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to create Kubernetes client: " + e.getMessage());
+                    }
+                }
+                client = kubernetesClient;
+            }
+        }
+        return client;
     }
 
-    public static void bootstrapAdminClient(String bootstrapServers) throws Exception {
+    /**
+     * Connects to a cluster and registers it, replacing the cluster previously registered under the
+     * same name. The self-healing policy of the replaced cluster carries over to the new connection.
+     *
+     * @param name             the name requests select the cluster with
+     * @param bootstrapServers the bootstrap servers of the cluster
+     * @param namespace        the Kubernetes namespace of its Strimzi resources, or null for "kafka"
+     * @param clusterName      the name of its Strimzi Kafka resource, or null for "my-cluster"
+     * @param settings         the settings of its AdminClient
+     * @return the new connection.
+     */
+    public static ClusterConnection register(String name, String bootstrapServers, String namespace, String clusterName,
+                                             ClusterSettings settings) throws Exception {
+        System.out.println("Bootstrap servers: " + bootstrapServers);
+        ClusterConnection connection;
         try {
-            Properties props = new Properties();
-            System.out.println("Bootstrap servers: " + bootstrapServers);
-            props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-            AdminClient adminClient = AdminClient.create(props);
-
-            // Check if broker is online
-            adminClient.listTopics().names().get(2, TimeUnit.SECONDS);
-            KafkaConfig.adminClient = adminClient;
+            connection = ClusterConnection.open(name, bootstrapServers,
+                    namespace == null ? "kafka" : namespace, clusterName == null ? "my-cluster" : clusterName,
+                    settings, CONNECT_TIMEOUT_MS);
         } catch (TimeoutException e) {
             throw new RuntimeException("Connection timed out: Kafka broker might be offline.");
         } catch (Exception e) {
             throw new Exception("Failed to create AdminClient: " + e.getMessage());
         }
+        register(connection);
+        return connection;
     }
 
-    public static void bootstrapKubernetesClient(JsonNode namespace, JsonNode clusterName) {
-        try {
-            KubernetesClient client = new KubernetesClientBuilder().build();
-            String namespaceToUse = namespace == null ? "kafka" : namespace.asText();
-            String clusterNameToUse = clusterName == null ? "my-cluster" : clusterName.asText();
-            KafkaConfig.namespace = namespaceToUse;
-            KafkaConfig.clusterName = clusterNameToUse;
-            KafkaConfig.kubernetesClient = client;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create Kubernetes client: " + e.getMessage());
+    /**
+     * Registers an open connection under its name, replacing the cluster previously registered under it.
+     */
+    static void register(ClusterConnection connection) {
+        ClusterConnection previous = clusters.put(connection.name, connection);
+        if (previous != null) {
+            connection.takeOver(previous);
+            previous.close();
+        }
+    }
+
+    /**
+     * Replaces the Kubernetes client built from the kubeconfig of the server, e.g. with one of a mock server.
+     */
+    static void setKubernetesClient(KubernetesClient client) {
+        synchronized (KafkaConfig.class) {
+            kubernetesClient = client;
+        }
+    }
+
+    /**
+     * Unregisters a cluster and closes its connection gracefully.
+     *
+     * @return the removed connection, or null if no cluster is registered under that name.
+     */
+    public static ClusterConnection remove(String name) {
+        ClusterConnection connection = clusters.remove(name);
+        if (connection != null) {
+            connection.close();
         }
+        return connection;
     }
 }
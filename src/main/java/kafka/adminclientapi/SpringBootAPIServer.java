@@ -1,27 +1,55 @@
 package kafka.adminclientapi;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.stream.Collectors;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.core.type.TypeReference;
+import kafka.adminclient.ClusterConnection;
+import kafka.adminclient.ClusterSettings;
+import kafka.adminclient.HealingPolicy;
+import kafka.adminclient.KafkaAdminClientUtils;
 import kafka.adminclient.KafkaBrokerManager;
+import kafka.adminclient.KafkaClusterWatcher;
+import kafka.adminclient.KafkaConsumerGroupManager;
+import kafka.adminclient.KafkaLogDirBalancer;
 import kafka.adminclient.KafkaPartitionManager;
+import kafka.adminclient.KafkaReassignmentJobManager;
+import kafka.adminclient.KafkaSelfHealingMonitor;
+import kafka.adminclient.LogDirBalanceOptions;
+import kafka.adminclient.ReassignmentThrottle;
+import kafka.adminclient.RebalanceOptions;
+import kafka.adminclient.ResponseFormat;
+import kafka.adminclient.TopicQuery;
+import kafka.adminclient.TopicSpec;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
 import kafka.adminclient.KafkaTopicManager; 
@@ -38,11 +66,12 @@ class KafkaAdminClientSetupController {
     @PostMapping("/bootstrap")
     public String SetupKafkaAdminClient(@RequestBody JsonNode payload) {
         String bootstrapServers = payload.get("boostrapServers").asText();
-        JsonNode namespace = payload.get("namespace");
-        JsonNode clusterName = payload.get("clusterName");
+        String cluster = payload.path("cluster").asText(KafkaConfig.DEFAULT_CLUSTER);
+        String namespace = payload.hasNonNull("namespace") ? payload.get("namespace").asText() : null;
+        String clusterName = payload.hasNonNull("clusterName") ? payload.get("clusterName").asText() : null;
         try {
-            KafkaConfig.bootstrapAdminClient(bootstrapServers);
-            KafkaConfig.bootstrapKubernetesClient(namespace, clusterName);
+            ClusterSettings settings = ClusterSettings.fromJson(payload.get("settings"));
+            KafkaConfig.register(cluster, bootstrapServers, namespace, clusterName, settings);
             return "AdminClient setup successfully!";
         } catch (Exception e) {
             return e.getMessage();
@@ -50,12 +79,71 @@ class KafkaAdminClientSetupController {
     }
 }
 
+@RestControllerAdvice
+class ClusterSelectionHandler {
+    @ExceptionHandler(KafkaConfig.UnknownClusterException.class)
+    public ResponseEntity<JsonNode> UnknownCluster(KafkaConfig.UnknownClusterException e) {
+        return new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.NOT_FOUND);
+    }
+}
+
+@RestController
+@RequestMapping("/clusters")
+class ClusterRegistryController {
+    @GetMapping("/list")
+    public JsonNode ListClusters() {
+        return KafkaAdminClientUtils.formatClusterConnections(KafkaConfig.clusters());
+    }
+
+    @GetMapping("/{cluster}")
+    public JsonNode DescribeClusterConnection(@PathVariable("cluster") String cluster) {
+        return KafkaAdminClientUtils.formatClusterConnection(KafkaConfig.cluster(cluster));
+    }
+
+    @PostMapping("/{cluster}/remove")
+    public ResponseEntity<JsonNode> RemoveCluster(@PathVariable("cluster") String cluster) {
+        ClusterConnection connection = KafkaConfig.remove(cluster);
+        if (connection == null) {
+            throw new KafkaConfig.UnknownClusterException(cluster);
+        }
+        ObjectNode successNode = new ObjectMapper().createObjectNode();
+        successNode.put("message", String.format("Removed cluster %s, its AdminClient closes once its reassignment jobs finish", cluster));
+        return new ResponseEntity<>(successNode, HttpStatus.OK);
+    }
+}
+
 @RestController
 @RequestMapping("/cluster")
 class ClusterController {
     @GetMapping("/describe")
-    public JsonNode DescribeCluster() {
-        return KafkaTopicManager.describeCluster(KafkaConfig.getAdminClient());
+    public CompletableFuture<JsonNode> DescribeCluster(@RequestParam(name = "cluster", required = false) String cluster) {
+        return KafkaTopicManager.describeCluster(KafkaConfig.getAdminClient(cluster));
+    }
+
+    @GetMapping(value = "/watch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter WatchCluster(@RequestParam(name = "cluster", required = false) String cluster) {
+        // No timeout, the stream lasts until the client disconnects
+        SseEmitter emitter = new SseEmitter(0L);
+        Runnable unsubscribe = KafkaClusterWatcher.subscribe(KafkaConfig.getAdminClient(cluster), new KafkaClusterWatcher.Subscriber() {
+            @Override
+            public void send(String event, long seq, String json) throws IOException {
+                emitter.send(SseEmitter.event().name(event).id(Long.toString(seq)).data(json, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void keepAlive() throws IOException {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
     }
 }
 
@@ -63,16 +151,74 @@ class ClusterController {
 @RequestMapping("/broker")
 class BrokerController {
     @PostMapping("/scale")
-    public ResponseEntity<JsonNode> ScaleBrokers(@RequestBody JsonNode payload) {
+    public CompletableFuture<ResponseEntity<JsonNode>> ScaleBrokers(@RequestBody JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
         int numBrokers = payload.get("numBrokers").asInt();
-        JsonNode res = KafkaBrokerManager.scaleBrokers(KafkaConfig.getKubernetesClient(), KafkaConfig.namespace, KafkaConfig.clusterName, numBrokers);
+        boolean force = payload.path("force").asBoolean();
+        ClusterConnection connection = KafkaConfig.cluster(cluster);
+        return KafkaBrokerManager.scaleBrokers(KafkaConfig.getKubernetesClient(), connection.namespace, connection.clusterName, connection.adminClient(), numBrokers, force).thenApply(res -> {
+            ObjectMapper mapper = new ObjectMapper();
+            ObjectNode successNode = mapper.createObjectNode();
+            successNode.put("message", String.format("Successfully scaled the number of brokers to %d", numBrokers));
+            return res != null
+                    ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST)
+                    : new ResponseEntity<>(successNode, HttpStatus.OK);
+        });
+    }
 
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode successNode = mapper.createObjectNode();
-        successNode.put("message", String.format("Successfully scaled the number of brokers to %d", numBrokers));
-        return res != null
-                ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST)
-                : new ResponseEntity<>(successNode, HttpStatus.OK);
+    @PostMapping("/scaleout")
+    public ResponseEntity<JsonNode> ScaleOutBrokers(@RequestBody JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        int numBrokers = payload.get("numBrokers").asInt();
+        long timeoutMs = payload.path("timeoutMs").asLong(KafkaBrokerManager.DEFAULT_SCALE_TIMEOUT_MS);
+        RebalanceOptions options;
+        ReassignmentThrottle throttle;
+        try {
+            // Rebalance by default, throttled so that the new brokers are filled gradually
+            JsonNode rebalance = payload.get("rebalance");
+            options = rebalance != null && rebalance.isBoolean()
+                    ? rebalance.asBoolean() ? RebalanceOptions.DEFAULT : null
+                    : RebalanceOptions.fromJson(rebalance);
+            throttle = payload.has("throttle")
+                    ? ReassignmentThrottle.fromJson(payload.get("throttle"))
+                    : ReassignmentThrottle.fromJson(new ObjectMapper().createObjectNode());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST);
+        }
+        ClusterConnection connection = KafkaConfig.cluster(cluster);
+        return new ResponseEntity<>(KafkaBrokerManager.scaleOut(KafkaConfig.getKubernetesClient(), connection.namespace, connection.clusterName,
+                connection.adminClient(), numBrokers, options, throttle, timeoutMs), HttpStatus.ACCEPTED);
+    }
+
+    @PostMapping("/scalein")
+    public ResponseEntity<JsonNode> ScaleInBrokers(@RequestBody JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        int numBrokers = payload.get("numBrokers").asInt();
+        long timeoutMs = payload.path("timeoutMs").asLong(KafkaBrokerManager.DEFAULT_SCALE_TIMEOUT_MS);
+        ReassignmentThrottle throttle;
+        try {
+            throttle = payload.has("throttle")
+                    ? ReassignmentThrottle.fromJson(payload.get("throttle"))
+                    : ReassignmentThrottle.fromJson(new ObjectMapper().createObjectNode());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST);
+        }
+        ClusterConnection connection = KafkaConfig.cluster(cluster);
+        return new ResponseEntity<>(KafkaBrokerManager.scaleIn(KafkaConfig.getKubernetesClient(), connection.namespace,
+                connection.adminClient(), numBrokers, throttle, timeoutMs), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/operations")
+    public JsonNode ListOperations() {
+        return KafkaBrokerManager.listOperations();
+    }
+
+    @GetMapping("/operation/{operationId}")
+    public ResponseEntity<JsonNode> DescribeOperation(@PathVariable("operationId") String operationId) {
+        JsonNode res = KafkaBrokerManager.describeOperation(operationId);
+        if (res != null) {
+            return new ResponseEntity<>(res, HttpStatus.OK);
+        }
+        ObjectNode errorNode = new ObjectMapper().createObjectNode();
+        errorNode.put("error", String.format("No operation with ID %s", operationId));
+        return new ResponseEntity<>(errorNode, HttpStatus.NOT_FOUND);
     }
 }
 
@@ -80,46 +226,258 @@ class BrokerController {
 @RequestMapping("/partition")
 class PartitionController {
     @PostMapping("/reassignAll")
-    public ResponseEntity<JsonNode> ReassignAllPartitions(@RequestBody JsonNode payload) {
+    public CompletableFuture<ResponseEntity<JsonNode>> ReassignAllPartitions(@RequestBody JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
         int brokerId = payload.get("brokerId").asInt();
         String topicName = payload.get("topicName").asText();
-        JsonNode res = KafkaPartitionManager.migrateAllPartitionsFromTopicToBroker(topicName, brokerId, KafkaConfig.getAdminClient());
-
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode successNode = mapper.createObjectNode();
-        successNode.put("message", String.format("Successfully reassigned all partitions of topic %s to broker %d", topicName, brokerId));
-        return res != null 
-                ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST) 
-                : new ResponseEntity<>(successNode, HttpStatus.OK);
+        ReassignmentThrottle throttle;
+        try {
+            throttle = ReassignmentThrottle.fromJson(payload.get("throttle"));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST));
+        }
+        if (payload.path("async").asBoolean() || throttle != null) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaPartitionManager.migrateAllPartitionsFromTopicToBrokerAsync(topicName, brokerId, throttle, KafkaConfig.getAdminClient(cluster)), HttpStatus.ACCEPTED));
+        }
+        return KafkaPartitionManager.migrateAllPartitionsFromTopicToBroker(topicName, brokerId, KafkaConfig.getAdminClient(cluster)).thenApply(res -> {
+            ObjectMapper mapper = new ObjectMapper();
+            ObjectNode successNode = mapper.createObjectNode();
+            successNode.put("message", String.format("Successfully reassigned all partitions of topic %s to broker %d", topicName, brokerId));
+            return res != null
+                    ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST)
+                    : new ResponseEntity<>(successNode, HttpStatus.OK);
+        });
     }
 
     @PostMapping("/reassign")
-    public ResponseEntity<JsonNode> ReassignPartitions(@RequestBody JsonNode payload) {
+    public CompletableFuture<ResponseEntity<JsonNode>> ReassignPartitions(@RequestBody JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
         ObjectMapper mapper = new ObjectMapper();
         HashMap<String, Object> map = mapper.convertValue(payload, new TypeReference<>() {});
-        JsonNode res = KafkaPartitionManager.migratePartitions(map, KafkaConfig.getAdminClient());
+        CompletableFuture<JsonNode> result;
+        try {
+            ReassignmentThrottle throttle = ReassignmentThrottle.fromJson(payload.get("throttle"));
+            if (payload.path("async").asBoolean() || throttle != null) {
+                return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaPartitionManager.migratePartitionsAsync(map, throttle, KafkaConfig.getAdminClient(cluster)), HttpStatus.ACCEPTED));
+            }
+            result = KafkaPartitionManager.migratePartitions(map, KafkaConfig.getAdminClient(cluster));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST));
+        }
+        return result.thenApply(res -> {
+            int failed = res.get("failed").asInt();
+            int succeeded = res.get("succeeded").asInt();
+            HttpStatus status = failed == 0
+                    ? HttpStatus.OK
+                    : succeeded == 0 ? HttpStatus.BAD_REQUEST : HttpStatus.MULTI_STATUS;
+            return new ResponseEntity<>(res, status);
+        });
+    }
+
+    @PostMapping("/balanceleaders")
+    public CompletableFuture<ResponseEntity<JsonNode>> BalanceLeaders(@RequestBody(required = false) JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        int batchSize = payload == null
+                ? KafkaPartitionManager.DEFAULT_REASSIGNMENT_BATCH_SIZE
+                : payload.path("batchSize").asInt(KafkaPartitionManager.DEFAULT_REASSIGNMENT_BATCH_SIZE);
+        return KafkaPartitionManager.balanceLeaders(batchSize, KafkaConfig.getAdminClient(cluster)).thenApply(res -> {
+            if (res.has("error")) {
+                return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+            }
+            int failed = res.get("failed").asInt();
+            int succeeded = res.get("succeeded").asInt();
+            HttpStatus status = failed == 0
+                    ? HttpStatus.OK
+                    : succeeded == 0 ? HttpStatus.BAD_REQUEST : HttpStatus.MULTI_STATUS;
+            return new ResponseEntity<>(res, status);
+        });
+    }
 
-        mapper = new ObjectMapper();
-        ObjectNode successNode = mapper.createObjectNode();
-        successNode.put("message", "Successfully reassigned partitions");
-        return res != null 
-                ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST) 
-                : new ResponseEntity<>(successNode, HttpStatus.OK);
+    @PostMapping("/rebalance/plan")
+    public CompletableFuture<ResponseEntity<JsonNode>> PlanRebalance(@RequestBody(required = false) JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        RebalanceOptions options;
+        try {
+            options = RebalanceOptions.fromJson(payload);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST));
+        }
+        return KafkaPartitionManager.planRebalance(options, KafkaConfig.getAdminClient(cluster)).thenApply(res -> res.has("error")
+                ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST)
+                : new ResponseEntity<>(res, HttpStatus.OK));
+    }
+
+    @PostMapping("/rebalance")
+    public CompletableFuture<ResponseEntity<JsonNode>> Rebalance(@RequestBody(required = false) JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        RebalanceOptions options;
+        ReassignmentThrottle throttle;
+        try {
+            options = RebalanceOptions.fromJson(payload);
+            throttle = payload == null ? null : ReassignmentThrottle.fromJson(payload.get("throttle"));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST));
+        }
+        return KafkaPartitionManager.rebalance(options, throttle, KafkaConfig.getAdminClient(cluster)).thenApply(res -> res.has("error")
+                ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST)
+                : new ResponseEntity<>(res, res.has("jobId") ? HttpStatus.ACCEPTED : HttpStatus.OK));
     }
 
     @PostMapping("/electleader")
-    public ResponseEntity<JsonNode> ElectLeader(@RequestBody JsonNode payload) {
+    public CompletableFuture<ResponseEntity<JsonNode>> ElectLeader(@RequestBody JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
         String topicName = payload.get("topicName").asText();
         int partitionNumber = payload.get("partitionNumber").asInt();
         int newLeaderId = payload.get("newLeaderId").asInt();
-        JsonNode res = KafkaPartitionManager.electNewLeader(KafkaConfig.getAdminClient(), topicName, partitionNumber, newLeaderId);
+        if (payload.path("async").asBoolean()) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaPartitionManager.electNewLeaderAsync(KafkaConfig.getAdminClient(cluster), topicName, partitionNumber, newLeaderId), HttpStatus.ACCEPTED));
+        }
+        return KafkaPartitionManager.electNewLeader(KafkaConfig.getAdminClient(cluster), topicName, partitionNumber, newLeaderId).thenApply(res -> {
+            ObjectMapper mapper = new ObjectMapper();
+            ObjectNode successNode = mapper.createObjectNode();
+            successNode.put("message", String.format("Successfully elected new leader %d for partition %d of topic %s", newLeaderId, partitionNumber, topicName));
+            return res != null
+                    ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST)
+                    : new ResponseEntity<>(successNode, HttpStatus.OK);
+        });
+    }
+}
 
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode successNode = mapper.createObjectNode();
-        successNode.put("message", String.format("Successfully elected new leader %d for partition %d of topic %s", newLeaderId, partitionNumber, topicName));
+@RestController
+@RequestMapping("/job")
+class JobController {
+    @GetMapping("/list")
+    public JsonNode ListJobs() {
+        return KafkaReassignmentJobManager.listJobs();
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<JsonNode> DescribeJob(@PathVariable("jobId") String jobId) {
+        JsonNode res = KafkaReassignmentJobManager.describeJob(jobId);
+        return res != null
+                ? new ResponseEntity<>(res, HttpStatus.OK)
+                : new ResponseEntity<>(jobNotFound(jobId), HttpStatus.NOT_FOUND);
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<JsonNode> CancelJob(@PathVariable("jobId") String jobId) {
+        JsonNode res = KafkaReassignmentJobManager.cancelJob(jobId);
         return res != null
+                ? new ResponseEntity<>(res, HttpStatus.OK)
+                : new ResponseEntity<>(jobNotFound(jobId), HttpStatus.NOT_FOUND);
+    }
+
+    private static JsonNode jobNotFound(String jobId) {
+        ObjectNode errorNode = new ObjectMapper().createObjectNode();
+        errorNode.put("error", String.format("No job with ID %s", jobId));
+        return errorNode;
+    }
+}
+
+@RestController
+@RequestMapping("/logdir")
+class LogDirController {
+    @PostMapping("/plan")
+    public CompletableFuture<ResponseEntity<JsonNode>> PlanLogDirBalance(@RequestBody(required = false) JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        LogDirBalanceOptions options;
+        try {
+            options = LogDirBalanceOptions.fromJson(payload);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST));
+        }
+        return KafkaPartitionManager.planLogDirBalance(options, KafkaConfig.getAdminClient(cluster)).thenApply(res -> res.has("error")
                 ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST)
-                : new ResponseEntity<>(successNode, HttpStatus.OK);
+                : new ResponseEntity<>(res, HttpStatus.OK));
+    }
+
+    @PostMapping("/balance")
+    public CompletableFuture<ResponseEntity<JsonNode>> BalanceLogDirs(@RequestBody(required = false) JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        LogDirBalanceOptions options;
+        try {
+            options = LogDirBalanceOptions.fromJson(payload);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST));
+        }
+        return KafkaPartitionManager.balanceLogDirs(options, KafkaConfig.getAdminClient(cluster)).thenApply(res -> res.has("error")
+                ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST)
+                : new ResponseEntity<>(res, res.has("jobId") ? HttpStatus.ACCEPTED : HttpStatus.OK));
+    }
+
+    @GetMapping("/jobs")
+    public JsonNode ListLogDirJobs() {
+        return KafkaLogDirBalancer.listJobs();
+    }
+
+    @GetMapping("/job/{jobId}")
+    public ResponseEntity<JsonNode> DescribeLogDirJob(@PathVariable("jobId") String jobId) {
+        JsonNode res = KafkaLogDirBalancer.describeJob(jobId);
+        return res != null
+                ? new ResponseEntity<>(res, HttpStatus.OK)
+                : new ResponseEntity<>(jobNotFound(jobId), HttpStatus.NOT_FOUND);
+    }
+
+    @PostMapping("/job/{jobId}/cancel")
+    public ResponseEntity<JsonNode> CancelLogDirJob(@PathVariable("jobId") String jobId) {
+        JsonNode res = KafkaLogDirBalancer.cancelJob(jobId);
+        return res != null
+                ? new ResponseEntity<>(res, HttpStatus.OK)
+                : new ResponseEntity<>(jobNotFound(jobId), HttpStatus.NOT_FOUND);
+    }
+
+    private static JsonNode jobNotFound(String jobId) {
+        ObjectNode errorNode = new ObjectMapper().createObjectNode();
+        errorNode.put("error", String.format("No log dir job with ID %s", jobId));
+        return errorNode;
+    }
+}
+
+@RestController
+@RequestMapping("/healing")
+class HealingController {
+    @PostMapping("/enable")
+    public ResponseEntity<JsonNode> EnableHealing(@RequestBody(required = false) JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        try {
+            HealingPolicy policy = HealingPolicy.fromJson(payload);
+            return new ResponseEntity<>(KafkaSelfHealingMonitor.enable(KafkaConfig.getAdminClient(cluster), policy), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping("/disable")
+    public ResponseEntity<JsonNode> DisableHealing(@RequestParam(name = "cluster", required = false) String cluster) {
+        JsonNode res = KafkaSelfHealingMonitor.disable(KafkaConfig.getAdminClient(cluster));
+        return res != null
+                ? new ResponseEntity<>(res, HttpStatus.OK)
+                : new ResponseEntity<>(notEnabled(), HttpStatus.NOT_FOUND);
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<JsonNode> HealingStatus(@RequestParam(name = "cluster", required = false) String cluster) {
+        JsonNode res = KafkaSelfHealingMonitor.status(KafkaConfig.getAdminClient(cluster));
+        return res != null
+                ? new ResponseEntity<>(res, HttpStatus.OK)
+                : new ResponseEntity<>(notEnabled(), HttpStatus.NOT_FOUND);
+    }
+
+    private static JsonNode notEnabled() {
+        ObjectNode errorNode = new ObjectMapper().createObjectNode();
+        errorNode.put("error", "Self-healing is not enabled for this cluster");
+        return errorNode;
+    }
+}
+
+@RestController
+@RequestMapping("/consumergroup")
+class ConsumerGroupController {
+    @GetMapping("/lag")
+    public CompletableFuture<JsonNode> DescribeConsumerLag(
+            @RequestParam(name = "groups", required = false) String groups,
+            @RequestParam(name = "includePartitions", defaultValue = "false") boolean includePartitions,
+            @RequestParam(name = "cluster", required = false) String cluster) {
+        // groups is a comma-separated list of group IDs, every group when omitted
+        Set<String> groupIds = new HashSet<>();
+        if (groups != null) {
+            Arrays.stream(groups.split(","))
+                    .map(String::strip)
+                    .filter(groupId -> !groupId.isEmpty())
+                    .forEach(groupIds::add);
+        }
+        return KafkaConsumerGroupManager.describeLag(KafkaConfig.getAdminClient(cluster), groupIds, includePartitions);
     }
 }
 
@@ -127,43 +485,140 @@ class PartitionController {
 @RequestMapping("/topic")
 class TopicController {
     @GetMapping("/describeall")
-    public JsonNode DescribeAllTopics() {
-        return KafkaTopicManager.describeAllTopics(KafkaConfig.getAdminClient());
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> DescribeAllTopics(
+            @RequestParam(name = "prefix", required = false) String prefix,
+            @RequestParam(name = "regex", required = false) String regex,
+            @RequestParam(name = "includeInternal", defaultValue = "false") boolean includeInternal,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "0") int limit,
+            @RequestParam(name = "chunkSize", required = false) Integer chunkSize,
+            @RequestParam(name = "layout", defaultValue = "rows") String layout,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(name = "cluster", required = false) String cluster) {
+        TopicQuery query;
+        try {
+            query = new TopicQuery(prefix, regex, includeInternal, cursor, limit,
+                    chunkSize == null ? TopicQuery.DEFAULT_CHUNK_SIZE : chunkSize);
+            if (!"rows".equals(layout) && !"columnar".equals(layout)) {
+                throw new IllegalArgumentException("layout must be rows or columnar, got " + layout);
+            }
+        } catch (IllegalArgumentException e) {
+            JsonNode error = KafkaAdminClientUtils.wrapError(e);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body((StreamingResponseBody) out -> KafkaAdminClientUtils.writeJson(out, error)));
+        }
+
+        ResponseFormat format = negotiate(accept);
+        return KafkaTopicManager.describeTopics(KafkaConfig.getAdminClient(cluster), query, format, "columnar".equals(layout))
+                .thenApply(writer -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(format.mediaType))
+                        .body((StreamingResponseBody) writer::writeTo));
+    }
+
+    /**
+     * Picks the encoding of a streamed response from the Accept header, by quality, falling back to JSON.
+     */
+    private static ResponseFormat negotiate(String accept) {
+        if (accept == null) {
+            return ResponseFormat.JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return ResponseFormat.JSON;
+        }
+        // The sort is stable, so the order of the header breaks ties
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            for (ResponseFormat format : ResponseFormat.values()) {
+                if (mediaType.getQualityValue() > 0 && mediaType.includes(MediaType.parseMediaType(format.mediaType))) {
+                    return format;
+                }
+            }
+        }
+        return ResponseFormat.JSON;
     }
-    
+
     @GetMapping("/describe/{topicName}")
-    public JsonNode DescribeTopic(@PathVariable("topicName") String topicName) {
-        return KafkaTopicManager.describeTopic(KafkaConfig.getAdminClient(), topicName);
+    public CompletableFuture<JsonNode> DescribeTopic(@PathVariable("topicName") String topicName, @RequestParam(name = "cluster", required = false) String cluster) {
+        return KafkaTopicManager.describeTopic(KafkaConfig.getAdminClient(cluster), topicName);
     }
 
     @PostMapping("/create")
-    public ResponseEntity<JsonNode> CreateTopic(@RequestBody JsonNode payload) {
-        String topicName = payload.get("topicName").asText();
-        int numPartitions = payload.get("numPartitions").asInt();
-        short replicationFactor = (short) payload.get("replicationFactor").asInt();
-        JsonNode res = KafkaTopicManager.createTopic(topicName, numPartitions, replicationFactor, KafkaConfig.getAdminClient());
-        return res != null 
-                ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST) 
-                : new ResponseEntity<>(DescribeTopic(topicName), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<JsonNode>> CreateTopic(@RequestBody JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        TopicSpec topic;
+        try {
+            topic = TopicSpec.fromJson(payload);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST));
+        }
+        boolean balancedPlacement = "balanced".equals(payload.path("placement").asText());
+        boolean validateOnly = payload.path("validateOnly").asBoolean();
+        return KafkaTopicManager.createTopic(topic, balancedPlacement, validateOnly, KafkaConfig.getAdminClient(cluster))
+                .thenApply(TopicController::withResultStatus);
+    }
+
+    @PostMapping("/create/batch")
+    public CompletableFuture<ResponseEntity<JsonNode>> CreateTopics(@RequestBody JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        // sample payload {"topics":[{"topicName":"orders","numPartitions":12,"replicationFactor":3,"configs":{"retention.ms":"86400000"}}],"validateOnly":true,"batchSize":100}
+        List<TopicSpec> topics = new ArrayList<>();
+        try {
+            for (JsonNode topic : payload.path("topics")) {
+                topics.add(TopicSpec.fromJson(topic));
+            }
+            if (topics.isEmpty()) {
+                throw new IllegalArgumentException("topics must list at least one topic");
+            }
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaAdminClientUtils.wrapError(e), HttpStatus.BAD_REQUEST));
+        }
+        boolean validateOnly = payload.path("validateOnly").asBoolean();
+        int batchSize = payload.path("batchSize").asInt(KafkaTopicManager.DEFAULT_TOPIC_BATCH_SIZE);
+        return KafkaTopicManager.createTopics(topics, validateOnly, batchSize, KafkaConfig.getAdminClient(cluster))
+                .thenApply(TopicController::withResultStatus);
     }
 
     @PostMapping("/delete")
-    public ResponseEntity<JsonNode> DeleteTopics(@RequestBody JsonNode payload) {
-        String topicNames = payload.get("topicNames").asText();
-        List<String> topicNamesList = Arrays.asList(topicNames.split(","));
-        topicNamesList = topicNamesList.stream()
-                                 .map(String::strip)
-                                 .collect(Collectors.toList()); 
-        JsonNode res = KafkaTopicManager.deleteTopics(topicNamesList, KafkaConfig.getAdminClient());
+    public CompletableFuture<ResponseEntity<JsonNode>> DeleteTopics(@RequestBody JsonNode payload, @RequestParam(name = "cluster", required = false) String cluster) {
+        // topicNames is either an array of names or a comma-separated string
+        JsonNode topicNames = payload.path("topicNames");
+        List<String> strippedTopicNames = new ArrayList<>();
+        if (topicNames.isArray()) {
+            topicNames.forEach(topicName -> {
+                if (!topicName.asText().isBlank()) {
+                    strippedTopicNames.add(topicName.asText().strip());
+                }
+            });
+        } else {
+            Arrays.stream(topicNames.asText().split(","))
+                    .map(String::strip)
+                    .filter(topicName -> !topicName.isEmpty())
+                    .forEach(strippedTopicNames::add);
+        }
+        if (strippedTopicNames.isEmpty()) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(KafkaAdminClientUtils.wrapError(
+                    new IllegalArgumentException("topicNames must list at least one topic")), HttpStatus.BAD_REQUEST));
+        }
+        boolean validateOnly = payload.path("validateOnly").asBoolean();
+        int batchSize = payload.path("batchSize").asInt(KafkaTopicManager.DEFAULT_TOPIC_BATCH_SIZE);
+        return KafkaTopicManager.deleteTopics(strippedTopicNames, validateOnly, batchSize, KafkaConfig.getAdminClient(cluster))
+                .thenApply(TopicController::withResultStatus);
+    }
 
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode successNode = mapper.createObjectNode();
-        successNode.put("message", "Successfully deleted topics");
-        ArrayNode deletedTopicsNode = successNode.putArray("deletedTopics");
-        topicNamesList.forEach(deletedTopicsNode::add);
-
-        return res != null 
-                ? new ResponseEntity<>(res, HttpStatus.BAD_REQUEST) 
-                : new ResponseEntity<>(successNode, HttpStatus.OK);
+    /**
+     * Answers 200 when every topic succeeded, 400 when none did, and 207 when some did.
+     */
+    private static ResponseEntity<JsonNode> withResultStatus(JsonNode res) {
+        if (res.has("error")) {
+            return new ResponseEntity<>(res, HttpStatus.BAD_REQUEST);
+        }
+        int failed = res.get("failed").asInt();
+        int succeeded = res.get("succeeded").asInt();
+        HttpStatus status = failed == 0
+                ? HttpStatus.OK
+                : succeeded == 0 ? HttpStatus.BAD_REQUEST : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(res, status);
     }
 }
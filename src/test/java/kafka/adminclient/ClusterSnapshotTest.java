@@ -0,0 +1,115 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ClusterSnapshotTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void diffOfEqualSnapshotsIsEmpty() {
+        List<TopicDescription> topics = List.of(
+                topic("orders", partition(0, 1, List.of(1, 2, 3), List.of(1, 2, 3)), partition(1, 2, List.of(2, 3, 1), List.of(2, 3))),
+                topic("payments", partition(0, -1, List.of(3, 1), List.of())));
+        ClusterSnapshot previous = ClusterSnapshot.of(cluster(1, 2, 3), topics);
+
+        // The same cluster, listed in another order
+        List<TopicDescription> reordered = new ArrayList<>();
+        for (TopicDescription topic : topics) {
+            List<TopicPartitionInfo> partitions = new ArrayList<>();
+            for (TopicPartitionInfo partition : topic.partitions()) {
+                List<Node> isr = new ArrayList<>(partition.isr());
+                Collections.reverse(isr);
+                partitions.add(0, new TopicPartitionInfo(partition.partition(), partition.leader(), partition.replicas(), isr));
+            }
+            reordered.add(0, new TopicDescription(topic.name(), false, partitions));
+        }
+        ClusterSnapshot snapshot = ClusterSnapshot.of(cluster(3, 2, 1), reordered);
+
+        ArrayNode events = objectMapper.createArrayNode();
+        snapshot.diff(previous, events);
+        Assertions.assertEquals(0, events.size(), events.toString());
+
+        snapshot.diff(snapshot, events);
+        Assertions.assertEquals(0, events.size(), events.toString());
+    }
+
+    @Test
+    void diffReportsEveryChange() {
+        ClusterSnapshot previous = ClusterSnapshot.of(cluster(1, 2, 3), List.of(
+                topic("orders", partition(0, 1, List.of(1, 2, 3), List.of(1, 2, 3)), partition(1, 2, List.of(2, 3, 1), List.of(1, 2, 3))),
+                topic("payments", partition(0, 3, List.of(3, 1), List.of(1, 3)))));
+        ClusterSnapshot snapshot = ClusterSnapshot.of(cluster(1, 2, 4), List.of(
+                topic("audit", partition(0, 4, List.of(4, 1), List.of(1, 4))),
+                topic("orders", partition(0, 2, List.of(1, 2, 3), List.of(1, 2)), partition(1, 2, List.of(2, 3, 1), List.of(1, 2, 3)),
+                        partition(2, 4, List.of(4, 1, 2), List.of(1, 2, 4)))));
+
+        ArrayNode events = objectMapper.createArrayNode();
+        snapshot.diff(previous, events);
+
+        Assertions.assertEquals(List.of("brokerLeft", "brokerJoined", "topicAdded", "leaderChanged", "isrChanged", "partitionsAdded",
+                "topicRemoved"), types(events));
+        Assertions.assertEquals(3, events.get(0).get("broker").asInt());
+        Assertions.assertEquals(4, events.get(1).get("broker").asInt());
+        Assertions.assertEquals("audit", events.get(2).get("topic").asText());
+        Assertions.assertEquals(1, events.get(2).get("partitions").asInt());
+
+        JsonNode leaderChanged = events.get(3);
+        Assertions.assertEquals("orders", leaderChanged.get("topic").asText());
+        Assertions.assertEquals(0, leaderChanged.get("partition").asInt());
+        Assertions.assertEquals(1, leaderChanged.get("previousLeader").asInt());
+        Assertions.assertEquals(2, leaderChanged.get("leader").asInt());
+
+        JsonNode isrChanged = events.get(4);
+        Assertions.assertEquals(0, isrChanged.get("partition").asInt());
+        Assertions.assertEquals("[1,2]", isrChanged.get("isr").toString());
+        Assertions.assertEquals("[3]", isrChanged.get("removed").toString());
+        Assertions.assertEquals("[]", isrChanged.get("added").toString());
+        Assertions.assertTrue(isrChanged.get("underReplicated").asBoolean());
+
+        JsonNode partitionsAdded = events.get(5);
+        Assertions.assertEquals(2, partitionsAdded.get("previousPartitions").asInt());
+        Assertions.assertEquals(3, partitionsAdded.get("partitions").asInt());
+        Assertions.assertEquals("payments", events.get(6).get("topic").asText());
+    }
+
+    private static List<String> types(ArrayNode events) {
+        List<String> types = new ArrayList<>();
+        events.forEach(event -> types.add(event.get("type").asText()));
+        return types;
+    }
+
+    private static ClusterMetadata cluster(int... brokerIds) {
+        List<Node> nodes = new ArrayList<>();
+        for (int brokerId : brokerIds) {
+            nodes.add(node(brokerId));
+        }
+        return new ClusterMetadata("cluster", nodes, nodes.get(0));
+    }
+
+    private static TopicDescription topic(String name, TopicPartitionInfo... partitions) {
+        return new TopicDescription(name, false, List.of(partitions));
+    }
+
+    /**
+     * @param leader the ID of the leader, or -1 for an offline partition
+     */
+    private static TopicPartitionInfo partition(int partition, int leader, List<Integer> replicas, List<Integer> isr) {
+        return new TopicPartitionInfo(partition, leader < 0 ? null : node(leader),
+                replicas.stream().map(ClusterSnapshotTest::node).toList(), isr.stream().map(ClusterSnapshotTest::node).toList());
+    }
+
+    private static Node node(int id) {
+        return new Node(id, "broker-" + id, 9092);
+    }
+}
@@ -0,0 +1,238 @@
+package kafka.adminclient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import org.apache.kafka.clients.admin.LogDirDescription;
+import org.apache.kafka.clients.admin.ReplicaInfo;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the plans of {@link KafkaClusterRebalancer.Model} against the layout they produce. The
+ * cluster has 6 brokers with every replica on the first 3, as right after a scale-out. Broker IDs
+ * start at 1 so that a mix-up between IDs and indexes shows.
+ */
+class KafkaClusterRebalancerTest {
+    private static final List<Integer> BROKER_IDS = List.of(1, 2, 3, 4, 5, 6);
+    private static final int PARTITIONS = 240;
+    private static final int REPLICATION_FACTOR = 3;
+
+    private final Map<TopicPartition, List<Integer>> assignment = new LinkedHashMap<>();
+    private final Map<TopicPartition, Long> sizes = new HashMap<>();
+
+    KafkaClusterRebalancerTest() {
+        Random random = new Random(42);
+        for (int p = 0; p < PARTITIONS; p++) {
+            TopicPartition topicPartition = new TopicPartition("topic-" + p % 4, p / 4);
+            List<Integer> replicas = new ArrayList<>(List.of(1, 2, 3));
+            Collections.rotate(replicas, p);
+            assignment.put(topicPartition, replicas);
+            // Few distinct sizes, so that many candidates tie, and some empty partitions
+            sizes.put(topicPartition, p % 10 == 0 ? 0 : (1 + random.nextInt(8)) * 1_000_000L);
+        }
+    }
+
+    @Test
+    void rebalanceKeepsEveryPartitionValid() {
+        KafkaClusterRebalancer.Model model = load(Set.of());
+        RebalancePlan plan = model.plan(RebalanceOptions.DEFAULT, true);
+
+        Assertions.assertFalse(plan.reassignments().isEmpty());
+        checkPlan(model, plan);
+    }
+
+    @Test
+    void rebalanceEvensOutDiskUsage() {
+        RebalancePlan plan = load(Set.of()).plan(new RebalanceOptions(0.1, 0, 0, false), true);
+
+        long mean = LongStream.of(plan.bytesAfter()).sum() / BROKER_IDS.size();
+        for (long bytes : plan.bytesAfter()) {
+            // A broker may stay outside the tolerance by less than the largest partition
+            Assertions.assertTrue(Math.abs(bytes - mean) <= mean * 0.1 + 8_000_000L,
+                    "Broker holds " + bytes + " bytes, the mean is " + mean);
+        }
+    }
+
+    @Test
+    void rebalanceStopsAtTheLimits() {
+        KafkaClusterRebalancer.Model model = load(Set.of());
+        RebalancePlan plan = model.plan(new RebalanceOptions(0, 10, 0, false), true);
+        Assertions.assertEquals(10, plan.replicaMoves());
+        checkPlan(model, plan);
+
+        model = load(Set.of());
+        plan = model.plan(new RebalanceOptions(0, 0, 20_000_000L, false), true);
+        Assertions.assertTrue(plan.bytesMoved() > 0 && plan.bytesMoved() <= 20_000_000L, "Moved " + plan.bytesMoved() + " bytes");
+        checkPlan(model, plan);
+    }
+
+    @Test
+    void rebalanceLeavesExcludedPartitionsAlone() {
+        Set<TopicPartition> excluded = new HashSet<>(new ArrayList<>(assignment.keySet()).subList(0, 20));
+        KafkaClusterRebalancer.Model model = load(excluded);
+        RebalancePlan plan = model.plan(RebalanceOptions.DEFAULT, true);
+
+        Assertions.assertEquals(excluded.size(), plan.skippedPartitions());
+        for (TopicPartition topicPartition : excluded) {
+            Assertions.assertFalse(plan.reassignments().containsKey(topicPartition), topicPartition + " was moved");
+        }
+        checkPlan(model, plan);
+    }
+
+    @Test
+    void drainMovesEveryReplicaOffTheBrokers() {
+        KafkaClusterRebalancer.Model model = load(Set.of());
+        RebalancePlan plan = model.drainPlan(Set.of(1, 2));
+
+        Map<TopicPartition, List<Integer>> after = checkPlan(model, plan);
+        after.forEach((topicPartition, replicas) -> Assertions.assertFalse(replicas.contains(1) || replicas.contains(2),
+                topicPartition + " is left on " + replicas));
+    }
+
+    @Test
+    void drainFailsWithTooFewBrokersLeft() {
+        Assertions.assertThrows(IllegalStateException.class, () -> load(Set.of()).drainPlan(Set.of(1, 2, 3, 4)));
+    }
+
+    @Test
+    void drainFailsOnSkippedPartitionsOfTheBrokers() {
+        TopicPartition reassigning = assignment.keySet().iterator().next();
+        IllegalStateException error = Assertions.assertThrows(IllegalStateException.class,
+                () -> load(Set.of(reassigning)).drainPlan(Set.of(assignment.get(reassigning).get(0))));
+        Assertions.assertTrue(error.getMessage().contains(reassigning.toString()), error.getMessage());
+
+        // Brokers the skipped partition is not on can still be drained
+        load(Set.of(reassigning)).drainPlan(Set.of(4));
+    }
+
+    @Test
+    void candidatesSkipRemovedPositions() {
+        int count = 200;
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(7));
+        int[] slots = order.stream().mapToInt(Integer::intValue).toArray();
+        KafkaClusterRebalancer.Candidates live = new KafkaClusterRebalancer.Candidates(slots);
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[slots[i]] = i;
+        }
+
+        // Remove the slots in another order, checking every lookup against a linear scan
+        boolean[] removed = new boolean[count];
+        Collections.shuffle(order, new Random(11));
+        for (int slot : order) {
+            live.remove(slot);
+            removed[positions[slot]] = true;
+            for (int position = 0; position < count; position++) {
+                int after = position;
+                while (after < count && removed[after]) {
+                    after++;
+                }
+                int before = position;
+                while (before >= 0 && removed[before]) {
+                    before--;
+                }
+                Assertions.assertEquals(after, live.atOrAfter(position));
+                Assertions.assertEquals(before, live.atOrBefore(position));
+            }
+            Assertions.assertEquals(-1, live.atOrBefore(-1));
+            Assertions.assertEquals(count, live.atOrAfter(count));
+        }
+    }
+
+    private KafkaClusterRebalancer.Model load(Set<TopicPartition> excluded) {
+        return KafkaClusterRebalancer.Model.load(BROKER_IDS, topics(), excluded, logDirs());
+    }
+
+    /**
+     * Applies the plan to the original layout, and checks that every partition keeps its replication
+     * factor on distinct known brokers, that no bytes appear or vanish, and that the reported moves
+     * and disk usage match the resulting layout.
+     *
+     * @return the replicas of every partition after the plan
+     */
+    private Map<TopicPartition, List<Integer>> checkPlan(KafkaClusterRebalancer.Model model, RebalancePlan plan) {
+        Map<TopicPartition, List<Integer>> after = new LinkedHashMap<>(assignment);
+        plan.reassignments().forEach((topicPartition, target) -> {
+            Assertions.assertTrue(assignment.containsKey(topicPartition), "Unknown partition " + topicPartition);
+            Assertions.assertNotEquals(assignment.get(topicPartition), target, topicPartition + " is reassigned to its replicas");
+            after.put(topicPartition, target);
+        });
+
+        Map<Integer, Long> brokerBytes = new HashMap<>();
+        after.forEach((topicPartition, replicas) -> {
+            Assertions.assertEquals(REPLICATION_FACTOR, replicas.size(), "Replication factor of " + topicPartition);
+            Assertions.assertEquals(replicas.size(), new HashSet<>(replicas).size(), topicPartition + " has replicas " + replicas);
+            Assertions.assertTrue(BROKER_IDS.containsAll(replicas), topicPartition + " has replicas " + replicas);
+            for (int replica : replicas) {
+                brokerBytes.merge(replica, sizes.get(topicPartition), Long::sum);
+            }
+        });
+
+        Assertions.assertEquals(LongStream.of(plan.bytesBefore()).sum(), LongStream.of(plan.bytesAfter()).sum());
+        for (int b = 0; b < plan.brokerIds().length; b++) {
+            Assertions.assertEquals(brokerBytes.getOrDefault(plan.brokerIds()[b], 0L), plan.bytesAfter()[b],
+                    "Bytes of broker " + plan.brokerIds()[b]);
+        }
+
+        int moves = 0;
+        long bytesMoved = 0;
+        for (int r = 0; r < model.replicas.length; r++) {
+            if (model.movedSlot[r]) {
+                moves++;
+                bytesMoved += model.sizes[model.slotPartition[r]];
+            }
+        }
+        Assertions.assertEquals(moves, plan.replicaMoves());
+        Assertions.assertEquals(bytesMoved, plan.bytesMoved());
+        return after;
+    }
+
+    private Collection<TopicDescription> topics() {
+        Map<String, List<TopicPartitionInfo>> partitionInfos = new LinkedHashMap<>();
+        assignment.forEach((topicPartition, replicas) -> {
+            List<Node> nodes = replicas.stream().map(KafkaClusterRebalancerTest::node).toList();
+            partitionInfos.computeIfAbsent(topicPartition.topic(), topic -> new ArrayList<>())
+                    .add(new TopicPartitionInfo(topicPartition.partition(), nodes.get(0), nodes, nodes));
+        });
+        List<TopicDescription> topics = new ArrayList<>();
+        partitionInfos.forEach((topic, partitions) -> topics.add(new TopicDescription(topic, false, partitions)));
+        return topics;
+    }
+
+    private Map<Integer, Map<String, LogDirDescription>> logDirs() {
+        Map<Integer, Map<TopicPartition, ReplicaInfo>> replicaInfos = new HashMap<>();
+        for (int broker : BROKER_IDS) {
+            replicaInfos.put(broker, new HashMap<>());
+        }
+        assignment.forEach((topicPartition, replicas) -> {
+            for (int replica : replicas) {
+                replicaInfos.get(replica).put(topicPartition, new ReplicaInfo(sizes.get(topicPartition), 0, false));
+            }
+        });
+        Map<Integer, Map<String, LogDirDescription>> logDirs = new HashMap<>();
+        replicaInfos.forEach((broker, infos) -> logDirs.put(broker, Map.of("/var/lib/kafka/data-0", new LogDirDescription(null, infos))));
+        return logDirs;
+    }
+
+    private static Node node(int id) {
+        return new Node(id, "broker-" + id, 9092);
+    }
+}
@@ -0,0 +1,166 @@
+package kafka.adminclient;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.clients.admin.LogDirDescription;
+import org.apache.kafka.clients.admin.ReplicaInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionReplica;
+import org.apache.kafka.common.errors.KafkaStorageException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link KafkaLogDirBalancer#planMoves} against the log dirs it is given. Broker 1 reports no
+ * capacity and has one full dir next to two nearly empty ones, one of which is receiving a replica.
+ * Broker 2 reports capacities, has dirs of different sizes and an offline dir.
+ */
+class KafkaLogDirBalancerTest {
+    private static final long MB = 1_000_000L;
+
+    private final Map<Integer, Map<String, LogDirDescription>> logDirs = new HashMap<>();
+
+    KafkaLogDirBalancerTest() {
+        Map<TopicPartition, ReplicaInfo> full = new HashMap<>();
+        Map<TopicPartition, ReplicaInfo> light = new HashMap<>();
+        Map<TopicPartition, ReplicaInfo> receiving = new HashMap<>();
+        for (int p = 0; p < 40; p++) {
+            full.put(new TopicPartition("orders", p), new ReplicaInfo((1 + p % 6) * MB, 0, false));
+        }
+        light.put(new TopicPartition("payments", 0), new ReplicaInfo(5 * MB, 0, false));
+        // A move between dirs that is already running
+        full.put(new TopicPartition("migrating", 0), new ReplicaInfo(50 * MB, 0, false));
+        receiving.put(new TopicPartition("migrating", 0), new ReplicaInfo(10 * MB, 0, true));
+        logDirs.put(1, Map.of(
+                "/var/lib/kafka/data-0", new LogDirDescription(null, full),
+                "/var/lib/kafka/data-1", new LogDirDescription(null, light),
+                "/var/lib/kafka/data-2", new LogDirDescription(null, receiving)));
+
+        Map<TopicPartition, ReplicaInfo> small = new HashMap<>();
+        Map<TopicPartition, ReplicaInfo> large = new HashMap<>();
+        for (int p = 0; p < 30; p++) {
+            small.put(new TopicPartition("events", p), new ReplicaInfo((1 + p % 4) * MB, 0, false));
+        }
+        logDirs.put(2, Map.of(
+                "/var/lib/kafka/data-0", new LogDirDescription(null, small, 100 * MB, 100 * MB - 75 * MB),
+                "/var/lib/kafka/data-1", new LogDirDescription(null, large, 400 * MB, 400 * MB),
+                "/var/lib/kafka/data-2", new LogDirDescription(new KafkaStorageException("Disk error"), Map.of())));
+    }
+
+    @Test
+    void movesStayWithinTheBrokerAndConserveBytes() {
+        LogDirPlan plan = KafkaLogDirBalancer.planMoves(logDirs, LogDirBalanceOptions.DEFAULT);
+
+        Assertions.assertFalse(plan.moves().isEmpty());
+        checkPlan(plan);
+    }
+
+    @Test
+    void movesNarrowTheGapBetweenDirs() {
+        LogDirPlan plan = KafkaLogDirBalancer.planMoves(logDirs, LogDirBalanceOptions.DEFAULT);
+
+        for (int brokerId : logDirs.keySet()) {
+            long beforeGap = gap(plan, brokerId, true);
+            long afterGap = gap(plan, brokerId, false);
+            Assertions.assertTrue(afterGap < beforeGap, "Gap of broker " + brokerId + " went from " + beforeGap + " to " + afterGap);
+        }
+        // Broker 2's dirs are balanced by the fraction of their capacity in use
+        for (LogDirPlan.Dir dir : plan.dirs()) {
+            if (dir.brokerId() == 2 && dir.error() == null) {
+                Assertions.assertEquals(0.15, (double) dir.bytesAfter() / dir.totalBytes(), 0.02, dir.toString());
+            }
+        }
+    }
+
+    @Test
+    void movesLeaveRunningMovesAndOfflineDirsAlone() {
+        LogDirPlan plan = KafkaLogDirBalancer.planMoves(logDirs, LogDirBalanceOptions.DEFAULT);
+
+        for (LogDirPlan.Move move : plan.moves()) {
+            Assertions.assertNotEquals("migrating", move.replica().topic(), move.toString());
+            Assertions.assertFalse(move.replica().brokerId() == 2 && move.targetDir().equals("/var/lib/kafka/data-2"), move.toString());
+        }
+        LogDirPlan.Dir offline = plan.dirs().stream()
+                .filter(dir -> dir.brokerId() == 2 && dir.path().equals("/var/lib/kafka/data-2"))
+                .findFirst().orElseThrow();
+        Assertions.assertEquals("Disk error", offline.error());
+    }
+
+    @Test
+    void movesStopAtTheLimits() {
+        LogDirPlan plan = KafkaLogDirBalancer.planMoves(logDirs, new LogDirBalanceOptions(0, 5, 0, 1, 0));
+        Assertions.assertEquals(5, plan.moves().size());
+        checkPlan(plan);
+
+        plan = KafkaLogDirBalancer.planMoves(logDirs, new LogDirBalanceOptions(0, 0, 20 * MB, 1, 0));
+        Assertions.assertTrue(plan.bytesMoved() > 0 && plan.bytesMoved() <= 20 * MB, "Moved " + plan.bytesMoved() + " bytes");
+        checkPlan(plan);
+    }
+
+    @Test
+    void balancedDirsAreLeftAlone() {
+        Map<TopicPartition, ReplicaInfo> first = Map.of(new TopicPartition("orders", 0), new ReplicaInfo(10 * MB, 0, false));
+        Map<TopicPartition, ReplicaInfo> second = Map.of(new TopicPartition("orders", 1), new ReplicaInfo(10 * MB, 0, false));
+        LogDirPlan plan = KafkaLogDirBalancer.planMoves(Map.of(1, Map.of(
+                "/var/lib/kafka/data-0", new LogDirDescription(null, first),
+                "/var/lib/kafka/data-1", new LogDirDescription(null, second))), LogDirBalanceOptions.DEFAULT);
+
+        Assertions.assertEquals(List.of(), plan.moves());
+        Assertions.assertEquals(0, plan.bytesMoved());
+    }
+
+    /**
+     * Checks that every move takes a replica from the dir that holds it to another online dir of its
+     * broker, that no replica moves twice, and that the reported usage of every dir adds up.
+     */
+    private void checkPlan(LogDirPlan plan) {
+        Set<TopicPartitionReplica> moved = new HashSet<>();
+        Map<String, Long> delta = new HashMap<>();
+        long bytesMoved = 0;
+        for (LogDirPlan.Move move : plan.moves()) {
+            Assertions.assertTrue(moved.add(move.replica()), move.replica() + " moves twice");
+            Map<String, LogDirDescription> brokerDirs = logDirs.get(move.replica().brokerId());
+            TopicPartition topicPartition = new TopicPartition(move.replica().topic(), move.replica().partition());
+            ReplicaInfo replica = brokerDirs.get(move.sourceDir()).replicaInfos().get(topicPartition);
+            Assertions.assertNotNull(replica, move + " is not in its source dir");
+            Assertions.assertFalse(replica.isFuture(), move.toString());
+            Assertions.assertEquals(replica.size(), move.sizeBytes(), move.toString());
+            Assertions.assertNotEquals(move.sourceDir(), move.targetDir(), move.toString());
+            Assertions.assertNotNull(brokerDirs.get(move.targetDir()), move.toString());
+            Assertions.assertNull(brokerDirs.get(move.targetDir()).error(), move.toString());
+
+            delta.merge(move.replica().brokerId() + ":" + move.sourceDir(), -move.sizeBytes(), Long::sum);
+            delta.merge(move.replica().brokerId() + ":" + move.targetDir(), move.sizeBytes(), Long::sum);
+            bytesMoved += move.sizeBytes();
+        }
+        Assertions.assertEquals(bytesMoved, plan.bytesMoved());
+
+        Map<Integer, Long> brokerBefore = new HashMap<>();
+        Map<Integer, Long> brokerAfter = new HashMap<>();
+        for (LogDirPlan.Dir dir : plan.dirs()) {
+            Assertions.assertEquals(dir.bytesBefore() + delta.getOrDefault(dir.brokerId() + ":" + dir.path(), 0L), dir.bytesAfter(),
+                    dir.toString());
+            brokerBefore.merge(dir.brokerId(), dir.bytesBefore(), Long::sum);
+            brokerAfter.merge(dir.brokerId(), dir.bytesAfter(), Long::sum);
+        }
+        Assertions.assertEquals(brokerBefore, brokerAfter);
+    }
+
+    private static long gap(LogDirPlan plan, int brokerId, boolean before) {
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (LogDirPlan.Dir dir : plan.dirs()) {
+            if (dir.brokerId() == brokerId && dir.error() == null) {
+                long bytes = before ? dir.bytesBefore() : dir.bytesAfter();
+                long capacity = dir.totalBytes() > 0 ? dir.totalBytes() / MB : 1;
+                min = Math.min(min, bytes / capacity);
+                max = Math.max(max, bytes / capacity);
+            }
+        }
+        return max - min;
+    }
+}